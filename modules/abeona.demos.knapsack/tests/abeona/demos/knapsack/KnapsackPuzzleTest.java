@@ -10,14 +10,18 @@ import abeona.frontiers.TreeMapFrontier;
 import abeona.heaps.HashSetHeap;
 import abeona.heaps.Heap;
 import abeona.heaps.ManagedHeap;
+import abeona.heaps.ProgressBucketHeap;
 import org.junit.jupiter.api.Test;
 
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 class KnapsackPuzzleTest {
 
     @Test
@@ -62,6 +66,33 @@ class KnapsackPuzzleTest {
         solveWithQuery(query);
     }
 
+    @Test
+    void solveWithSweepLineBuckets() {
+        final Comparator<KnapsackFilling> progressComparator = Comparator
+                .comparingLong(filling -> filling.getItems().count());
+        final Comparator<KnapsackFilling> frontierComparator = progressComparator
+                .thenComparingInt(KnapsackFilling::totalValue).thenComparingInt(KnapsackFilling::totalWeight);
+        final Frontier<KnapsackFilling> frontier = TreeMapFrontier.withExactOrdering(frontierComparator);
+        final var sweepLine = new SweepLineBehaviour<>(progressComparator);
+        final ProgressBucketHeap<KnapsackFilling> heap = sweepLine.createHeap();
+        final NextFunction<KnapsackFilling> next = NextFunction.wrap(KnapsackFilling::next);
+        final Query<KnapsackFilling> query = new Query<>(frontier, heap, next);
+        query.addBehaviour(sweepLine);
+        assertTrue(sweepLine.usesBucketPurge(query));
+        final var purged = new AtomicLong();
+        final var evaluated = new AtomicLong();
+        final var largestHeap = new AtomicLong();
+        sweepLine.onPurge.tap(event -> purged.incrementAndGet());
+        query.afterStateEvaluation.tap(event -> {
+            evaluated.incrementAndGet();
+            largestHeap.accumulateAndGet(heap.size(), Math::max);
+        });
+        query.getFrontier().add(Stream.of(createInitialFilling()));
+        query.explore();
+        assertTrue(purged.get() > 0, "States with a lower progress should be purged from the heap");
+        assertTrue(largestHeap.get() < evaluated.get(), "The heap should not hold every explored state");
+    }
+
     @Test
     void solveWithoutSweepLine() {
         final Comparator<KnapsackFilling> progressComparator = Comparator
@@ -75,15 +106,19 @@ class KnapsackPuzzleTest {
         solveWithQuery(query);
     }
 
-    private void solveWithQuery(Query<KnapsackFilling> query) {
-        // Setup puzzle
+    private static KnapsackFilling createInitialFilling() {
         final var puzzle = new KnapsackPuzzle(50);
         for (int i = 1; i <= 5; i++) {
             for (int j = 1; j <= 5; j++) {
                 puzzle.availableItems.add(new Item(i, j));
             }
         }
-        query.getFrontier().add(Stream.of(new KnapsackFilling(puzzle, Collections.emptySet())));
+        return new KnapsackFilling(puzzle, Collections.emptySet());
+    }
+
+    private void solveWithQuery(Query<KnapsackFilling> query) {
+        // Setup puzzle
+        query.getFrontier().add(Stream.of(createInitialFilling()));
         // Setup answer collection
         final var answers = new HashSet<KnapsackFilling>();
         query.onTransitionEvaluation.tap(event -> {
@@ -14,7 +14,7 @@ public class QueryHelpers {
     static Comparator<PlayerState> astar(Maze maze, TraceCostBehaviour<PlayerState> cost) {
         final var heuristic = distanceFunction(END_X, END_Y);
         return Comparator.<PlayerState>comparingDouble(state -> {
-            var leading = cost.getTraceCost(state).orElse(0);
+            var leading = cost.getTraceCostOrDefault(state, 0);
             var remaining = heuristic.applyAsDouble(state);
             return leading + remaining;
         })
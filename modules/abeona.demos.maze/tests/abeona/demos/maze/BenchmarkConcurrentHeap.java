@@ -0,0 +1,110 @@
+package abeona.demos.maze;
+
+import abeona.Query;
+import abeona.demos.maze.benchmarks.BenchmarkBase;
+import abeona.frontiers.QueueFrontier;
+import abeona.heaps.ConcurrentHashSetHeap;
+import abeona.heaps.HashSetHeap;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the {@link ConcurrentHashSetHeap} against a {@link HashSet} wrapped in {@link Collections#synchronizedSet(Set)}.
+ * The claim benchmarks let every thread offer every cell of the maze to the closed set, starting at a different cell, so all threads contend for the same states like parallel workers discovering overlapping regions.
+ * The explore benchmarks run {@link Query#exploreParallel(int)} over the whole maze, once with the concurrent heap and once with a {@link HashSetHeap} that makes the workers serialize on the exploration lock.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkConcurrentHeap extends BenchmarkBase {
+    @Override
+    public void prepareBenchmarkRun() {
+        super.prepareBenchmarkRun();
+        states = new ArrayList<>(WIDTH * HEIGHT);
+        for (int x = 0; x < WIDTH; x++) {
+            for (int y = 0; y < HEIGHT; y++) {
+                states.add(new PlayerState(maze.at(new Position(x, y)).orElseThrow()));
+            }
+        }
+        start = new PlayerState(maze.at(new Position(START_X, START_Y)).orElseThrow());
+    }
+
+    int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+    List<PlayerState> states = null;
+    PlayerState start = null;
+
+    public int claimConcurrent() {
+        final var heap = new ConcurrentHashSetHeap<PlayerState>();
+        return claimAll(heap::add);
+    }
+
+    public int claimSynchronized() {
+        final var heap = Collections.synchronizedSet(new HashSet<PlayerState>());
+        return claimAll(heap::add);
+    }
+
+    public long exploreConcurrent() {
+        final var heap = new ConcurrentHashSetHeap<PlayerState>();
+        final var query = new Query<>(QueueFrontier.fifoFrontier(), heap, PlayerState::next);
+        query.getFrontier().add(Stream.of(start));
+        query.exploreParallel(threads);
+        return heap.size();
+    }
+
+    public long exploreSerialized() {
+        final var heap = new HashSetHeap<PlayerState>();
+        final var query = new Query<>(QueueFrontier.fifoFrontier(), heap, PlayerState::next);
+        query.getFrontier().add(Stream.of(start));
+        query.exploreParallel(threads);
+        return heap.size();
+    }
+
+    private int claimAll(Predicate<PlayerState> claim) {
+        final var claimed = new AtomicInteger();
+        final var workers = new ArrayList<Thread>(threads);
+        for (int i = 0; i < threads; i++) {
+            final int offset = i * states.size() / threads;
+            final var worker = new Thread(() -> {
+                int wins = 0;
+                for (int j = 0; j < states.size(); j++) {
+                    if (claim.test(states.get((offset + j) % states.size()))) {
+                        wins++;
+                    }
+                }
+                claimed.addAndGet(wins);
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return claimed.get();
+    }
+
+    @Test
+    void claimsEveryStateOnce() {
+        mazeSize = 64;
+        prepareBenchmarkRun();
+        assertEquals(states.size(), claimConcurrent(), "Every state should be claimed by exactly one thread");
+        assertEquals(states.size(), claimSynchronized(), "Every state should be claimed by exactly one thread");
+    }
+
+    @Test
+    void exploresEveryCell() {
+        mazeSize = 64;
+        prepareBenchmarkRun();
+        assertEquals(states.size(), exploreConcurrent(), "The generated maze is connected, so every cell should be explored");
+        assertEquals(states.size(), exploreSerialized(), "The generated maze is connected, so every cell should be explored");
+    }
+}
@@ -0,0 +1,43 @@
+package abeona.demos.maze;
+
+import abeona.demos.maze.benchmarks.BenchmarkBase;
+import abeona.engines.ParallelBfs;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@State(Scope.Benchmark)
+public class BenchmarkParallelBfs extends BenchmarkBase {
+    @Override
+    public void prepareBenchmarkRun() {
+        super.prepareBenchmarkRun();
+        start = new PlayerState(maze.at(new Position(START_X, START_Y)).orElseThrow());
+        engine = new ParallelBfs<>(PlayerState::next);
+    }
+
+    PlayerState start = null;
+    ParallelBfs<PlayerState> engine = null;
+
+    boolean isGoal(PlayerState state) {
+        final var pos = state.getLocation().getPos();
+        return pos.getX() == END_X && pos.getY() == END_Y;
+    }
+
+    public void exploreMaze() {
+        engine.search(Stream.of(start), this::isGoal);
+    }
+
+    @Test
+    void findsExit() {
+        mazeSize = 64;
+        prepareBenchmarkRun();
+        final var goal = engine.search(Stream.of(start), this::isGoal);
+        assertTrue(goal.isPresent(), "The exit should be reachable");
+        assertEquals(start, engine.getStateTrace(goal.get()).get(0), "The trace should start at the entrance");
+    }
+}
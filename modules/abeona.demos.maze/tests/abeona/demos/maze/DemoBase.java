@@ -1,7 +1,7 @@
 package abeona.demos.maze;
 
 import abeona.Query;
-import abeona.behaviours.BacktraceBehaviour;
+import abeona.behaviours.CompactBacktraceBehaviour;
 import abeona.behaviours.TerminateOnGoalStateBehaviour;
 import abeona.demos.maze.benchmarks.BenchmarkBase;
 import abeona.metadata.IsKnownOptimization;
@@ -34,7 +34,7 @@ public abstract class DemoBase extends BenchmarkBase {
     void renderExploration() {
         final var maze = prepareMaze();
         final var query = prepareQuery(maze);
-        final var keepTrace = new BacktraceBehaviour<PlayerState>();
+        final var keepTrace = new CompactBacktraceBehaviour<PlayerState>();
         keepTrace.attach(query);
         final var termination = new TerminateOnGoalStateBehaviour<>(this::isGoal);
         termination.attach(query);
@@ -34,6 +34,31 @@ public class BenchmarkRunner {
         demo.exploreMazeHandcrafted();
     }
 
+    @Benchmark
+    public void bfs_parallel(BenchmarkParallelBfs demo) {
+        demo.exploreMaze();
+    }
+
+    @Benchmark
+    public int heap_claim_concurrent(BenchmarkConcurrentHeap demo) {
+        return demo.claimConcurrent();
+    }
+
+    @Benchmark
+    public int heap_claim_synchronized(BenchmarkConcurrentHeap demo) {
+        return demo.claimSynchronized();
+    }
+
+    @Benchmark
+    public long explore_parallel_concurrent(BenchmarkConcurrentHeap demo) {
+        return demo.exploreConcurrent();
+    }
+
+    @Benchmark
+    public long explore_parallel_serialized(BenchmarkConcurrentHeap demo) {
+        return demo.exploreSerialized();
+    }
+
     @Benchmark
     public void dfs_abeona(DemoDfs demo) {
         demo.benchmarkQuery.explore();
@@ -1,6 +1,7 @@
 package abeona.demos.network;
 
 import abeona.demos.network.Network;
+import abeona.engines.BidirectionalSearch;
 import abeona.util.ExplorationPresets;
 import org.junit.jupiter.api.Test;
 
@@ -50,4 +51,24 @@ class NetworkTest {
         );
         assertIterableEquals(expectedOrder, evaluationOrder);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testBidirectional() {
+        // Connections are undirected, so the next-function is its own reverse
+        final var engine = new BidirectionalSearch<Network.Station>(Network.Station::next, Network.Station::next, stationTransition -> (double) (int) stationTransition.getUserdata());
+        final var network = createNetwork();
+        final var start = network.getStation("start").orElseThrow();
+        final var end = network.getStation("end").orElseThrow();
+        assertEquals(end, engine.search(Stream.of(start), Stream.of(end)).orElseThrow());
+        assertEquals(7, engine.getTraceCost().orElseThrow());
+
+        final var expectedTrace = List.of(
+                start,
+                network.getStation("left-1").orElseThrow(),
+                network.getStation("left-2").orElseThrow(),
+                network.getStation("left-3").orElseThrow(),
+                end
+        );
+        assertIterableEquals(expectedTrace, engine.getStateTrace());
+    }
+}
@@ -1,7 +1,7 @@
 package abeona.demos.pddl;
 
 import abeona.Query;
-import abeona.Transition;
+import abeona.behaviours.CompactBacktraceBehaviour;
 import abeona.behaviours.TerminateOnGoalStateBehaviour;
 import fr.uga.pddl4j.encoding.CodedProblem;
 import fr.uga.pddl4j.planners.statespace.AbstractStateSpacePlanner;
@@ -10,7 +10,6 @@ import fr.uga.pddl4j.util.BitState;
 import fr.uga.pddl4j.util.Plan;
 import fr.uga.pddl4j.util.SequentialPlan;
 
-import java.util.LinkedList;
 import java.util.stream.Stream;
 
 import static abeona.demos.pddl.Helpers.createGoalPredicate;
@@ -31,9 +30,9 @@ public class AbeonaStateSpacePlanner extends AbstractStateSpacePlanner {
         query.getFrontier().clear();
         // Setup the initial state of the problem
         query.getFrontier().add(Stream.of(new BitState(codedProblem.getInit())));
-        // Keep track of a backtrace, but the default of abeona does not store transitions
-        // The plan requires the BitOp assigned to transitions, so this behaviour stores the transitions instead
-        final var backtraceBehaviour = new PddlBacktraceBehaviour();
+        // Keep track of a backtrace, the plan requires the BitOp assigned to transitions
+        // The compact backtrace rebuilds the transitions (including the BitOp) from the stored links when asked for them
+        final var backtraceBehaviour = new CompactBacktraceBehaviour<BitState>();
         query.addBehaviour(backtraceBehaviour);
         // Setup the termination behaviour so we can easily wrap with logic later
         final var goalBehaviour = new TerminateOnGoalStateBehaviour<>(createGoalPredicate(codedProblem));
@@ -43,13 +42,7 @@ public class AbeonaStateSpacePlanner extends AbstractStateSpacePlanner {
             // Execute the query with the wrapper utility
             return goalBehaviour.wrapExploration(query).map(state -> {
                 // We now know the goal state, with backtraces we can build the plan
-                final var backtrace = backtraceBehaviour.iterateBackwardsTrace(state);
-                final var trace = new LinkedList<Transition<BitState>>();
-                // Collect the trace into a linked list so we can traverse it in forward order
-                while (backtrace.hasNext()) {
-                    final var next = backtrace.next();
-                    trace.addFirst(next);
-                }
+                final var trace = backtraceBehaviour.getTransitionTrace(state);
                 // Build the plan
                 final var plan = new SequentialPlan();
                 for (var step : trace) {
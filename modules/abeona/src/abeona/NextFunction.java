@@ -10,6 +10,7 @@ import java.util.stream.Stream;
  * A next-function is a function that for a given state is able to produce an enumeration of the outgoing transitions.
  *
  * There also is a helper function {@link #wrap(Function)} that creates a next-function given you can at least identify the neighbours of a given state.
+ * For state spaces with a small branching factor consider implementing {@link PushNextFunction} instead, which avoids building a stream for every evaluated state.
  *
  * @param <StateType>
  */
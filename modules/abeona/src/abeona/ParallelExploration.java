@@ -0,0 +1,342 @@
+package abeona;
+
+import abeona.frontiers.Frontier;
+import abeona.heaps.ConcurrentHashSetHeap;
+import abeona.util.Arguments;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs the exploration loop of a {@link Query} on multiple worker threads, used by {@link Query#exploreParallel(int)}.
+ *
+ * The exploration runs in one of two modes, see {@link #isConcurrent(Query)}.
+ *
+ * In the concurrent mode the heap of the query is a {@link ConcurrentHashSetHeap} that serves as the closed set shared by all workers.
+ * The states of the frontier are claimed in the heap and distributed over a deque per worker, after which the frontier of the query is not used until the exploration stops.
+ * A worker takes states from the back of its own deque and, once that is empty, steals from the front of the deques of the other workers.
+ * Every generated target state is claimed through a single {@link ConcurrentHashSetHeap#add(Object)}, only the worker that wins the claim pushes the state onto its own deque.
+ * Picking, generating and claiming states therefore run without any lock, only tapped events are fired while holding the exploration lock.
+ * The exploration is exhausted once no state is waiting in a deque or being evaluated, which is tracked by a counter of pending states.
+ * When the exploration stops early the states that are still waiting in the deques are removed from the heap and returned to the frontier.
+ *
+ * In the serialized mode each worker repeatedly picks a state from the frontier, applies the next-function to it outside of the exploration lock and then evaluates the produced transitions while holding the lock again.
+ * Since the frontier, heap and tap handlers are not required to be thread-safe, only the generation of the outgoing transitions runs concurrently.
+ * The frontier counts as exhausted once it is empty while no worker is still evaluating a state, since an evaluation in progress may still add new states.
+ *
+ * @param <StateType>
+ */
+final class ParallelExploration<StateType> {
+    private static final int IDLE_SPINS = 64;
+    private static final long IDLE_PARK_NANOS = 50_000;
+    private final Query<StateType> query;
+    private final Frontier<StateType> frontier;
+    private final ConcurrentHashSetHeap<StateType> closedSet;
+    private final NextFunction<StateType> nextFunction;
+    private final int parallelism;
+    private final boolean concurrent;
+    private final Object lock = new Object();
+    private final List<ConcurrentLinkedDeque<StateType>> deques;
+    private final AtomicLong pending = new AtomicLong();
+    private int busyWorkers = 0;
+    private volatile boolean stopped = false;
+    private boolean manualTermination = false;
+    private Throwable error = null;
+
+    ParallelExploration(Query<StateType> query, int parallelism) {
+        Arguments.requireNonNull(query, "query");
+        Arguments.requireMinimum(1, parallelism, "parallelism");
+        this.query = query;
+        this.frontier = query.getFrontier();
+        this.nextFunction = query.getNextFunction();
+        this.parallelism = parallelism;
+        this.concurrent = isConcurrent(query);
+        this.closedSet = concurrent ? (ConcurrentHashSetHeap<StateType>) query.getHeap() : null;
+        this.deques = new ArrayList<>(concurrent ? parallelism : 0);
+        if (concurrent) {
+            for (int i = 0; i < parallelism; i++) {
+                deques.add(new ConcurrentLinkedDeque<>());
+            }
+        }
+    }
+
+    /**
+     * Tests whether a query is explored in the concurrent mode.
+     * That requires a {@link ConcurrentHashSetHeap} and no handlers on the taps that decide which states are picked, known or inserted:
+     * {@link Query#pickNextState}, {@link Query#isKnown}, {@link Query#internState}, {@link Query#insertIntoFrontier} and {@link Query#beforeStateEvaluation}.
+     * @param query The query to test
+     * @return True if the workers explore the query concurrently, false if they serialize on the exploration lock
+     */
+    static boolean isConcurrent(Query<?> query) {
+        return query.getHeap() instanceof ConcurrentHashSetHeap
+                && !query.pickNextState.isTapped()
+                && !query.isKnown.isTapped()
+                && !query.internState.isTapped()
+                && !query.insertIntoFrontier.isTapped()
+                && !query.beforeStateEvaluation.isTapped();
+    }
+
+    /**
+     * Runs the workers until the exploration terminates.
+     * The {@link Query#afterExploration} event is not fired, that is left to the caller.
+     * @return The event describing how the exploration terminated
+     */
+    ExplorationTerminationEvent<StateType> run() {
+        try {
+            query.beforeExploration.accept(new ExplorationEvent<>(query));
+            if (concurrent) {
+                distributeFrontier();
+            }
+        } catch (TerminateExplorationSignal signal) {
+            returnToFrontier();
+            return new ExplorationTerminationEvent<>(query, TerminationType.ManualTermination);
+        } catch (Throwable error) {
+            returnToFrontier();
+            return new ExplorationTerminationEvent<>(query, error);
+        }
+        final List<Thread> workers = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            final int index = i;
+            final Runnable work = concurrent ? () -> workConcurrently(index) : this::workSerialized;
+            final var worker = new Thread(work, "abeona-explorer-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+        boolean interrupted = false;
+        for (Thread worker : workers) {
+            while (true) {
+                try {
+                    worker.join();
+                    break;
+                } catch (InterruptedException e) {
+                    // Stop the workers but keep waiting for them so the query is not touched after returning
+                    interrupted = true;
+                    stop(e);
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (lock) {
+            if (concurrent) {
+                try {
+                    returnToFrontier();
+                } catch (Throwable error) {
+                    stop(error);
+                }
+            }
+            if (error != null) {
+                return new ExplorationTerminationEvent<>(query, error);
+            } else if (manualTermination) {
+                return new ExplorationTerminationEvent<>(query, TerminationType.ManualTermination);
+            } else {
+                return new ExplorationTerminationEvent<>(query, TerminationType.FrontierExhaustion);
+            }
+        }
+    }
+
+    private void distributeFrontier() {
+        // States in the frontier are picked regardless of the heap, so they are evaluated even if they were already known
+        int index = 0;
+        while (frontier.hasNext()) {
+            final var state = frontier.next();
+            closedSet.add(state);
+            pending.incrementAndGet();
+            deques.get(index).addLast(state);
+            index = (index + 1) % parallelism;
+        }
+    }
+
+    private void returnToFrontier() {
+        final List<StateType> remaining = new ArrayList<>();
+        for (ConcurrentLinkedDeque<StateType> deque : deques) {
+            for (StateType state = deque.pollFirst(); state != null; state = deque.pollFirst()) {
+                closedSet.remove(state);
+                remaining.add(state);
+            }
+        }
+        if (!remaining.isEmpty()) {
+            frontier.add(remaining.stream());
+        }
+    }
+
+    private void workConcurrently(int index) {
+        final var own = deques.get(index);
+        final Consumer<Transition<StateType>> claimTarget = transition -> {
+            Arguments.requireNonNull(transition, "transition");
+            final var target = transition.getTargetState();
+            if (closedSet.add(target)) {
+                push(own, target);
+            }
+        };
+        int idle = 0;
+        while (!stopped) {
+            final var state = take(index);
+            if (state == null) {
+                if (pending.get() == 0) {
+                    return;
+                }
+                // Another worker is still evaluating a state and may push new work
+                if (++idle < IDLE_SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                continue;
+            }
+            idle = 0;
+            if (query.beforeStatePicked.isTapped()) {
+                try {
+                    synchronized (lock) {
+                        query.beforeStatePicked.accept(new ExplorationEvent<>(query));
+                    }
+                } catch (Throwable error) {
+                    // The state has not been picked yet, it is returned to the frontier when the exploration stops
+                    own.addLast(state);
+                    stop(error);
+                    return;
+                }
+            }
+            try {
+                if (query.afterStatePicked.isTapped()) {
+                    synchronized (lock) {
+                        query.afterStatePicked.accept(new StateEvent<>(query, state));
+                    }
+                }
+                if (query.onTransitionEvaluation.isTapped() || query.onStateDiscovery.isTapped()) {
+                    evaluateWithEvents(state, own);
+                } else {
+                    if (nextFunction instanceof PushNextFunction) {
+                        ((PushNextFunction<StateType>) nextFunction).generate(state, claimTarget);
+                    } else {
+                        nextFunction.apply(state).forEach(claimTarget);
+                    }
+                    fireAfterStateEvaluation(state);
+                }
+            } catch (Throwable error) {
+                stop(error);
+                return;
+            } finally {
+                // Decremented only after the discovered states are pushed, so the counter cannot reach zero while work remains
+                pending.decrementAndGet();
+            }
+        }
+    }
+
+    private void evaluateWithEvents(StateType state, ConcurrentLinkedDeque<StateType> own) {
+        final var transitions = nextFunction.apply(state).collect(Collectors.toList());
+        synchronized (lock) {
+            if (stopped) {
+                // The state is not evaluated, it is returned to the frontier together with the states still waiting in the deques
+                push(own, state);
+                return;
+            }
+            // The events of one evaluation fire together, so handlers observe the transitions of a state in generation order
+            for (Transition<StateType> transition : transitions) {
+                Arguments.requireNonNull(transition, "transition");
+                final var event = new TransitionEvaluationEvent<>(query, transition);
+                event.filterTargetState(target -> !closedSet.contains(target));
+                query.onTransitionEvaluation.accept(event);
+                if (event.getSaveTargetState()) {
+                    final var target = event.getTransition().getTargetState();
+                    if (closedSet.add(target)) {
+                        try {
+                            query.onStateDiscovery.accept(event);
+                        } catch (Throwable error) {
+                            // Like a sequential exploration, a target whose discovery is interrupted is neither known nor in the frontier
+                            closedSet.remove(target);
+                            throw error;
+                        }
+                        push(own, target);
+                    }
+                }
+            }
+        }
+        fireAfterStateEvaluation(state);
+    }
+
+    private void fireAfterStateEvaluation(StateType state) {
+        if (query.afterStateEvaluation.isTapped()) {
+            synchronized (lock) {
+                query.afterStateEvaluation.accept(new StateEvaluationEvent<>(query, state, Stream.empty()));
+            }
+        }
+    }
+
+    private void push(ConcurrentLinkedDeque<StateType> own, StateType state) {
+        pending.incrementAndGet();
+        own.addLast(state);
+    }
+
+    private StateType take(int index) {
+        final var state = deques.get(index).pollLast();
+        if (state != null) {
+            return state;
+        }
+        for (int i = 1; i < parallelism; i++) {
+            final var stolen = deques.get((index + i) % parallelism).pollFirst();
+            if (stolen != null) {
+                return stolen;
+            }
+        }
+        return null;
+    }
+
+    private void workSerialized() {
+        while (true) {
+            final StateType state;
+            synchronized (lock) {
+                try {
+                    while (!stopped && busyWorkers > 0 && !frontier.hasNext()) {
+                        lock.wait();
+                    }
+                    if (stopped || !frontier.hasNext()) {
+                        stopped = true;
+                        lock.notifyAll();
+                        return;
+                    }
+                    state = query.pickNextState();
+                } catch (Throwable error) {
+                    stop(error);
+                    return;
+                }
+                busyWorkers++;
+            }
+            try {
+                final var transitions = nextFunction.apply(state).collect(Collectors.toList());
+                synchronized (lock) {
+                    if (!stopped) {
+                        query.evaluateState(state, transitions.stream());
+                    }
+                }
+            } catch (Throwable error) {
+                stop(error);
+            } finally {
+                synchronized (lock) {
+                    busyWorkers--;
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    private void stop(Throwable cause) {
+        synchronized (lock) {
+            if (cause instanceof TerminateExplorationSignal) {
+                manualTermination = true;
+            } else if (error == null) {
+                error = cause;
+            }
+            stopped = true;
+            lock.notifyAll();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package abeona;
+
+import abeona.util.Arguments;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Variant of the {@link NextFunction} that pushes the outgoing transitions of a state into a sink provided by the caller instead of returning a stream.
+ * A {@link Query} recognizes this interface and, when no tap requires the transitions as a stream, evaluates the pushed transitions directly without building a stream pipeline.
+ * This is the cheaper option for state spaces with a small branching factor, where setting up a stream for every evaluated state dominates the cost of enumerating the transitions.
+ *
+ * The {@link #apply(Object)} method is implemented on top of {@link #generate(Object, Consumer)}, so this next-function can be used anywhere a {@link NextFunction} is expected.
+ *
+ * @param <StateType>
+ */
+@FunctionalInterface
+public interface PushNextFunction<StateType> extends NextFunction<StateType> {
+    /**
+     * Enumerates the outgoing transitions of a given state by passing each of them to the sink.
+     * The sink must only be used until this method returns.
+     * @param source The state to enumerate the outgoing transitions of
+     * @param sink The consumer accepting the transitions, may not be passed null
+     */
+    void generate(StateType source, Consumer<Transition<StateType>> sink);
+
+    /**
+     * Collects the pushed transitions into a stream.
+     * @param source The state to enumerate the outgoing transitions of
+     * @return A stream holding the transitions pushed by {@link #generate(Object, Consumer)}
+     */
+    @Override
+    default Stream<Transition<StateType>> apply(StateType source) {
+        final Stream.Builder<Transition<StateType>> builder = Stream.builder();
+        generate(source, builder);
+        return builder.build();
+    }
+
+    /**
+     * Create a push-based next-function given that you have a function that pushes the neighbours of a given state.
+     * @param next The neighbour generator, receives the source state and a consumer to pass the neighbours to
+     * @param <StateType>
+     * @return A next-function that pushes a transition between the source state and every neighbour pushed by the neighbour generator.
+     */
+    static <StateType> PushNextFunction<StateType> wrap(BiConsumer<StateType, Consumer<StateType>> next) {
+        Arguments.requireNonNull(next, "next");
+        return (source, sink) -> next.accept(source, target -> sink.accept(new Transition<>(source, target)));
+    }
+}
@@ -9,6 +9,8 @@ import abeona.frontiers.ManagedFrontier;
 import abeona.heaps.Heap;
 import abeona.metadata.LookupMetadataStore;
 import abeona.metadata.MetadataStore;
+import abeona.metadata.SlotMetadataStore;
+import abeona.metadata.StateIndex;
 import abeona.util.Arguments;
 
 import java.util.HashSet;
@@ -16,6 +18,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
@@ -36,7 +39,10 @@ public final class Query<StateType> {
     private final Heap<StateType> heap;
     private final NextFunction<StateType> nextFunction;
     private final WeakHashMap<StateType, StateType> stateIdentities = new WeakHashMap<>();
+    private StateIndex<StateType> stateIndex;
     private final MetadataStore<StateType> metadata;
+    private final ExplorationEvent<StateType> explorationEvent = new ExplorationEvent<>(this);
+    private final TransitionSink transitionSink = new TransitionSink();
 
     /**
      * Gets the frontier implementation
@@ -46,6 +52,14 @@ public final class Query<StateType> {
         return frontier;
     }
 
+    /**
+     * Gets the next-function
+     * @return The function describing the outgoing transitions for a given state, never null
+     */
+    public NextFunction<StateType> getNextFunction() {
+        return nextFunction;
+    }
+
     /**
      * Gets the heap implementation
      * @return The heap used during exploration, never null
@@ -62,6 +76,30 @@ public final class Query<StateType> {
         return metadata;
     }
 
+    /**
+     * Gets the index that assigns the dense state ids.
+     * The index is created by the first call, unless the query was constructed with one, so a query of which no ids are requested never keeps the states it generates reachable.
+     * Only the states that ids are requested for are assigned one, the index keeps them reachable until their id is released.
+     * @return The state index of the query, never null
+     */
+    public StateIndex<StateType> getStateIndex() {
+        if (stateIndex == null) {
+            stateIndex = new StateIndex<>();
+        }
+        return stateIndex;
+    }
+
+    /**
+     * Gets the dense id of a state, which behaviours can use to index primitive arrays instead of keeping maps keyed on the state.
+     * A state that has no id yet is assigned one by this call, ids of released states are reused.
+     * @param state The state to get the id for
+     * @return The id of the state, ids start at 0 and a new id is either a released id or the lowest id that was never assigned
+     * @throws IllegalArgumentException Thrown if the state is null
+     */
+    public int getStateId(StateType state) {
+        return getStateIndex().getOrAssign(state);
+    }
+
     /**
      * Creates a new query using the default metadata store
      * @throws IllegalArgumentException Thrown if a passed argument is null
@@ -78,7 +116,8 @@ public final class Query<StateType> {
     }
 
     /**
-     * Creates a new query using a specific metadata storage method
+     * Creates a new query using a specific metadata storage method.
+     * If the metadata store is a {@link SlotMetadataStore} the query shares its state index, so the ids of the query index the slots of the store.
      * @throws IllegalArgumentException Thrown if a passed argument is null
      * @param frontier The frontier to use during exploration
      * @param heap The heap to use during exploration
@@ -90,19 +129,61 @@ public final class Query<StateType> {
             Heap<StateType> heap,
             NextFunction<StateType> nextFunction,
             MetadataStore<StateType> metadata
+    ) {
+        this(frontier, heap, nextFunction, metadata, metadata instanceof SlotMetadataStore
+                ? ((SlotMetadataStore<StateType>) metadata).getStateIndex()
+                : null, false);
+    }
+
+    /**
+     * Creates a new query using a specific metadata storage method and state index
+     * @throws IllegalArgumentException Thrown if a passed argument is null
+     * @param frontier The frontier to use during exploration
+     * @param heap The heap to use during exploration
+     * @param nextFunction The function describing the outgoing transitions for a given state
+     * @param metadata The way to store state metadata
+     * @param stateIndex The index that assigns the state ids
+     */
+    public Query(
+            Frontier<StateType> frontier,
+            Heap<StateType> heap,
+            NextFunction<StateType> nextFunction,
+            MetadataStore<StateType> metadata,
+            StateIndex<StateType> stateIndex
+    ) {
+        this(frontier, heap, nextFunction, metadata, stateIndex, true);
+    }
+
+    private Query(
+            Frontier<StateType> frontier,
+            Heap<StateType> heap,
+            NextFunction<StateType> nextFunction,
+            MetadataStore<StateType> metadata,
+            StateIndex<StateType> stateIndex,
+            boolean requireStateIndex
     ) {
         Arguments.requireNonNull(frontier, "frontier");
         Arguments.requireNonNull(heap, "heap");
         Arguments.requireNonNull(nextFunction, "nextFunction");
         Arguments.requireNonNull(metadata, "metadata");
+        if (requireStateIndex) {
+            // Without an index given, it is created once ids are requested
+            Arguments.requireNonNull(stateIndex, "stateIndex");
+        }
         this.frontier = frontier;
         this.heap = heap;
         this.nextFunction = nextFunction;
         this.metadata = metadata;
+        this.stateIndex = stateIndex;
         final var isKnownPredicate = Query.defaultIsKnownPredicate(frontier, heap);
         this.isKnown = new BiFunctionTap<>((query, state) -> isKnownPredicate.test(state));
     }
 
+    /*
+     * The events below are only constructed when the corresponding tap has handlers registered.
+     * Since an ExplorationEvent carries no other data than the query, a single instance is shared by all invocations of beforeExploration and beforeStatePicked.
+     */
+
     /**
      * Event marking the start of exploration of the state space, fired by {@link Query#explore()}
      */
@@ -152,8 +233,9 @@ public final class Query<StateType> {
     /**
      * Point where you can intercept the interning of newly generated states.
      * This logic is needed if the used {@link StateType} does not implement {@link Object#hashCode()} and {@link Object#equals(Object)} properly for use in HashMaps.
+     * The default logic interns through a weak hashmap, so interning does not keep states reachable.
      */
-    public final FunctionTap<StateType, StateType> internState = new FunctionTap<>(state->stateIdentities.computeIfAbsent(state, Function.identity()));
+    public final FunctionTap<StateType, StateType> internState = new FunctionTap<>(this::internWeakly);
 
     /**
      * Explores the state space to its completion.
@@ -164,7 +246,7 @@ public final class Query<StateType> {
      */
     public TerminationType explore() {
         try {
-            beforeExploration.accept(new ExplorationEvent<>(this));
+            beforeExploration.accept(explorationEvent);
             while (frontier.hasNext()) {
                 explorationStep();
             }
@@ -209,11 +291,56 @@ public final class Query<StateType> {
         evaluateState(next);
     }
 
-    private StateType pickNextState() {
-        beforeStatePicked.accept(new ExplorationEvent<>(this));
+    /**
+     * Explores the state space to its completion using multiple worker threads.
+     * The exploration completes when the frontier is exhausted (and no worker is still evaluating a state) or when a {@link TerminateExplorationSignal} is thrown.
+     *
+     * Threading contract:
+     * - {@link #beforeExploration} and {@link #afterExploration} fire on the calling thread.
+     * - The next-function is applied concurrently by the worker threads and must be thread-safe.
+     * - Handlers of the other taps are never invoked concurrently, they are invoked while holding a single exploration lock but may be invoked from different threads.
+     *
+     * The workers explore concurrently if the heap is a {@link abeona.heaps.ConcurrentHashSetHeap} and {@link #pickNextState}, {@link #isKnown}, {@link #internState},
+     * {@link #insertIntoFrontier} and {@link #beforeStateEvaluation} are not tapped:
+     * - The states of the frontier are distributed over a work-stealing deque per worker, the heap is the closed set shared by the workers.
+     *   A worker explores its own discoveries depth-first and steals the oldest states of the other workers when it runs out, so the exploration order does not follow the frontier.
+     * - Picking states, generating transitions and the known-state check (a single atomic insert into the heap) run without holding the lock.
+     *   Only tapped events ({@link #beforeStatePicked}, {@link #afterStatePicked}, {@link #onTransitionEvaluation}, {@link #onStateDiscovery}, {@link #afterStateEvaluation}) take the lock,
+     *   the transition events of one state fire together and {@link #afterStateEvaluation} receives no transition evaluations.
+     * - States are not interned, the frontier is not touched during the exploration and states that are not yet evaluated when the exploration stops are returned to it.
+     *
+     * Otherwise the workers serialize on the exploration lock:
+     * - Picking a state ({@link #beforeStatePicked}, {@link #pickNextState}, {@link #afterStatePicked}) and evaluating the generated transitions
+     *   ({@link #beforeStateEvaluation}, {@link #onTransitionEvaluation}, {@link #internState}, {@link #isKnown}, {@link #onStateDiscovery}, {@link #insertIntoFrontier}, {@link #afterStateEvaluation})
+     *   happen while holding the lock, handlers observe the frontier and heap in a consistent state.
+     * - Only the next-function runs concurrently, so this only speeds up explorations whose next-function is expensive compared to the evaluation of its transitions.
+     * - The order in which states are picked follows the frontier, but the evaluations of states picked by different workers may complete in any order.
+     *
+     * @param parallelism The number of worker threads to explore with
+     * @return The type of exploration termination that has occurred.
+     * @throws IllegalArgumentException Thrown if the parallelism is lower than 1
+     * @throws RuntimeException Thrown if during exploration any exception except for the {@link TerminateExplorationSignal} is thrown.
+     */
+    public TerminationType exploreParallel(int parallelism) {
+        Arguments.requireMinimum(1, parallelism, "parallelism");
+        final var termination = new ParallelExploration<>(this, parallelism).run();
+        afterExploration.accept(termination);
+        final var error = termination.getTerminationError();
+        if (error.isPresent()) {
+            throw new RuntimeException("An error occurred during exploration", error.get());
+        }
+        return termination.getTerminationType();
+    }
+
+    StateType pickNextState() {
+        if (beforeStatePicked.isTapped()) {
+            beforeStatePicked.accept(explorationEvent);
+        }
         final var next = pickNextState.apply(this);
         heap.add(next);
-        afterStatePicked.accept(new StateEvent<>(this, next));
+        if (afterStatePicked.isTapped()) {
+            afterStatePicked.accept(new StateEvent<>(this, next));
+        }
         return next;
     }
 
@@ -222,8 +349,36 @@ public final class Query<StateType> {
     }
 
     private void evaluateState(StateType state) {
+        if (nextFunction instanceof PushNextFunction && frontier instanceof ManagedFrontier
+                && !beforeStateEvaluation.isTapped() && !insertIntoFrontier.isTapped()) {
+            Arguments.requireNonNull(state, "state");
+            ((PushNextFunction<StateType>) nextFunction).generate(state, transitionSink);
+            if (afterStateEvaluation.isTapped()) {
+                afterStateEvaluation.accept(new StateEvaluationEvent<>(this, state, Stream.empty()));
+            }
+        } else {
+            evaluateState(state, nextFunction.apply(state));
+        }
+    }
+
+    void evaluateState(StateType state, Stream<Transition<StateType>> transitions) {
         Arguments.requireNonNull(state, "state");
-        final var evaluationEvents = nextFunction.apply(state)
+        if (beforeStateEvaluation.isTapped() || onTransitionEvaluation.isTapped() || onStateDiscovery.isTapped()) {
+            evaluateStateWithEvents(state, transitions);
+        } else {
+            // No handler observes the individual transitions, so the events do not have to be constructed
+            final var discoveredStates = transitions
+                    .map(transition -> internState(transition.getTargetState()))
+                    .filter(target -> !isKnown.apply(this, target));
+            insertIntoFrontier.apply(frontier, discoveredStates);
+            if (afterStateEvaluation.isTapped()) {
+                afterStateEvaluation.accept(new StateEvaluationEvent<>(this, state, Stream.empty()));
+            }
+        }
+    }
+
+    private void evaluateStateWithEvents(StateType state, Stream<Transition<StateType>> transitions) {
+        final var evaluationEvents = transitions
                 .map(this::internTransition)
                 .map(this::createTransitionEvaluationEvent)
                 .peek(onTransitionEvaluation)
@@ -238,6 +393,31 @@ public final class Query<StateType> {
         afterStateEvaluation.accept(evaluationEvent);
     }
 
+    /**
+     * Evaluates the transitions pushed by a {@link PushNextFunction} one at a time and inserts the discoveries directly into the managed frontier.
+     * Fires the same transition related events as the stream based evaluation.
+     */
+    private final class TransitionSink implements Consumer<Transition<StateType>> {
+        @Override
+        public void accept(Transition<StateType> transition) {
+            final ManagedFrontier<StateType> managedFrontier = (ManagedFrontier<StateType>) frontier;
+            if (onTransitionEvaluation.isTapped() || onStateDiscovery.isTapped()) {
+                final var event = createTransitionEvaluationEvent(internTransition(transition));
+                onTransitionEvaluation.accept(event);
+                if (event.getSaveTargetState()) {
+                    onStateDiscovery.accept(event);
+                    managedFrontier.add(event.getTransition().getTargetState());
+                }
+            } else {
+                Arguments.requireNonNull(transition, "transition");
+                final var target = internState(transition.getTargetState());
+                if (!isKnown.apply(Query.this, target)) {
+                    managedFrontier.add(target);
+                }
+            }
+        }
+    }
+
     private TransitionEvaluationEvent<StateType> createTransitionEvaluationEvent(Transition<StateType> transition) {
         Arguments.requireNonNull(transition, "transition");
         final var event = new TransitionEvaluationEvent<>(this, transition);
@@ -294,6 +474,7 @@ public final class Query<StateType> {
      * Performs the interning operation, using the {@link #internState} interceptor tap.
      * The default operation of the interceptor tap is to perform interning through a weak hashmap.
      * Meaning as long as there is a reference to a state it can be interned.
+     * Interning does not assign state ids, those are assigned by {@link #getStateId(Object)} when requested.
      * The interceptor tap may be modified to exhibit arbitrary logic, including performing the identity function.
      * @param state The state to intern
      * @return The interned state according to the {@link #internState} interceptor tap.
@@ -302,6 +483,10 @@ public final class Query<StateType> {
         return internState.apply(state);
     }
 
+    private StateType internWeakly(StateType state) {
+        return stateIdentities.computeIfAbsent(state, Function.identity());
+    }
+
     private Transition<StateType> internTransition(Transition<StateType> transition) {
         Arguments.requireNonNull(transition, "transition");
         final var originalTarget = transition.getTargetState();
@@ -8,6 +8,7 @@ import java.util.function.Predicate;
 /**
  * Implements the {@link Tap} interface with mechanisms to register handlers in a {@link LinkedList}.
  * The handlers are marked with {@code protected}.
+ * Subclasses are notified through {@link #handlersChanged()} whenever the registered handlers change, so they can prepare their invocation logic once instead of on every invocation.
  * @param <Handler> The signature of the callback handlers.
  */
 public abstract class AbstractTap<Handler> implements Tap<Handler> {
@@ -21,13 +22,25 @@ public abstract class AbstractTap<Handler> implements Tap<Handler> {
     public Handler tap(Handler handler) {
         Arguments.requireNonNull(handler, "handler");
         handlers.addFirst(handler);
+        handlersChanged();
         return handler;
     }
 
     @Override
     public void unTap(Handler handler) {
         Arguments.requireNonNull(handler, "handler");
-        handlers.removeIf(Predicate.isEqual(handler));
+        if (handlers.removeIf(Predicate.isEqual(handler))) {
+            handlersChanged();
+        }
+    }
+
+    /**
+     * Indicates whether any handler is registered.
+     * Owners of a tap can use this to skip preparing the arguments of an invocation that no handler observes.
+     * @return True if at least one handler is registered, false otherwise
+     */
+    public boolean isTapped() {
+        return !handlers.isEmpty();
     }
 
     /**
@@ -35,5 +48,13 @@ public abstract class AbstractTap<Handler> implements Tap<Handler> {
      */
     public void unTapAll() {
         handlers.clear();
+        handlersChanged();
+    }
+
+    /**
+     * Called after the list of registered handlers has been modified through {@link #tap(Object)}, {@link #unTap(Object)} or {@link #unTapAll()}.
+     * The default implementation does nothing.
+     */
+    protected void handlersChanged() {
     }
 }
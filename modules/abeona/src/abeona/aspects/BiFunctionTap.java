@@ -2,7 +2,6 @@ package abeona.aspects;
 
 import abeona.util.Arguments;
 
-import java.util.Iterator;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
@@ -17,6 +16,7 @@ import java.util.function.Function;
  */
 public class BiFunctionTap<T, U, R> extends AbstractTap<BiFunctionTap.Interceptor<T, U, R>> implements BiFunction<T, U, R> {
     private final BiFunction<T, U, R> original;
+    private BiFunction<T, U, R> chain;
 
     /**
      * Create a new interceptable bi-function
@@ -26,19 +26,28 @@ public class BiFunctionTap<T, U, R> extends AbstractTap<BiFunctionTap.Intercepto
     public BiFunctionTap(BiFunction<T, U, R> original) {
         Arguments.requireNonNull(original, "original");
         this.original = original;
+        this.chain = original;
     }
 
     @Override
     public R apply(T t, U u) {
-        return invokeRecursive(t, u, handlers.iterator());
+        return chain.apply(t, u);
     }
 
-    private R invokeRecursive(T t, U u, Iterator<Interceptor<T, U, R>> handlers) {
-        if (handlers.hasNext()) {
-            final var handler = handlers.next();
-            return handler.intercept(t, u, (t2, u2) -> invokeRecursive(t2, u2, handlers));
+    /**
+     * Compiles the registered interceptors into a chain of bi-functions, starting at the last registered interceptor and ending at the original bi-function.
+     * Without interceptors the chain is the original bi-function itself.
+     */
+    @Override
+    protected void handlersChanged() {
+        BiFunction<T, U, R> compiled = original;
+        final var iterator = handlers.descendingIterator();
+        while (iterator.hasNext()) {
+            final var handler = iterator.next();
+            final var next = compiled;
+            compiled = (t, u) -> handler.intercept(t, u, next);
         }
-        return original.apply(t, u);
+        chain = compiled;
     }
 
     public interface Interceptor<T, U, R> {
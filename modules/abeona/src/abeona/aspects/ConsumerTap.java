@@ -2,7 +2,6 @@ package abeona.aspects;
 
 import abeona.util.Arguments;
 
-import java.util.Iterator;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -16,6 +15,7 @@ import java.util.function.Function;
  */
 public class ConsumerTap<T> extends AbstractTap<ConsumerTap.Interceptor<T>> implements Consumer<T> {
     private final Consumer<T> original;
+    private Consumer<T> chain;
 
     /**
      * Create a new interceptable consumer
@@ -25,20 +25,28 @@ public class ConsumerTap<T> extends AbstractTap<ConsumerTap.Interceptor<T>> impl
     public ConsumerTap(Consumer<T> original) {
         Arguments.requireNonNull(original, "original");
         this.original = original;
+        this.chain = original;
     }
 
     @Override
     public void accept(T t) {
-        invokeRecursive(t, handlers.iterator());
+        chain.accept(t);
     }
 
-    private void invokeRecursive(T t, Iterator<Interceptor<T>> handlers) {
-        if (handlers.hasNext()) {
-            final var handler = handlers.next();
-            handler.intercept(t, t2 -> invokeRecursive(t2, handlers));
-            return;
+    /**
+     * Compiles the registered interceptors into a chain of consumers, starting at the last registered interceptor and ending at the original consumer.
+     * Without interceptors the chain is the original consumer itself.
+     */
+    @Override
+    protected void handlersChanged() {
+        Consumer<T> compiled = original;
+        final var iterator = handlers.descendingIterator();
+        while (iterator.hasNext()) {
+            final var handler = iterator.next();
+            final var next = compiled;
+            compiled = t -> handler.intercept(t, next);
         }
-        original.accept(t);
+        chain = compiled;
     }
 
     public interface Interceptor<T> {
@@ -13,6 +13,9 @@ import java.util.function.Consumer;
  * @param <EventData> The type for event data
  */
 public class EventTap<EventData> extends AbstractTap<Consumer<EventData>> implements Consumer<EventData> {
+    private Consumer<EventData>[] chain = newChain(0);
+    private int modificationCounter = 0;
+
     /**
      * Invoke all registered handlers, in order of registration, with the data provided.
      * There is no error handling, meaning that an error thrown in one of the handlers prevents the remaining handlers from being invoked and the error travels up to the caller.
@@ -24,10 +27,32 @@ public class EventTap<EventData> extends AbstractTap<Consumer<EventData>> implem
      */
     public void accept(EventData data) {
         Arguments.requireNonNull(data, "data");
+        final var handlers = chain;
+        final int expectedModificationCounter = modificationCounter;
+        for (int i = 0; i < handlers.length; i++) {
+            if (modificationCounter != expectedModificationCounter) {
+                throw new ConcurrentModificationException();
+            }
+            handlers[i].accept(data);
+        }
+    }
+
+    /**
+     * Copies the registered handlers into an array in order of registration, which is iterated when the event fires.
+     */
+    @Override
+    protected void handlersChanged() {
+        final Consumer<EventData>[] compiled = newChain(handlers.size());
         final var iterator = handlers.descendingIterator();
-        while (iterator.hasNext()) {
-            final var handler = iterator.next();
-            handler.accept(data);
+        for (int i = 0; iterator.hasNext(); i++) {
+            compiled[i] = iterator.next();
         }
+        chain = compiled;
+        modificationCounter++;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <EventData> Consumer<EventData>[] newChain(int length) {
+        return (Consumer<EventData>[]) new Consumer<?>[length];
     }
 }
@@ -2,7 +2,6 @@ package abeona.aspects;
 
 import abeona.util.Arguments;
 
-import java.util.Iterator;
 import java.util.function.Function;
 
 /**
@@ -16,6 +15,7 @@ import java.util.function.Function;
  */
 public class FunctionTap<T, R> extends AbstractTap<FunctionTap.Interceptor<T, R>> implements Function<T, R> {
     private final Function<T, R> original;
+    private Function<T, R> chain;
 
     /**
      * Create an interceptable function
@@ -25,20 +25,29 @@ public class FunctionTap<T, R> extends AbstractTap<FunctionTap.Interceptor<T, R>
     public FunctionTap(Function<T, R> original) {
         Arguments.requireNonNull(original, "original");
         this.original = original;
+        this.chain = original;
     }
 
     @Override
     public R apply(T t) {
         Arguments.requireNonNull(t, "t");
-        return invokeRecursive(t, handlers.iterator());
+        return chain.apply(t);
     }
 
-    private R invokeRecursive(T t, Iterator<Interceptor<T, R>> handlers) {
-        if (handlers.hasNext()) {
-            final var handler = handlers.next();
-            return handler.intercept(t, t2 -> invokeRecursive(t2, handlers));
+    /**
+     * Compiles the registered interceptors into a chain of functions, starting at the last registered interceptor and ending at the original function.
+     * Without interceptors the chain is the original function itself.
+     */
+    @Override
+    protected void handlersChanged() {
+        Function<T, R> compiled = original;
+        final var iterator = handlers.descendingIterator();
+        while (iterator.hasNext()) {
+            final var handler = iterator.next();
+            final var next = compiled;
+            compiled = t -> handler.intercept(t, next);
         }
-        return original.apply(t);
+        chain = compiled;
     }
 
     @FunctionalInterface
@@ -0,0 +1,236 @@
+package abeona.behaviours;
+
+import abeona.Query;
+import abeona.Transition;
+import abeona.TransitionEvaluationEvent;
+import abeona.metadata.StateIndex;
+import abeona.util.Arguments;
+
+import java.util.*;
+
+/**
+ * Adds behaviour to the query to store links on states pointing to their discovering state, like {@link BacktraceBehaviour}, but without keeping maps of states.
+ * The link of a state is packed into a single long in an array indexed by the {@link Query#getStateId(Object) state id}:
+ * the id of the discovering state and the position of the discovering transition among the transitions the next-function produced for that state.
+ *
+ * The transitions themselves are not stored, {@link #getTransitionTrace(Object)} rebuilds them on demand by applying the next-function of the query to every state on the trace.
+ * This requires the next-function to produce the transitions of a state in the same order every time, if it does not the first transition to the same target state is used instead.
+ * The position is counted per instance of the source state, if the same instance is evaluated twice in a row the links of its second evaluation fall back to the first matching transition.
+ * Since the rebuilt transitions carry their userdata, the trace of operators that led to a state is available without storing them during exploration.
+ *
+ * The behaviour can only be attached to a single query, as the links are keyed on the ids of that query.
+ * If the id of a state is released from the state index, its link is dropped and the trace ends at the state that was discovered by it,
+ * links to a released id are recognized by the {@link StateIndex#generationOf(int) generation} of the id, so they are not followed once the id is reused.
+ * @param <StateType>
+ */
+public final class CompactBacktraceBehaviour<StateType> extends AbstractBehaviour<StateType> {
+    private static final long NO_LINK = 0;
+    private Query<StateType> query = null;
+    private long[] links = new long[16];
+    private int[] parentGenerations = new int[16];
+    private StateType countedSource = null;
+    private int transitionCounter = 0;
+    private TransitionEvaluationEvent<StateType> countedEvent = null;
+    private int countedOrdinal = 0;
+
+    /**
+     * @param query The instance to install logic into
+     * @throws IllegalArgumentException Thrown if the query is null
+     * @throws IllegalStateException Thrown if the behaviour is already attached to another query
+     */
+    @Override
+    public void attach(Query<StateType> query) {
+        Arguments.requireNonNull(query, "query");
+        if (this.query != null && this.query != query) {
+            throw new IllegalStateException("The behaviour is already attached to another query");
+        }
+        if (this.query == null) {
+            query.getStateIndex().addReleaseListener(this::dropLink);
+        }
+        this.query = query;
+        tapQueryBehaviour(query, query.onTransitionEvaluation, this::onTransitionEvaluation);
+        tapQueryBehaviour(query, query.onStateDiscovery, this::onStateDiscovered);
+    }
+
+    /**
+     * Attaches the behaviour with knowledge of updating backtraces when a cheaper path to a state is found during exploration.
+     * This is needed when a {@link TraceCostBehaviour} is used in the query.
+     * @param query
+     * @param traceCostBehaviour
+     * @throws IllegalArgumentException Thrown if an argument is null
+     * @throws IllegalStateException Thrown if the behaviour is already attached to another query
+     */
+    public void attach(Query<StateType> query, TraceCostBehaviour<StateType> traceCostBehaviour) {
+        Arguments.requireNonNull(query, "query");
+        Arguments.requireNonNull(traceCostBehaviour, "traceCostBehaviour");
+        attach(query);
+        tapForeignBehaviour(traceCostBehaviour.onLowerPathFound, this::onStateDiscovered);
+    }
+
+    private void onTransitionEvaluation(TransitionEvaluationEvent<StateType> event) {
+        countSource(event.getTransition().getSourceState());
+        countedEvent = event;
+        countedOrdinal = transitionCounter++;
+    }
+
+    private void onStateDiscovered(TransitionEvaluationEvent<StateType> event) {
+        // Other handlers of onTransitionEvaluation may report the transition before it has been counted here
+        final int ordinal;
+        if (event == countedEvent) {
+            ordinal = countedOrdinal;
+        } else {
+            countSource(event.getTransition().getSourceState());
+            ordinal = transitionCounter;
+        }
+        final var transition = event.getTransition();
+        final var index = query.getStateIndex();
+        setLink(index.getOrAssign(transition.getTargetState()), index.getOrAssign(transition.getSourceState()), ordinal);
+    }
+
+    private void countSource(StateType source) {
+        // The transitions of a state are evaluated consecutively, so the counter restarts when the source changes
+        // Tapping beforeStateEvaluation instead would keep the query off its fast evaluation paths
+        if (source != countedSource) {
+            countedSource = source;
+            transitionCounter = 0;
+            countedEvent = null;
+        }
+    }
+
+    /**
+     * Gets the state (as an optional) that discovered the given state
+     * @param state The state to get the source state for that discovered it.
+     * @return Returns an optional holding the state that caused the given state to be known, or empty if the state does not have a known source.
+     * @throws IllegalArgumentException Thrown if an argument is null
+     * @throws IllegalStateException Thrown if the behaviour has not been attached to a query
+     */
+    public Optional<StateType> getTraceLink(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        final int parent = parentOf(getIndex().idOf(state));
+        return parent == -1 ? Optional.empty() : Optional.ofNullable(getIndex().stateOf(parent));
+    }
+
+    /**
+     * Get an iterator that follows the back-links starting at a given state.
+     * The iterator works backwards to the initial state.
+     * @param traceEnd The end-state to build a back-trace for.
+     * @return
+     * @throws IllegalArgumentException Thrown if an argument is null
+     * @throws IllegalStateException Thrown if the behaviour has not been attached to a query
+     */
+    public Iterator<StateType> iterateBackwardsTrace(StateType traceEnd) {
+        Arguments.requireNonNull(traceEnd, "traceEnd");
+        final var index = getIndex();
+        return new Iterator<>() {
+            private StateType next = traceEnd;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public StateType next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                final var result = next;
+                final int parent = parentOf(index.idOf(result));
+                next = parent == -1 ? null : index.stateOf(parent);
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Builds the trace of states from an initial state to the given state
+     * @param traceEnd The end-state to build the trace for
+     * @return The states on the trace in the order in which they were discovered, the last state being the given state
+     * @throws IllegalArgumentException Thrown if an argument is null
+     * @throws IllegalStateException Thrown if the behaviour has not been attached to a query
+     */
+    public List<StateType> getStateTrace(StateType traceEnd) {
+        final var trace = new ArrayList<StateType>();
+        iterateBackwardsTrace(traceEnd).forEachRemaining(trace::add);
+        Collections.reverse(trace);
+        return trace;
+    }
+
+    /**
+     * Builds the trace of transitions from an initial state to the given state, including the userdata of the transitions.
+     * The transitions are rebuilt by applying the next-function of the query to every state on the trace.
+     * @param traceEnd The end-state to build the trace for
+     * @return The transitions on the trace in the order in which they were taken, empty if the state has no back-link
+     * @throws IllegalArgumentException Thrown if an argument is null
+     * @throws IllegalStateException Thrown if the behaviour has not been attached to a query, or if the next-function no longer produces a recorded transition
+     */
+    public List<Transition<StateType>> getTransitionTrace(StateType traceEnd) {
+        Arguments.requireNonNull(traceEnd, "traceEnd");
+        final var index = getIndex();
+        final var trace = new ArrayList<Transition<StateType>>();
+        var state = traceEnd;
+        int id = index.idOf(state);
+        while (parentOf(id) != -1) {
+            final int parentId = parentOf(id);
+            final var parent = index.stateOf(parentId);
+            if (parent == null) {
+                break;
+            }
+            trace.add(rebuildTransition(parent, state, (int) links[id]));
+            state = parent;
+            id = parentId;
+        }
+        Collections.reverse(trace);
+        return trace;
+    }
+
+    private Transition<StateType> rebuildTransition(StateType source, StateType target, int ordinal) {
+        final var transitions = query.getNextFunction().apply(source).iterator();
+        Transition<StateType> firstMatch = null;
+        for (int position = 0; transitions.hasNext(); position++) {
+            final var transition = transitions.next();
+            if (transition.getTargetState().equals(target)) {
+                if (position == ordinal) {
+                    return transition;
+                } else if (firstMatch == null) {
+                    firstMatch = transition;
+                }
+            }
+        }
+        if (firstMatch == null) {
+            throw new IllegalStateException("The next-function no longer produces the transition that discovered " + target);
+        }
+        return firstMatch;
+    }
+
+    private StateIndex<StateType> getIndex() {
+        if (query == null) {
+            throw new IllegalStateException("The behaviour has not been attached to a query");
+        }
+        return query.getStateIndex();
+    }
+
+    private int parentOf(int id) {
+        if (id < 0 || id >= links.length || links[id] == NO_LINK) {
+            return -1;
+        }
+        final int parent = (int) (links[id] >>> 32) - 1;
+        return query.getStateIndex().generationOf(parent) == parentGenerations[id] ? parent : -1;
+    }
+
+    private void setLink(int id, int parentId, int ordinal) {
+        if (id >= links.length) {
+            final int length = Math.max(id + 1, links.length * 2);
+            links = Arrays.copyOf(links, length);
+            parentGenerations = Arrays.copyOf(parentGenerations, length);
+        }
+        links[id] = ((long) (parentId + 1) << 32) | (ordinal & 0xFFFFFFFFL);
+        parentGenerations[id] = query.getStateIndex().generationOf(parentId);
+    }
+
+    private void dropLink(int id) {
+        if (id < links.length) {
+            links[id] = NO_LINK;
+        }
+    }
+}
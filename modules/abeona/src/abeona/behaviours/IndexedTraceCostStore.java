@@ -0,0 +1,26 @@
+package abeona.behaviours;
+
+import abeona.metadata.StateIndex;
+
+/**
+ * A {@link TraceCostStore} that keeps the costs in arrays indexed by the state ids of a {@link StateIndex}, see {@link TraceCostStore#indexed(StateIndex)}.
+ * Code that already knows the id of a state, such as a frontier created through {@link abeona.frontiers.IndexedHeapFrontier#withIndexedPriority},
+ * reads the cost through {@link #getById(int, double)} without looking up the id of the state again.
+ *
+ * @param <StateType>
+ */
+public interface IndexedTraceCostStore<StateType> extends TraceCostStore<StateType> {
+    /**
+     * Gets the index that assigns the ids the costs are stored under
+     * @return
+     */
+    StateIndex<StateType> getIndex();
+
+    /**
+     * Gets the cost stored for the state with the given id
+     * @param id The id of the state in the index of the store
+     * @param fallback The value to return if no cost is stored for the id
+     * @return The stored cost or the fallback
+     */
+    double getById(int id, double fallback);
+}
@@ -0,0 +1,224 @@
+package abeona.behaviours;
+
+import abeona.Query;
+import abeona.Transition;
+import abeona.TransitionEvaluationEvent;
+import abeona.heaps.LayeredHeap;
+import abeona.util.Arguments;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Drives a breadth-first exploration on a {@link LayeredHeap}, opening a new layer in the heap whenever the first state of the next depth is picked.
+ * Requires the query to use a {@link LayeredHeap} and a first-in first-out frontier.
+ *
+ * Since the heap forgets old layers, back-links cannot be kept for every state.
+ * Instead every state only remembers its ancestor in the most recent relay layer, a relay layer being every layer whose depth is a multiple of the relay interval.
+ * The states of relay layers are kept permanently together with the link to their own relay ancestor.
+ * {@link #getTransitionTrace(Object)} follows these relay links back to an initial state and fills in the gaps between consecutive relay states
+ * by a breadth-first search of at most the relay interval deep, using the next-function of the query.
+ * A short interval uses more memory for relay states, a long interval makes rebuilding a trace more expensive.
+ *
+ * The depth and relay ancestor are only known for states in the frontier, in a retained layer of the heap or in a relay layer,
+ * traces can be built for those states only.
+ * Like {@link BacktraceBehaviour} this behaviour must be attached before a {@link TerminateOnGoalStateBehaviour} to learn about the goal state that ends the exploration.
+ * States of dropped layers also give up their id in the {@link Query#getStateIndex() state index} of the query, unless they are relay states.
+ *
+ * The behaviour can only be attached to a single query.
+ * @param <StateType>
+ */
+public final class LayeredBfsBehaviour<StateType> extends AbstractBehaviour<StateType> {
+    private final int relayInterval;
+    private final Map<StateType, Node<StateType>> nodes = new HashMap<>();
+    // Maps every relay state to its own relay ancestor, initial states map to themselves
+    private final Map<StateType, StateType> relayLinks = new HashMap<>();
+    private Query<StateType> query = null;
+    private LayeredHeap<StateType> heap = null;
+    private int depth = 0;
+
+    /**
+     * Creates the behaviour with the given relay interval.
+     * @param relayInterval The number of layers between two relay layers, at least 1
+     * @throws IllegalArgumentException Thrown if the relay interval is lower than 1
+     */
+    public LayeredBfsBehaviour(int relayInterval) {
+        Arguments.requireMinimum(1, relayInterval, "relayInterval");
+        this.relayInterval = relayInterval;
+    }
+
+    /**
+     * @param query The instance to install logic into
+     * @throws IllegalArgumentException Thrown if the query is null or the query heap is not a {@link LayeredHeap}
+     * @throws IllegalStateException Thrown if the behaviour is already attached to another query
+     */
+    @Override
+    public void attach(Query<StateType> query) {
+        Arguments.requireNonNull(query, "query");
+        Arguments.requireInstanceOf(query.getHeap(), LayeredHeap.class, "query.getHeap()");
+        if (this.query != null && this.query != query) {
+            throw new IllegalStateException("The behaviour is already attached to another query");
+        }
+        this.query = query;
+        this.heap = (LayeredHeap<StateType>) query.getHeap();
+        tapQueryBehaviour(query, query.pickNextState, this::pickNextState);
+        tapQueryBehaviour(query, query.onStateDiscovery, this::onStateDiscovered);
+    }
+
+    /**
+     * Gets the number of transitions from an initial state to a state.
+     * @param state The state to get the depth of
+     * @return The depth, empty if the depth of the state is not known
+     * @throws IllegalArgumentException Thrown if the state is null
+     */
+    public OptionalInt getDepth(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        final var node = nodes.get(state);
+        return node == null ? OptionalInt.empty() : OptionalInt.of(node.depth);
+    }
+
+    /**
+     * Counts the states that are kept permanently to rebuild traces.
+     * @return
+     */
+    public int getRelayStateCount() {
+        return relayLinks.size();
+    }
+
+    /**
+     * Builds a shortest trace of states from an initial state to the given state.
+     * @param traceEnd The end-state to build the trace for
+     * @return The states on the trace, the last being the given state, empty if the state is not known
+     * @throws IllegalArgumentException Thrown if the state is null
+     * @throws IllegalStateException Thrown if the behaviour has not been attached to a query, or if the next-function no longer produces a recorded path
+     */
+    public List<StateType> getStateTrace(StateType traceEnd) {
+        Arguments.requireNonNull(traceEnd, "traceEnd");
+        final var trace = new ArrayList<StateType>();
+        final var transitions = getTransitionTrace(traceEnd);
+        if (!transitions.isEmpty()) {
+            trace.add(transitions.get(0).getSourceState());
+            transitions.forEach(transition -> trace.add(transition.getTargetState()));
+        } else if (nodes.containsKey(traceEnd) || relayLinks.containsKey(traceEnd)) {
+            trace.add(traceEnd);
+        }
+        return trace;
+    }
+
+    /**
+     * Builds a shortest trace of transitions from an initial state to the given state, including the userdata of the transitions.
+     * @param traceEnd The end-state to build the trace for
+     * @return The transitions in the order in which they were taken, empty if the state is an initial state or is not known
+     * @throws IllegalArgumentException Thrown if the state is null
+     * @throws IllegalStateException Thrown if the behaviour has not been attached to a query, or if the next-function no longer produces a recorded path
+     */
+    public List<Transition<StateType>> getTransitionTrace(StateType traceEnd) {
+        Arguments.requireNonNull(traceEnd, "traceEnd");
+        if (query == null) {
+            throw new IllegalStateException("The behaviour has not been attached to a query");
+        }
+        // Collect the relay states from the end state back to an initial state
+        final var anchors = new ArrayList<StateType>();
+        anchors.add(traceEnd);
+        var relay = relayOf(traceEnd);
+        if (relay == null) {
+            return new ArrayList<>();
+        }
+        while (!relay.equals(anchors.get(anchors.size() - 1))) {
+            anchors.add(relay);
+            relay = relayLinks.get(relay);
+        }
+        Collections.reverse(anchors);
+        final var trace = new ArrayList<Transition<StateType>>();
+        for (int i = 1; i < anchors.size(); i++) {
+            trace.addAll(searchSegment(anchors.get(i - 1), anchors.get(i)));
+        }
+        return trace;
+    }
+
+    private StateType relayOf(StateType state) {
+        final var relay = relayLinks.get(state);
+        if (relay != null) {
+            return relay;
+        }
+        final var node = nodes.get(state);
+        if (node == null) {
+            return null;
+        }
+        return node.relay == null ? state : node.relay;
+    }
+
+    private List<Transition<StateType>> searchSegment(StateType source, StateType target) {
+        final var nextFunction = query.getNextFunction();
+        final Map<StateType, Transition<StateType>> parents = new HashMap<>();
+        List<StateType> layer = List.of(source);
+        for (int distance = 0; distance < relayInterval && !parents.containsKey(target); distance++) {
+            final var next = new ArrayList<StateType>();
+            for (StateType state : layer) {
+                nextFunction.apply(state).forEach(transition -> {
+                    final var reached = transition.getTargetState();
+                    if (!reached.equals(source) && parents.putIfAbsent(reached, transition) == null) {
+                        next.add(reached);
+                    }
+                });
+            }
+            layer = next;
+        }
+        if (!parents.containsKey(target)) {
+            throw new IllegalStateException("The next-function no longer produces a path from " + source + " to " + target);
+        }
+        final var segment = new ArrayList<Transition<StateType>>();
+        var state = target;
+        while (!state.equals(source)) {
+            final var transition = parents.get(state);
+            segment.add(transition);
+            state = transition.getSourceState();
+        }
+        Collections.reverse(segment);
+        return segment;
+    }
+
+    private StateType pickNextState(Query<StateType> query, Function<Query<StateType>, StateType> next) {
+        final var state = next.apply(query);
+        var node = nodes.get(state);
+        if (node == null) {
+            // States that were not discovered by the exploration are initial states
+            node = new Node<>(0, null);
+            nodes.put(state, node);
+        }
+        while (depth < node.depth) {
+            depth++;
+            for (StateType dropped : heap.startLayer()) {
+                nodes.remove(dropped);
+                if (!relayLinks.containsKey(dropped)) {
+                    query.getStateIndex().release(dropped);
+                }
+            }
+        }
+        if (node.depth % relayInterval == 0) {
+            relayLinks.put(state, node.relay == null ? state : node.relay);
+        }
+        return state;
+    }
+
+    private void onStateDiscovered(TransitionEvaluationEvent<StateType> event) {
+        final var transition = event.getTransition();
+        final var source = transition.getSourceState();
+        final var sourceNode = nodes.get(source);
+        if (sourceNode == null) {
+            return;
+        }
+        final var relay = sourceNode.depth % relayInterval == 0 ? source : sourceNode.relay;
+        nodes.put(transition.getTargetState(), new Node<>(sourceNode.depth + 1, relay));
+    }
+
+    private static final class Node<StateType> {
+        final int depth;
+        final StateType relay;
+
+        Node(int depth, StateType relay) {
+            this.depth = depth;
+            this.relay = relay;
+        }
+    }
+}
@@ -4,7 +4,9 @@ import abeona.Query;
 import abeona.StateEvent;
 import abeona.TransitionEvaluationEvent;
 import abeona.aspects.EventTap;
+import abeona.heaps.Heap;
 import abeona.heaps.ManagedHeap;
+import abeona.heaps.ProgressBucketHeap;
 import abeona.util.Arguments;
 
 import java.util.Comparator;
@@ -19,6 +21,14 @@ import java.util.function.Consumer;
  * After a state is picked the heap is purged of all states that are comparitively lower in progress according to a provided progress measure.
  * This behaviour assumes that the frontier of the query is sorted in accordance with the provided progress measure.
  * <p>
+ * If the heap is a {@link ProgressBucketHeap} grouped on the same progress comparator, only the states that are purged are visited.
+ * Otherwise every state in the heap is compared to the picked state after every pick.
+ * Comparators cannot be tested for equal behaviour, so the heap has to be grouped on the very same comparator instance that is given to this behaviour.
+ * Create the heap through {@link #createHeap()} to guarantee this, {@link #usesBucketPurge(Query)} tells whether a query gets the bucket purge.
+ * <p>
+ * Purged states also give up their id in the {@link Query#getStateIndex() state index} of the query, so the index does not keep them in memory.
+ * Metadata that is keyed on the id of a purged state is lost, if the state is discovered again it gets a new id.
+ * <p>
  * This behaviour exposes a tappable event {@link #onPurge} to tap into the purging of states.
  *
  * @param <StateType>
@@ -41,6 +51,25 @@ public final class SweepLineBehaviour<StateType> extends AbstractBehaviour<State
         this.progressComparator = progressComparator;
     }
 
+    /**
+     * Creates a heap whose buckets are grouped on the progress comparator of this behaviour, so purging a query using the heap only visits the purged states.
+     * @return
+     */
+    public ProgressBucketHeap<StateType> createHeap() {
+        return new ProgressBucketHeap<>(progressComparator);
+    }
+
+    /**
+     * Tests whether purging the heap of a query only visits the purged states, which requires a {@link ProgressBucketHeap} grouped on the progress comparator of this behaviour.
+     * @param query The query to test the heap of
+     * @return True if the heap is purged bucket by bucket, false if every state in the heap is compared after every pick
+     * @throws IllegalArgumentException Thrown if the query is null
+     */
+    public boolean usesBucketPurge(Query<StateType> query) {
+        Arguments.requireNonNull(query, "query");
+        return bucketHeapOf(query.getHeap()) != null;
+    }
+
     /**
      * Removes all markings for states to be persisted
      */
@@ -63,26 +92,45 @@ public final class SweepLineBehaviour<StateType> extends AbstractBehaviour<State
 
     private class HeapPurger implements Consumer<StateEvent<StateType>> {
         private final ManagedHeap<StateType> heap;
+        private final ProgressBucketHeap<StateType> bucketHeap;
 
         HeapPurger(ManagedHeap<StateType> heap) {
             Arguments.requireNonNull(heap, "heap");
             this.heap = heap;
+            this.bucketHeap = bucketHeapOf(heap);
         }
 
         @Override
         public void accept(StateEvent<StateType> event) {
             final var threshold = event.getState();
+            if (bucketHeap != null) {
+                bucketHeap.purgeBelow(threshold, persistentStates::containsKey, state -> purged(event, state));
+                return;
+            }
             final var iterator = heap.iterator();
             while (iterator.hasNext()) {
                 final var state = iterator.next();
                 if (progressComparator.compare(state, threshold) < 0) {
                     if (!persistentStates.containsKey(state)) {
                         iterator.remove();
-                        onPurge.accept(new StateEvent<>(event.getQuery(), state));
+                        purged(event, state);
                     }
                 }
             }
         }
+
+        private void purged(StateEvent<StateType> event, StateType state) {
+            onPurge.accept(new StateEvent<>(event.getQuery(), state));
+            event.getQuery().getStateIndex().release(state);
+        }
+    }
+
+    private ProgressBucketHeap<StateType> bucketHeapOf(Heap<StateType> heap) {
+        // The buckets can only be used if they are grouped on the same progress measure
+        if (heap instanceof ProgressBucketHeap && ((ProgressBucketHeap<StateType>) heap).comparator() == progressComparator) {
+            return (ProgressBucketHeap<StateType>) heap;
+        }
+        return null;
     }
 
     private class PersistenceDetector implements Consumer<TransitionEvaluationEvent<StateType>> {
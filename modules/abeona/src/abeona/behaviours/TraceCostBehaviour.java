@@ -10,11 +10,12 @@ import java.util.function.ToDoubleFunction;
 /**
  * This behaviour tracks the double-based cost to reach a given state from the initial states of a query.
  * This behaviour automatically updates the cost of a state when a cheaper path is found, but this update does not propagate to neighbours.
+ * The costs are kept in a {@link TraceCostStore}, by default a weak map. Use {@link TraceCostStore#indexed} or {@link TraceCostStore#integer} to keep them in primitive arrays instead.
  * @param <StateType>
  */
 public class TraceCostBehaviour<StateType> extends AbstractBehaviour<StateType> {
     private final ToDoubleFunction<Transition<StateType>> transitionCosts;
-    private final Map<StateType, Double> costMetadata = new WeakHashMap<>();
+    private final TraceCostStore<StateType> costs;
     /**
      * Tappable event fired when a transition is found that lowers the cost of a state.
      * This is not fired when finding the cost for a unknown state.
@@ -27,8 +28,20 @@ public class TraceCostBehaviour<StateType> extends AbstractBehaviour<StateType>
      * @throws IllegalArgumentException Thrown if the function is null
      */
     public TraceCostBehaviour(ToDoubleFunction<Transition<StateType>> transitionCosts) {
+        this(transitionCosts, TraceCostStore.weakMap());
+    }
+
+    /**
+     * Sets up the behaviour to derive cost of transitions based on a given function and keep the costs in a specific store
+     * @param transitionCosts The function that indicates the cost of a given transition
+     * @param costs The store that keeps the costs of the states
+     * @throws IllegalArgumentException Thrown if any argument is null
+     */
+    public TraceCostBehaviour(ToDoubleFunction<Transition<StateType>> transitionCosts, TraceCostStore<StateType> costs) {
         Arguments.requireNonNull(transitionCosts, "transitionCosts");
+        Arguments.requireNonNull(costs, "costs");
         this.transitionCosts = transitionCosts;
+        this.costs = costs;
     }
 
     @Override
@@ -42,13 +55,14 @@ public class TraceCostBehaviour<StateType> extends AbstractBehaviour<StateType>
         final double transitionCost = transitionCosts.applyAsDouble(transition);
         final var source = transition.getSourceState();
         final var target = transition.getTargetState();
-        final double currentCost = getTraceCost(source).orElse(0) + transitionCost;
-        getTraceCost(target).ifPresentOrElse(existingCost -> {
-            if (currentCost < existingCost) {
-                setTraceCost(target, currentCost);
-                onLowerPathFound.accept(event);
-            }
-        }, () -> setTraceCost(target, currentCost));
+        final double currentCost = getTraceCostOrDefault(source, 0) + transitionCost;
+        final double existingCost = getTraceCostOrDefault(target, Double.NaN);
+        if (Double.isNaN(existingCost)) {
+            setTraceCost(target, currentCost);
+        } else if (currentCost < existingCost) {
+            setTraceCost(target, currentCost);
+            onLowerPathFound.accept(event);
+        }
     }
 
 
@@ -60,9 +74,21 @@ public class TraceCostBehaviour<StateType> extends AbstractBehaviour<StateType>
      * @throws IllegalArgumentException Thrown if the given state is null
      */
     public OptionalDouble getTraceCost(StateType state) {
+        final double cost = getTraceCostOrDefault(state, Double.NaN);
+        return Double.isNaN(cost) ? OptionalDouble.empty() : OptionalDouble.of(cost);
+    }
+
+    /**
+     * Gets the known cost to reach a given state from the initial states, without wrapping it in an optional.
+     * Intended for priority functions and comparators that read the cost on every comparison.
+     * @param state
+     * @param fallback The value to return if the cost is not known or if the state is an initial state
+     * @return
+     * @throws IllegalArgumentException Thrown if the given state is null
+     */
+    public double getTraceCostOrDefault(StateType state, double fallback) {
         Arguments.requireNonNull(state, "state");
-        final var cost = costMetadata.get(state);
-        return cost == null ? OptionalDouble.empty() : OptionalDouble.of(cost);
+        return costs.get(state, fallback);
     }
 
     /**
@@ -73,7 +99,6 @@ public class TraceCostBehaviour<StateType> extends AbstractBehaviour<StateType>
      */
     public void setTraceCost(StateType state, double cost) {
         Arguments.requireNonNull(state, "state");
-        Arguments.requireNonNull(state, "state");
-        costMetadata.put(state, cost);
+        costs.set(state, cost);
     }
 }
@@ -19,6 +19,10 @@ public class TraceCostFrontierBehaviour<StateType> extends TraceCostBehaviour<St
         super(transitionCosts);
     }
 
+    public TraceCostFrontierBehaviour(ToDoubleFunction<Transition<StateType>> transitionCosts, TraceCostStore<StateType> costs) {
+        super(transitionCosts, costs);
+    }
+
     /**
      * @param query
      * @throws IllegalArgumentException Thrown if the query is null or the query frontier does not implement {@link DynamicallyOrderedFrontier}.
@@ -33,7 +37,7 @@ public class TraceCostFrontierBehaviour<StateType> extends TraceCostBehaviour<St
     @Override
     public void setTraceCost(StateType state, double cost) {
         final var iterator = this.registeredQueries().iterator();
-        if (super.getTraceCost(state).orElse(0) != cost) {
+        if (super.getTraceCostOrDefault(state, 0) != cost) {
             mutateFrontiers(state, iterator, unused -> super.setTraceCost(state, cost));
         }
     }
@@ -38,6 +38,6 @@ public class TraceCostLimitBehaviour<StateType> extends AbstractBehaviour<StateT
     }
 
     private <T> void onTransitionEvaluation(TransitionEvaluationEvent<StateType> event) {
-        event.filterTargetState(state -> traceCostBehaviour.getTraceCost(state).orElse(maximumCost) <= maximumCost);
+        event.filterTargetState(state -> traceCostBehaviour.getTraceCostOrDefault(state, maximumCost) <= maximumCost);
     }
 }
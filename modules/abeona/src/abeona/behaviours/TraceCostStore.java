@@ -0,0 +1,171 @@
+package abeona.behaviours;
+
+import abeona.metadata.StateIndex;
+import abeona.util.Arguments;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Storage of the trace costs tracked by a {@link TraceCostBehaviour}.
+ * Reading a cost never boxes it, which keeps the cost lookups that priority functions and comparators perform on every comparison cheap.
+ *
+ * The default store is a weak map, see {@link #weakMap()}.
+ * The stores created by {@link #indexed(StateIndex)} and {@link #integer(StateIndex)} keep the costs in primitive arrays indexed by the state ids of a query,
+ * use them with the index from {@link abeona.Query#getStateIndex()}, the cost of a state is dropped when its id is released from the index.
+ * These stores also read costs by id, see {@link IndexedTraceCostStore}.
+ *
+ * @param <StateType>
+ */
+public interface TraceCostStore<StateType> {
+    /**
+     * Gets the cost stored for a state
+     * @param state The state to get the cost for
+     * @param fallback The value to return if no cost is stored for the state
+     * @return The stored cost or the fallback
+     */
+    double get(StateType state, double fallback);
+
+    /**
+     * Stores the cost of a state
+     * @param state The state to store the cost for
+     * @param cost The cost to reach the state
+     */
+    void set(StateType state, double cost);
+
+    /**
+     * Creates a store that keeps boxed costs in a {@link WeakHashMap}, so costs are dropped together with the states.
+     * @param <StateType>
+     * @return
+     */
+    static <StateType> TraceCostStore<StateType> weakMap() {
+        final Map<StateType, Double> costs = new WeakHashMap<>();
+        return new TraceCostStore<>() {
+            @Override
+            public double get(StateType state, double fallback) {
+                final var cost = costs.get(state);
+                return cost == null ? fallback : cost;
+            }
+
+            @Override
+            public void set(StateType state, double cost) {
+                costs.put(state, cost);
+            }
+        };
+    }
+
+    /**
+     * Creates a store that keeps the costs in a double array indexed by the state ids of the given index.
+     * @param index The index that assigns the state ids
+     * @param <StateType>
+     * @return
+     * @throws IllegalArgumentException Thrown if the index is null
+     */
+    static <StateType> IndexedTraceCostStore<StateType> indexed(StateIndex<StateType> index) {
+        Arguments.requireNonNull(index, "index");
+        final var store = new IndexedTraceCostStore<StateType>() {
+            private double[] costs = new double[0];
+
+            void drop(int id) {
+                if (id < costs.length) {
+                    costs[id] = Double.NaN;
+                }
+            }
+
+            @Override
+            public StateIndex<StateType> getIndex() {
+                return index;
+            }
+
+            @Override
+            public double getById(int id, double fallback) {
+                if (id < 0 || id >= costs.length) {
+                    return fallback;
+                }
+                final double cost = costs[id];
+                return Double.isNaN(cost) ? fallback : cost;
+            }
+
+            @Override
+            public double get(StateType state, double fallback) {
+                return getById(index.idOf(state), fallback);
+            }
+
+            @Override
+            public void set(StateType state, double cost) {
+                Arguments.requireNonNull(state, "state");
+                final int id = index.getOrAssign(state);
+                if (id >= costs.length) {
+                    final int length = costs.length;
+                    costs = Arrays.copyOf(costs, Math.max(id + 1, Math.max(16, length * 2)));
+                    Arrays.fill(costs, length, costs.length, Double.NaN);
+                }
+                costs[id] = cost;
+            }
+        };
+        index.addReleaseListener(store::drop);
+        return store;
+    }
+
+    /**
+     * Creates a store for integer costs, such as the depth in unit-cost state spaces, that keeps the costs in an int array indexed by the state ids of the given index.
+     * @param index The index that assigns the state ids
+     * @param <StateType>
+     * @return
+     * @throws IllegalArgumentException Thrown if the index is null
+     */
+    static <StateType> IndexedTraceCostStore<StateType> integer(StateIndex<StateType> index) {
+        Arguments.requireNonNull(index, "index");
+        final var store = new IndexedTraceCostStore<StateType>() {
+            private static final int ABSENT = Integer.MIN_VALUE;
+            private int[] costs = new int[0];
+
+            void drop(int id) {
+                if (id < costs.length) {
+                    costs[id] = ABSENT;
+                }
+            }
+
+            @Override
+            public StateIndex<StateType> getIndex() {
+                return index;
+            }
+
+            @Override
+            public double getById(int id, double fallback) {
+                if (id < 0 || id >= costs.length) {
+                    return fallback;
+                }
+                final int cost = costs[id];
+                return cost == ABSENT ? fallback : cost;
+            }
+
+            @Override
+            public double get(StateType state, double fallback) {
+                return getById(index.idOf(state), fallback);
+            }
+
+            /**
+             * @throws IllegalArgumentException Thrown if the cost is not an integer within the range of int
+             */
+            @Override
+            public void set(StateType state, double cost) {
+                Arguments.requireNonNull(state, "state");
+                final int intCost = (int) cost;
+                if (intCost != cost || intCost == ABSENT) {
+                    throw new IllegalArgumentException("The integer trace cost store cannot store cost " + cost);
+                }
+                final int id = index.getOrAssign(state);
+                if (id >= costs.length) {
+                    final int length = costs.length;
+                    costs = Arrays.copyOf(costs, Math.max(id + 1, Math.max(16, length * 2)));
+                    Arrays.fill(costs, length, costs.length, ABSENT);
+                }
+                costs[id] = intCost;
+            }
+        };
+        index.addReleaseListener(store::drop);
+        return store;
+    }
+}
@@ -0,0 +1,360 @@
+package abeona.codecs;
+
+import abeona.util.Arguments;
+import abeona.util.Hashing;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An open-addressing hash set of encoded states that lives in direct {@link ByteBuffer}s outside of the Java heap.
+ * Every slot holds the encoding of a state followed by a status byte, the table is probed linearly and removals leave a tombstone behind.
+ * States are only decoded when they are read back through {@link #decode(int)}, lookups compare the encodings directly.
+ * A table created through {@link #OffHeapStateTable(StateCodec, int, boolean)} also stores a long value next to every encoding, which makes it a map of states to longs.
+ *
+ * The slots are spread over multiple buffers, so the table is not limited to the {@link Integer#MAX_VALUE} bytes of a single buffer but to 2^30 slots.
+ * The table is not thread-safe.
+ *
+ * @param <StateType>
+ */
+public final class OffHeapStateTable<StateType> {
+    private static final byte EMPTY = 0;
+    private static final byte FULL = 1;
+    private static final byte DELETED = 2;
+    private static final int MINIMUM_SLOTS = 16;
+    private static final int MAXIMUM_SLOTS = 1 << 30;
+    private static final int SEGMENT_BYTES = 1 << 30;
+    private final StateCodec<StateType> codec;
+    private final int encodedSize;
+    private final int valueSize;
+    private final int slotSize;
+    private final int segmentShift;
+    private final int maximumSlots;
+    private final ByteBuffer scratch;
+    private ByteBuffer[] segments;
+    private int slots;
+    private int size = 0;
+    private int tombstones = 0;
+    private int modificationCounter = 0;
+
+    /**
+     * Creates an empty table
+     * @param codec The codec used to encode the states
+     * @param initialCapacity The number of states the table is initially sized for
+     * @throws IllegalArgumentException Thrown if the codec is null or the capacity is lower than 1
+     */
+    public OffHeapStateTable(StateCodec<StateType> codec, int initialCapacity) {
+        this(codec, initialCapacity, false);
+    }
+
+    /**
+     * Creates an empty table
+     * @param codec The codec used to encode the states
+     * @param initialCapacity The number of states the table is initially sized for
+     * @param withValues Whether a long value is stored next to every state, see {@link #add(Object, long)}
+     * @throws IllegalArgumentException Thrown if the codec is null or the capacity is lower than 1
+     */
+    public OffHeapStateTable(StateCodec<StateType> codec, int initialCapacity, boolean withValues) {
+        this(codec, initialCapacity, withValues, SEGMENT_BYTES, MAXIMUM_SLOTS);
+    }
+
+    /**
+     * Creates an empty table with custom limits, used by the tests to reach the segment and size limits without allocating gigabytes.
+     * @param codec The codec used to encode the states
+     * @param initialCapacity The number of states the table is initially sized for
+     * @param withValues Whether a long value is stored next to every state
+     * @param segmentBytes The maximum number of bytes of a single buffer
+     * @param maximumSlots The number of slots the table may not grow beyond, a power of two
+     */
+    OffHeapStateTable(StateCodec<StateType> codec, int initialCapacity, boolean withValues, int segmentBytes, int maximumSlots) {
+        Arguments.requireNonNull(codec, "codec");
+        Arguments.requireMinimum(1, initialCapacity, "initialCapacity");
+        Arguments.requireMinimum(1, codec.getEncodedSize(), "codec.getEncodedSize()");
+        this.codec = codec;
+        this.encodedSize = codec.getEncodedSize();
+        this.valueSize = withValues ? Long.BYTES : 0;
+        this.slotSize = encodedSize + valueSize + 1;
+        // Segments hold a power of two number of slots, so a slot index splits into a segment and an offset with a shift
+        this.segmentShift = Integer.numberOfTrailingZeros(Math.max(1, Integer.highestOneBit(segmentBytes / slotSize)));
+        this.maximumSlots = maximumSlots;
+        this.scratch = ByteBuffer.allocate(encodedSize);
+        allocate(slotsFor(initialCapacity));
+    }
+
+    /**
+     * Adds the encoding of a state to the table.
+     * @param state The state to add
+     * @return True if the encoding was not yet present, false otherwise
+     * @throws IllegalStateException Thrown if the table is full, in which case the state is not added
+     */
+    public boolean add(StateType state) {
+        return insert(state, false, 0);
+    }
+
+    /**
+     * Adds the encoding of a state to the table together with a value.
+     * @param state The state to add
+     * @param value The value to store for the state
+     * @return True if the encoding was not yet present, false otherwise in which case the stored value is left unchanged
+     * @throws IllegalStateException Thrown if the table does not store values or is full, in which case the state is not added
+     */
+    public boolean add(StateType state, long value) {
+        requireValues();
+        return insert(state, true, value);
+    }
+
+    /**
+     * Gets the value stored for a state.
+     * @param state The state to get the value for
+     * @param fallback The value to return if the state is not present
+     * @return The stored value or the fallback
+     * @throws IllegalStateException Thrown if the table does not store values
+     */
+    public long getValue(StateType state, long fallback) {
+        requireValues();
+        final int slot = find(state);
+        return slot == -1 ? fallback : segmentOf(slot).getLong(offsetOf(slot) + encodedSize);
+    }
+
+    /**
+     * Tests whether the encoding of a state is present in the table.
+     * @param state The state to test presence for
+     * @return True if an equal encoding is present, false otherwise
+     */
+    public boolean contains(StateType state) {
+        return find(state) != -1;
+    }
+
+    /**
+     * Removes the encoding of a state from the table.
+     * @param state The state to remove
+     * @return True if the encoding was present and has been removed, false otherwise
+     */
+    public boolean remove(StateType state) {
+        final int slot = find(state);
+        if (slot == -1) {
+            return false;
+        }
+        removeSlot(slot);
+        return true;
+    }
+
+    /**
+     * Removes all encodings from the table, the table keeps its current size.
+     */
+    public void clear() {
+        for (int slot = 0; slot < slots; slot++) {
+            setStatus(slot, EMPTY);
+        }
+        size = 0;
+        tombstones = 0;
+        modificationCounter++;
+    }
+
+    /**
+     * Counts the states in the table
+     * @return The number of encodings stored
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of slots of the table, valid slot indices range from 0 up to this number.
+     * @return
+     */
+    public int getSlotCount() {
+        return slots;
+    }
+
+    /**
+     * Tests whether a slot holds an encoded state
+     * @param slot The index of the slot
+     * @return True if the slot holds a state, false otherwise
+     */
+    public boolean isOccupied(int slot) {
+        return statusOf(slot) == FULL;
+    }
+
+    /**
+     * Decodes the state held by a slot.
+     * @param slot The index of the slot, must be occupied
+     * @return A new instance of the state stored in the slot
+     */
+    public StateType decode(int slot) {
+        return codec.decode(segmentOf(slot).slice(offsetOf(slot), encodedSize));
+    }
+
+    /**
+     * Removes the state held by a slot.
+     * The table is not rehashed by a removal, so slot indices of other states remain valid.
+     * @param slot The index of the slot, must be occupied
+     */
+    public void removeSlot(int slot) {
+        setStatus(slot, DELETED);
+        size--;
+        tombstones++;
+        modificationCounter++;
+    }
+
+    /**
+     * Gets a counter that changes whenever the table is modified, used by iterators to detect concurrent modification.
+     * @return
+     */
+    public int getModificationCounter() {
+        return modificationCounter;
+    }
+
+    /**
+     * Gets the number of bytes of off-heap memory used by the table
+     * @return
+     */
+    public long getMemoryUsage() {
+        return (long) slots * slotSize;
+    }
+
+    private boolean insert(StateType state, boolean storeValue, long value) {
+        encodeToScratch(state);
+        final int hash = hashOf(scratch, 0);
+        final int mask = slots - 1;
+        int firstTombstone = -1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            final byte status = statusOf(slot);
+            if (status == EMPTY) {
+                // The capacity is checked before writing the slot, so a failed insertion leaves the table unchanged
+                final int threshold = slots / 4 * 3;
+                final int reusedTombstones = firstTombstone != -1 ? 1 : 0;
+                final boolean crowded = size + 1 + tombstones - reusedTombstones > threshold;
+                if (crowded && slots == maximumSlots && size + 1 > threshold) {
+                    throw new IllegalStateException("The off-heap table cannot grow beyond " + maximumSlots + " slots");
+                }
+                if (firstTombstone != -1) {
+                    slot = firstTombstone;
+                    tombstones--;
+                }
+                final var segment = segmentOf(slot);
+                segment.put(offsetOf(slot), scratch, 0, encodedSize);
+                if (storeValue) {
+                    segment.putLong(offsetOf(slot) + encodedSize, value);
+                }
+                setStatus(slot, FULL);
+                size++;
+                modificationCounter++;
+                if (crowded) {
+                    rehash(size > slots / 2 && slots < maximumSlots ? slots * 2 : slots);
+                }
+                return true;
+            } else if (status == DELETED) {
+                if (firstTombstone == -1) {
+                    firstTombstone = slot;
+                }
+            } else if (scratchEquals(segmentOf(slot), offsetOf(slot))) {
+                return false;
+            }
+        }
+    }
+
+    private int find(StateType state) {
+        encodeToScratch(state);
+        final int mask = slots - 1;
+        for (int slot = hashOf(scratch, 0) & mask; ; slot = (slot + 1) & mask) {
+            final byte status = statusOf(slot);
+            if (status == EMPTY) {
+                return -1;
+            } else if (status == FULL && scratchEquals(segmentOf(slot), offsetOf(slot))) {
+                return slot;
+            }
+        }
+    }
+
+    private void requireValues() {
+        if (valueSize == 0) {
+            throw new IllegalStateException("The table does not store values");
+        }
+    }
+
+    private void encodeToScratch(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        scratch.clear();
+        codec.encode(state, scratch);
+        if (scratch.position() != encodedSize) {
+            throw new IllegalStateException("The codec wrote " + scratch.position() + " bytes instead of " + encodedSize);
+        }
+    }
+
+    private boolean scratchEquals(ByteBuffer segment, int offset) {
+        int i = 0;
+        for (; i + Long.BYTES <= encodedSize; i += Long.BYTES) {
+            if (scratch.getLong(i) != segment.getLong(offset + i)) {
+                return false;
+            }
+        }
+        for (; i < encodedSize; i++) {
+            if (scratch.get(i) != segment.get(offset + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int hashOf(ByteBuffer buffer, int offset) {
+        long hash = encodedSize;
+        int i = 0;
+        for (; i + Long.BYTES <= encodedSize; i += Long.BYTES) {
+            hash = Hashing.mix64(hash ^ buffer.getLong(offset + i));
+        }
+        for (; i < encodedSize; i++) {
+            hash = hash * 31 + buffer.get(offset + i);
+        }
+        return (int) Hashing.mix64(hash);
+    }
+
+    private byte statusOf(int slot) {
+        return segmentOf(slot).get(offsetOf(slot) + slotSize - 1);
+    }
+
+    private void setStatus(int slot, byte status) {
+        segmentOf(slot).put(offsetOf(slot) + slotSize - 1, status);
+    }
+
+    private ByteBuffer segmentOf(int slot) {
+        return segments[slot >>> segmentShift];
+    }
+
+    private int offsetOf(int slot) {
+        return (slot & ((1 << segmentShift) - 1)) * slotSize;
+    }
+
+    private void allocate(int slotCount) {
+        final int segmentSlots = Math.min(slotCount, 1 << segmentShift);
+        slots = slotCount;
+        segments = new ByteBuffer[slotCount / segmentSlots];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = ByteBuffer.allocateDirect(segmentSlots * slotSize);
+        }
+    }
+
+    private void rehash(int slotCount) {
+        final var old = segments;
+        final int oldSlots = slots;
+        allocate(slotCount);
+        final int mask = slots - 1;
+        for (int oldSlot = 0; oldSlot < oldSlots; oldSlot++) {
+            final var oldSegment = old[oldSlot >>> segmentShift];
+            final int oldOffset = offsetOf(oldSlot);
+            if (oldSegment.get(oldOffset + slotSize - 1) == FULL) {
+                int slot = hashOf(oldSegment, oldOffset) & mask;
+                while (statusOf(slot) != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                segmentOf(slot).put(offsetOf(slot), oldSegment, oldOffset, slotSize);
+            }
+        }
+        tombstones = 0;
+        modificationCounter++;
+    }
+
+    private int slotsFor(int capacity) {
+        final long required = Math.max(MINIMUM_SLOTS, (long) capacity * 4 / 3 + 1);
+        return (int) Math.min(maximumSlots, Long.highestOneBit(required - 1) << 1);
+    }
+}
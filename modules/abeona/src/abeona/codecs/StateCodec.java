@@ -0,0 +1,99 @@
+package abeona.codecs;
+
+import abeona.util.Arguments;
+
+import java.nio.ByteBuffer;
+import java.util.function.IntFunction;
+import java.util.function.LongFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Describes how states are converted to and from a fixed-size sequence of bytes.
+ * Frontiers and heaps that store states outside of the Java heap, such as {@link abeona.heaps.OffHeapHeap} and {@link abeona.frontiers.OffHeapQueueFrontier}, use a codec to store encoded states and only decode them when needed.
+ *
+ * The encoding has to be canonical: two states are considered equal by such structures if and only if their encodings are byte-for-byte equal.
+ *
+ * @param <StateType>
+ */
+public interface StateCodec<StateType> {
+    /**
+     * Gets the number of bytes every encoded state occupies.
+     * @return The size of an encoded state in bytes, at least 1
+     */
+    int getEncodedSize();
+
+    /**
+     * Writes the encoding of a state into a buffer.
+     * Exactly {@link #getEncodedSize()} bytes have to be written at the current position of the buffer, advancing the position.
+     * @param state The state to encode
+     * @param target The buffer to write the encoding into
+     */
+    void encode(StateType state, ByteBuffer target);
+
+    /**
+     * Reconstructs a state from its encoding.
+     * Exactly {@link #getEncodedSize()} bytes are available from the current position of the buffer.
+     * @param source The buffer to read the encoding from
+     * @return The decoded state
+     */
+    StateType decode(ByteBuffer source);
+
+    /**
+     * Creates a codec for states that can be represented by a single long.
+     * @param encoder The function producing the long representation of a state
+     * @param decoder The function reconstructing the state from its long representation
+     * @param <StateType>
+     * @return A codec with an encoded size of 8 bytes
+     * @throws IllegalArgumentException Thrown if any argument is null
+     */
+    static <StateType> StateCodec<StateType> ofLong(ToLongFunction<StateType> encoder, LongFunction<StateType> decoder) {
+        Arguments.requireNonNull(encoder, "encoder");
+        Arguments.requireNonNull(decoder, "decoder");
+        return new StateCodec<>() {
+            @Override
+            public int getEncodedSize() {
+                return Long.BYTES;
+            }
+
+            @Override
+            public void encode(StateType state, ByteBuffer target) {
+                target.putLong(encoder.applyAsLong(state));
+            }
+
+            @Override
+            public StateType decode(ByteBuffer source) {
+                return decoder.apply(source.getLong());
+            }
+        };
+    }
+
+    /**
+     * Creates a codec for states that can be represented by a single int.
+     * @param encoder The function producing the int representation of a state
+     * @param decoder The function reconstructing the state from its int representation
+     * @param <StateType>
+     * @return A codec with an encoded size of 4 bytes
+     * @throws IllegalArgumentException Thrown if any argument is null
+     */
+    static <StateType> StateCodec<StateType> ofInt(ToIntFunction<StateType> encoder, IntFunction<StateType> decoder) {
+        Arguments.requireNonNull(encoder, "encoder");
+        Arguments.requireNonNull(decoder, "decoder");
+        return new StateCodec<>() {
+            @Override
+            public int getEncodedSize() {
+                return Integer.BYTES;
+            }
+
+            @Override
+            public void encode(StateType state, ByteBuffer target) {
+                target.putInt(encoder.applyAsInt(state));
+            }
+
+            @Override
+            public StateType decode(ByteBuffer source) {
+                return decoder.apply(source.getInt());
+            }
+        };
+    }
+}
@@ -0,0 +1,235 @@
+package abeona.engines;
+
+import abeona.NextFunction;
+import abeona.Transition;
+import abeona.frontiers.IndexedHeapFrontier;
+import abeona.util.Arguments;
+
+import java.util.*;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+/**
+ * A bidirectional Dijkstra search that finds the cheapest path between a set of source states and a set of target states.
+ * A forward search is started from the sources using the next-function of the state space,
+ * a backward search is started from the targets using a reverse next-function that produces the incoming transitions of a state.
+ * Both searches have their own open list and known states, every step expands the best state of the search with the smaller open list.
+ *
+ * Whenever a search reaches a state known to the other search, the combined path through that state is a candidate and the cheapest candidate is kept.
+ * The search ends once the lowest costs in both open lists together are not below the cost of the cheapest candidate,
+ * at which point no path through an unexpanded state can be cheaper and the candidate is optimal.
+ * The trace is stitched together from the back-links of the forward search up to the meeting state and the back-links of the backward search after it.
+ * Since both searches stop at roughly half the distance, this typically expands far fewer states than a single Dijkstra search.
+ *
+ * The reverse next-function produces transitions from a state to its predecessors, so the reverse of a forward transition from a to b is a transition from b to a.
+ * The cost function is applied to the transitions of both next-functions and must give a reverse transition the cost of the forward transition it reverses.
+ * Costs must be non-negative.
+ * The userdata of reverse transitions is kept when they are turned around in the trace.
+ *
+ * The engine is not thread-safe.
+ *
+ * @param <StateType>
+ */
+public final class BidirectionalSearch<StateType> {
+    private final ToDoubleFunction<Transition<StateType>> costs;
+    private final Side forward;
+    private final Side backward;
+    private double bestCost = Double.POSITIVE_INFINITY;
+    private StateType meetingState = null;
+
+    /**
+     * Creates the engine for a state space and its reverse.
+     * @param nextFunction The next-function producing the outgoing transitions of a state
+     * @param reverseNextFunction The next-function producing a reverse transition for every incoming transition of a state
+     * @param costs The non-negative cost of a transition
+     * @throws IllegalArgumentException Thrown if a function is null
+     */
+    public BidirectionalSearch(
+            NextFunction<StateType> nextFunction,
+            NextFunction<StateType> reverseNextFunction,
+            ToDoubleFunction<Transition<StateType>> costs
+    ) {
+        Arguments.requireNonNull(nextFunction, "nextFunction");
+        Arguments.requireNonNull(reverseNextFunction, "reverseNextFunction");
+        Arguments.requireNonNull(costs, "costs");
+        this.costs = costs;
+        this.forward = new Side(nextFunction);
+        this.backward = new Side(reverseNextFunction);
+    }
+
+    /**
+     * Searches for the cheapest path from one of the source states to one of the target states.
+     * All states known from a previous search are forgotten.
+     * @param sources The states to start the forward search from
+     * @param targets The states to start the backward search from
+     * @return An optional holding the target state the cheapest path ends in, or empty if no target state is reachable
+     * @throws IllegalArgumentException Thrown if an argument is null
+     */
+    public Optional<StateType> search(Stream<StateType> sources, Stream<StateType> targets) {
+        Arguments.requireNonNull(sources, "sources");
+        Arguments.requireNonNull(targets, "targets");
+        forward.clear();
+        backward.clear();
+        bestCost = Double.POSITIVE_INFINITY;
+        meetingState = null;
+        sources.forEach(state -> forward.start(state, backward));
+        targets.forEach(state -> backward.start(state, forward));
+        while (forward.open.hasNext() && backward.open.hasNext()) {
+            final double lowest = forward.open.peekPriority().orElseThrow() + backward.open.peekPriority().orElseThrow();
+            if (lowest >= bestCost) {
+                break;
+            }
+            if (forward.open.size() <= backward.open.size()) {
+                forward.expand(backward);
+            } else {
+                backward.expand(forward);
+            }
+        }
+        if (meetingState == null) {
+            return Optional.empty();
+        }
+        final var trace = getStateTrace();
+        return Optional.of(trace.get(trace.size() - 1));
+    }
+
+    /**
+     * Gets the cost of the cheapest path found by the last search.
+     * @return The cost, empty if no path was found
+     */
+    public OptionalDouble getTraceCost() {
+        return meetingState == null ? OptionalDouble.empty() : OptionalDouble.of(bestCost);
+    }
+
+    /**
+     * Gets the state on the cheapest path at which the forward and backward search met.
+     * @return An optional holding the meeting state, empty if no path was found
+     */
+    public Optional<StateType> getMeetingState() {
+        return Optional.ofNullable(meetingState);
+    }
+
+    /**
+     * Builds the trace of states of the cheapest path found by the last search.
+     * @return The states on the trace from a source state to a target state, empty if no path was found
+     */
+    public List<StateType> getStateTrace() {
+        final var trace = new ArrayList<StateType>();
+        if (meetingState != null) {
+            final var transitions = getTransitionTrace();
+            trace.add(transitions.isEmpty() ? meetingState : transitions.get(0).getSourceState());
+            transitions.forEach(transition -> trace.add(transition.getTargetState()));
+        }
+        return trace;
+    }
+
+    /**
+     * Builds the trace of forward transitions of the cheapest path found by the last search, including the userdata of the transitions.
+     * The reverse transitions of the backward search are turned around.
+     * @return The transitions in the order in which they are taken, empty if no path was found or the path is a single state
+     */
+    public List<Transition<StateType>> getTransitionTrace() {
+        final var trace = new ArrayList<Transition<StateType>>();
+        if (meetingState == null) {
+            return trace;
+        }
+        var node = forward.nodes.get(meetingState);
+        while (node.transition != null) {
+            trace.add(node.transition);
+            node = forward.nodes.get(node.transition.getSourceState());
+        }
+        Collections.reverse(trace);
+        var state = meetingState;
+        node = backward.nodes.get(meetingState);
+        while (node.transition != null) {
+            final var reverse = node.transition;
+            trace.add(new Transition<>(state, reverse.getSourceState(), reverse.getUserdata()));
+            state = reverse.getSourceState();
+            node = backward.nodes.get(state);
+        }
+        return trace;
+    }
+
+    /**
+     * Counts the states that were expanded by both searches during the last search.
+     * @return
+     */
+    public long getExpandedCount() {
+        return forward.expanded + backward.expanded;
+    }
+
+    /**
+     * Counts the states that were discovered by both searches during the last search, states discovered by both searches are counted twice.
+     * @return
+     */
+    public long getDiscoveredCount() {
+        return forward.nodes.size() + backward.nodes.size();
+    }
+
+    private void offerPath(StateType state, double cost, Side other) {
+        final var otherNode = other.nodes.get(state);
+        if (otherNode != null && cost + otherNode.cost < bestCost) {
+            bestCost = cost + otherNode.cost;
+            meetingState = state;
+        }
+    }
+
+    private final class Side {
+        private final NextFunction<StateType> nextFunction;
+        private final Map<StateType, Node<StateType>> nodes = new HashMap<>();
+        private final IndexedHeapFrontier<StateType> open = IndexedHeapFrontier.withPriority(state -> nodes.get(state).cost);
+        private long expanded = 0;
+
+        Side(NextFunction<StateType> nextFunction) {
+            this.nextFunction = nextFunction;
+        }
+
+        void clear() {
+            nodes.clear();
+            open.clear();
+            expanded = 0;
+        }
+
+        void start(StateType state, Side other) {
+            Arguments.requireNonNull(state, "state");
+            if (!nodes.containsKey(state)) {
+                nodes.put(state, new Node<>(0, null));
+                open.add(state);
+                offerPath(state, 0, other);
+            }
+        }
+
+        void expand(Side other) {
+            final var source = open.next();
+            final double sourceCost = nodes.get(source).cost;
+            expanded++;
+            nextFunction.apply(source).forEach(transition -> {
+                final var target = transition.getTargetState();
+                final double cost = sourceCost + costs.applyAsDouble(transition);
+                final var node = nodes.get(target);
+                if (node == null) {
+                    nodes.put(target, new Node<>(cost, transition));
+                    open.add(target);
+                } else if (cost < node.cost && open.contains(target)) {
+                    open.mutateOrderedProperty(target, unused -> {
+                        node.cost = cost;
+                        node.transition = transition;
+                    });
+                } else {
+                    // Expanded states are final since costs are non-negative
+                    return;
+                }
+                offerPath(target, cost, other);
+            });
+        }
+    }
+
+    private static final class Node<StateType> {
+        double cost;
+        Transition<StateType> transition;
+
+        Node(double cost, Transition<StateType> transition) {
+            this.cost = cost;
+            this.transition = transition;
+        }
+    }
+}
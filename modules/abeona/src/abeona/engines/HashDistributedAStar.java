@@ -0,0 +1,384 @@
+package abeona.engines;
+
+import abeona.NextFunction;
+import abeona.PushNextFunction;
+import abeona.Transition;
+import abeona.aspects.EventTap;
+import abeona.util.Arguments;
+import abeona.util.Hashing;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+/**
+ * A parallel A* search in which every worker owns a partition of the state space, also known as hash distributed A* (HDA*).
+ * The owner of a state is determined by its hashcode, only the owner keeps the open list entry, cost and back-link of a state.
+ * A worker expands the best state of its own open list and sends every successor, with the cost of the path that reached it, to the inbox of the owner of that successor.
+ * The inboxes are lock-free queues, workers never wait on each other while there is work to do.
+ *
+ * Because workers expand states in their own order, a goal found first is not necessarily the cheapest one.
+ * The cheapest goal found so far is kept as the incumbent, successors and open list entries whose cost plus heuristic is not below the incumbent cost are pruned.
+ * The search ends once every open list is exhausted and no message is in flight, at which point the incumbent is optimal if the heuristic is admissible.
+ * In-flight messages and busy workers are counted in a single counter, which only reaches zero when the search has truly ended.
+ *
+ * Like {@link abeona.behaviours.TerminateOnGoalStateBehaviour} goal states are recognized when they are discovered, the initial states are tested as well.
+ * The {@link #onGoal} event fires whenever a cheaper goal is found.
+ * Like {@link abeona.behaviours.BacktraceBehaviour} the discovering state and transition of every state are kept, see {@link #getStateTrace(Object)} and {@link #getTransitionTrace(Object)}.
+ *
+ * The next-function, cost function, heuristic and goal predicate are invoked concurrently and should be thread-safe.
+ * The engine itself is not thread-safe, only one search may run on an instance at a time and the traces may only be read while no search is running.
+ *
+ * @param <StateType>
+ */
+public final class HashDistributedAStar<StateType> {
+    private final NextFunction<StateType> nextFunction;
+    private final ToDoubleFunction<Transition<StateType>> costs;
+    private final ToDoubleFunction<StateType> heuristic;
+    private final List<Worker> workers;
+    private final Object incumbentLock = new Object();
+    // The number of messages in flight plus the number of workers that are not idle
+    private final AtomicLong activity = new AtomicLong();
+    private volatile double incumbentCost = Double.POSITIVE_INFINITY;
+    private volatile boolean stopped = false;
+    private StateType incumbent = null;
+    private Throwable error = null;
+    /**
+     * Tappable event, fires when a goal state is found that is cheaper than the goal states found before it.
+     * The handlers are never invoked concurrently, but they may be invoked from different worker threads.
+     */
+    public final EventTap<StateType> onGoal = new EventTap<>();
+
+    /**
+     * Creates an engine that searches with the given number of workers.
+     * @param nextFunction The thread-safe next-function of the state space
+     * @param costs The non-negative cost of a transition
+     * @param heuristic The admissible estimate of the remaining cost from a state to a goal state
+     * @param parallelism The number of worker threads, at least 1
+     * @throws IllegalArgumentException Thrown if a function is null or the parallelism is lower than 1
+     */
+    public HashDistributedAStar(
+            NextFunction<StateType> nextFunction,
+            ToDoubleFunction<Transition<StateType>> costs,
+            ToDoubleFunction<StateType> heuristic,
+            int parallelism
+    ) {
+        Arguments.requireNonNull(nextFunction, "nextFunction");
+        Arguments.requireNonNull(costs, "costs");
+        Arguments.requireNonNull(heuristic, "heuristic");
+        Arguments.requireMinimum(1, parallelism, "parallelism");
+        this.nextFunction = nextFunction;
+        this.costs = costs;
+        this.heuristic = heuristic;
+        this.workers = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            workers.add(new Worker());
+        }
+    }
+
+    /**
+     * Searches for the cheapest path from the initial states to a goal state.
+     * All states known from a previous search are forgotten.
+     * @param initialStates The states to start the search from
+     * @param isGoal The predicate identifying goal states
+     * @return An optional holding the cheapest goal state, or empty if no goal state is reachable
+     * @throws IllegalArgumentException Thrown if an argument is null
+     * @throws RuntimeException Thrown if an error occurred on one of the workers
+     */
+    public Optional<StateType> search(Stream<StateType> initialStates, Predicate<StateType> isGoal) {
+        Arguments.requireNonNull(initialStates, "initialStates");
+        Arguments.requireNonNull(isGoal, "isGoal");
+        reset();
+        initialStates.forEach(state -> {
+            Arguments.requireNonNull(state, "state");
+            ownerOf(state).receive(new Message<>(state, 0, null), isGoal);
+        });
+        activity.set(workers.size());
+        final List<Thread> threads = new ArrayList<>(workers.size());
+        for (int i = 0; i < workers.size(); i++) {
+            final var worker = workers.get(i);
+            final var thread = new Thread(() -> worker.run(isGoal), "abeona-hda-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+        boolean interrupted = false;
+        for (Thread thread : threads) {
+            while (true) {
+                try {
+                    thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    // Stop the workers but keep waiting for them so the lists are not touched after returning
+                    interrupted = true;
+                    stop(e);
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (incumbentLock) {
+            if (error != null) {
+                throw new RuntimeException("An error occurred during exploration", error);
+            }
+            return Optional.ofNullable(incumbent);
+        }
+    }
+
+    /**
+     * Gets the cost of the cheapest path to a state found by the last search.
+     * States that were pruned on discovery are not known.
+     * @param state The state to get the cost of
+     * @return The cost, empty if the state is not known
+     * @throws IllegalArgumentException Thrown if the state is null
+     */
+    public OptionalDouble getTraceCost(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        final var node = ownerOf(state).nodes.get(state);
+        return node == null ? OptionalDouble.empty() : OptionalDouble.of(node.cost);
+    }
+
+    /**
+     * Gets the state that discovered the given state on the cheapest known path.
+     * @param state The state to get the discovering state of
+     * @return An optional holding the discovering state, empty if the state is an initial state or is not known
+     * @throws IllegalArgumentException Thrown if the state is null
+     */
+    public Optional<StateType> getTraceLink(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        final var node = ownerOf(state).nodes.get(state);
+        return node == null || node.transition == null ? Optional.empty() : Optional.of(node.transition.getSourceState());
+    }
+
+    /**
+     * Builds the cheapest known trace of states from an initial state to the given state.
+     * @param traceEnd The end-state to build the trace for
+     * @return The states on the trace, the last being the given state, empty if the state is not known
+     * @throws IllegalArgumentException Thrown if the state is null
+     */
+    public List<StateType> getStateTrace(StateType traceEnd) {
+        Arguments.requireNonNull(traceEnd, "traceEnd");
+        final var trace = new ArrayList<StateType>();
+        if (ownerOf(traceEnd).nodes.containsKey(traceEnd)) {
+            final var transitions = getTransitionTrace(traceEnd);
+            trace.add(transitions.isEmpty() ? traceEnd : transitions.get(0).getSourceState());
+            transitions.forEach(transition -> trace.add(transition.getTargetState()));
+        }
+        return trace;
+    }
+
+    /**
+     * Builds the cheapest known trace of transitions from an initial state to the given state, including the userdata of the transitions.
+     * @param traceEnd The end-state to build the trace for
+     * @return The transitions in the order in which they were taken, empty if the state is an initial state or is not known
+     * @throws IllegalArgumentException Thrown if the state is null
+     */
+    public List<Transition<StateType>> getTransitionTrace(StateType traceEnd) {
+        Arguments.requireNonNull(traceEnd, "traceEnd");
+        final var trace = new ArrayList<Transition<StateType>>();
+        var node = ownerOf(traceEnd).nodes.get(traceEnd);
+        while (node != null && node.transition != null) {
+            trace.add(node.transition);
+            final var source = node.transition.getSourceState();
+            node = ownerOf(source).nodes.get(source);
+        }
+        Collections.reverse(trace);
+        return trace;
+    }
+
+    /**
+     * Counts the states that were expanded by all workers during the last search.
+     * @return
+     */
+    public long getExpandedCount() {
+        long count = 0;
+        for (Worker worker : workers) {
+            count += worker.expanded;
+        }
+        return count;
+    }
+
+    private void reset() {
+        for (Worker worker : workers) {
+            worker.reset();
+        }
+        stopped = false;
+        incumbent = null;
+        incumbentCost = Double.POSITIVE_INFINITY;
+        error = null;
+    }
+
+    private Worker ownerOf(StateType state) {
+        return workers.get((int) Long.remainderUnsigned(Hashing.hash64(state), workers.size()));
+    }
+
+    private void offerGoal(StateType state, double cost) {
+        synchronized (incumbentLock) {
+            if (cost < incumbentCost) {
+                incumbent = state;
+                incumbentCost = cost;
+                onGoal.accept(state);
+            }
+        }
+    }
+
+    private void stop(Throwable cause) {
+        synchronized (incumbentLock) {
+            if (error == null) {
+                error = cause;
+            }
+            stopped = true;
+        }
+    }
+
+    private final class Worker {
+        private final ConcurrentLinkedQueue<Message<StateType>> inbox = new ConcurrentLinkedQueue<>();
+        private final PriorityQueue<OpenEntry<StateType>> open = new PriorityQueue<>();
+        private final Map<StateType, Node<StateType>> nodes = new HashMap<>();
+        private long expanded = 0;
+
+        void reset() {
+            inbox.clear();
+            open.clear();
+            nodes.clear();
+            expanded = 0;
+        }
+
+        void run(Predicate<StateType> isGoal) {
+            boolean idle = false;
+            try {
+                while (!stopped) {
+                    if (!inbox.isEmpty()) {
+                        if (idle) {
+                            // Announce the activity before taking a message, so the counter never drops to zero while work remains
+                            activity.incrementAndGet();
+                            idle = false;
+                        }
+                        Message<StateType> message;
+                        while ((message = inbox.poll()) != null) {
+                            receive(message, isGoal);
+                            activity.decrementAndGet();
+                        }
+                    }
+                    if (!expandNext()) {
+                        if (!idle) {
+                            activity.decrementAndGet();
+                            idle = true;
+                        }
+                        if (activity.get() == 0) {
+                            return;
+                        }
+                        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+                    }
+                }
+            } catch (Throwable error) {
+                stop(error);
+            }
+        }
+
+        void receive(Message<StateType> message, Predicate<StateType> isGoal) {
+            final var state = message.state;
+            var node = nodes.get(state);
+            if (node != null && node.cost <= message.cost) {
+                return;
+            }
+            if (node == null) {
+                node = new Node<>(heuristic.applyAsDouble(state));
+                nodes.put(state, node);
+            }
+            node.cost = message.cost;
+            node.transition = message.transition;
+            if (isGoal.test(state)) {
+                offerGoal(state, message.cost);
+            }
+            final double estimate = message.cost + node.heuristic;
+            if (estimate < incumbentCost) {
+                open.add(new OpenEntry<>(state, node, message.cost, estimate));
+            }
+        }
+
+        private boolean expandNext() {
+            while (!open.isEmpty()) {
+                final var entry = open.poll();
+                if (entry.cost != entry.node.cost) {
+                    // A cheaper path to the state was received after this entry was added
+                    continue;
+                }
+                if (entry.estimate >= incumbentCost) {
+                    // All remaining entries are at least as expensive
+                    open.clear();
+                    return false;
+                }
+                expand(entry.state, entry.cost);
+                return true;
+            }
+            return false;
+        }
+
+        private void expand(StateType source, double cost) {
+            expanded++;
+            final Consumer<Transition<StateType>> sink = transition -> {
+                final double targetCost = cost + costs.applyAsDouble(transition);
+                if (targetCost < incumbentCost) {
+                    activity.incrementAndGet();
+                    ownerOf(transition.getTargetState()).inbox.add(new Message<>(transition.getTargetState(), targetCost, transition));
+                }
+            };
+            if (nextFunction instanceof PushNextFunction) {
+                ((PushNextFunction<StateType>) nextFunction).generate(source, sink);
+            } else {
+                nextFunction.apply(source).forEach(sink);
+            }
+        }
+    }
+
+    private static final class Message<StateType> {
+        final StateType state;
+        final double cost;
+        final Transition<StateType> transition;
+
+        Message(StateType state, double cost, Transition<StateType> transition) {
+            this.state = state;
+            this.cost = cost;
+            this.transition = transition;
+        }
+    }
+
+    private static final class Node<StateType> {
+        final double heuristic;
+        double cost;
+        Transition<StateType> transition;
+
+        Node(double heuristic) {
+            this.heuristic = heuristic;
+        }
+    }
+
+    private static final class OpenEntry<StateType> implements Comparable<OpenEntry<StateType>> {
+        final StateType state;
+        final Node<StateType> node;
+        final double cost;
+        final double estimate;
+
+        OpenEntry(StateType state, Node<StateType> node, double cost, double estimate) {
+            this.state = state;
+            this.node = node;
+            this.cost = cost;
+            this.estimate = estimate;
+        }
+
+        @Override
+        public int compareTo(OpenEntry<StateType> other) {
+            final int comparison = Double.compare(estimate, other.estimate);
+            // Prefer deeper entries on ties, they are closer to a goal
+            return comparison != 0 ? comparison : Double.compare(other.cost, cost);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package abeona.engines;
+
+import abeona.NextFunction;
+import abeona.PushNextFunction;
+import abeona.Transition;
+import abeona.util.Arguments;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A depth-first search that is repeated with an increasing cost bound, known as iterative deepening depth-first search (IDDFS)
+ * when every transition has a cost of one and as iterative deepening A* (IDA*) when a heuristic is used.
+ * Every iteration explores the paths whose cost plus heuristic does not exceed the bound,
+ * the next bound is the lowest cost plus heuristic that exceeded the bound in the previous iteration.
+ *
+ * Only the current path is kept, on an explicit stack holding the unexplored outgoing transitions of every state on the path.
+ * Cycles are detected against the states on the path only, no set of visited states is kept.
+ * The memory used is therefore proportional to the depth of the search instead of the size of the state space,
+ * at the price of exploring states again in every iteration and once for every path that reaches them.
+ *
+ * Like {@link abeona.behaviours.TerminateOnGoalStateBehaviour} goal states are recognized when they are discovered, the initial states are tested as well.
+ * The first goal state found is returned, which is reached with the lowest cost if the heuristic is admissible.
+ * The search ends without a goal state once an iteration prunes no path, or when the next bound would exceed the maximum cost given to the search.
+ *
+ * The engine is not thread-safe.
+ *
+ * @param <StateType>
+ */
+public final class IterativeDeepening<StateType> {
+    private final NextFunction<StateType> nextFunction;
+    private final ToDoubleFunction<Transition<StateType>> costs;
+    private final ToDoubleFunction<StateType> heuristic;
+    private final Deque<Frame<StateType>> stack = new ArrayDeque<>();
+    private final Set<StateType> path = new HashSet<>();
+    private final List<Transition<StateType>> trace = new ArrayList<>();
+    private StateType traceStart = null;
+    private double bound = 0;
+    private double nextBound = Double.POSITIVE_INFINITY;
+    private int iterations = 0;
+    private long expanded = 0;
+
+    /**
+     * Creates an iterative deepening depth-first search in which every transition has a cost of one.
+     * The bound of every iteration is then the maximum depth of the explored paths.
+     * @param nextFunction The next-function of the state space
+     * @throws IllegalArgumentException Thrown if the next-function is null
+     */
+    public IterativeDeepening(NextFunction<StateType> nextFunction) {
+        this(nextFunction, unused -> 1, unused -> 0);
+    }
+
+    /**
+     * Creates an iterative deepening A* search.
+     * @param nextFunction The next-function of the state space
+     * @param costs The non-negative cost of a transition
+     * @param heuristic The admissible estimate of the remaining cost from a state to a goal state
+     * @throws IllegalArgumentException Thrown if a function is null
+     */
+    public IterativeDeepening(
+            NextFunction<StateType> nextFunction,
+            ToDoubleFunction<Transition<StateType>> costs,
+            ToDoubleFunction<StateType> heuristic
+    ) {
+        Arguments.requireNonNull(nextFunction, "nextFunction");
+        Arguments.requireNonNull(costs, "costs");
+        Arguments.requireNonNull(heuristic, "heuristic");
+        this.nextFunction = nextFunction;
+        this.costs = costs;
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * Searches for a path from the initial states to a goal state without a limit on the cost.
+     * The search only ends without a goal state if the number of paths without cycles is finite.
+     * @param initialStates The states to start the search from
+     * @param isGoal The predicate identifying goal states
+     * @return An optional holding the goal state, or empty if no goal state is reachable
+     * @throws IllegalArgumentException Thrown if an argument is null
+     */
+    public Optional<StateType> search(Stream<StateType> initialStates, Predicate<StateType> isGoal) {
+        return search(initialStates, isGoal, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Searches for a path from the initial states to a goal state whose cost plus heuristic does not exceed the maximum cost.
+     * The trace of a previous search is forgotten.
+     * @param initialStates The states to start the search from
+     * @param isGoal The predicate identifying goal states
+     * @param maxCost The highest bound an iteration may use, for IDDFS this is the maximum depth
+     * @return An optional holding the goal state, or empty if no goal state is reachable within the maximum cost
+     * @throws IllegalArgumentException Thrown if an argument is null or the maximum cost is negative
+     */
+    public Optional<StateType> search(Stream<StateType> initialStates, Predicate<StateType> isGoal, double maxCost) {
+        Arguments.requireNonNull(initialStates, "initialStates");
+        Arguments.requireNonNull(isGoal, "isGoal");
+        Arguments.requireMinimum(0d, maxCost, "maxCost");
+        final List<StateType> initials = initialStates.collect(Collectors.toList());
+        initials.forEach(state -> Arguments.requireNonNull(state, "state"));
+        trace.clear();
+        traceStart = null;
+        iterations = 0;
+        expanded = 0;
+        bound = initials.stream().mapToDouble(heuristic).min().orElse(Double.POSITIVE_INFINITY);
+        while (bound <= maxCost && bound != Double.POSITIVE_INFINITY) {
+            iterations++;
+            nextBound = Double.POSITIVE_INFINITY;
+            for (StateType initial : initials) {
+                final var goal = searchFrom(initial, isGoal);
+                if (goal.isPresent()) {
+                    return goal;
+                }
+            }
+            bound = nextBound;
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Gets the trace of states from an initial state to the goal state found by the last search.
+     * @return The states on the trace, the last being the goal state, empty if no goal state was found
+     */
+    public List<StateType> getStateTrace() {
+        final var states = new ArrayList<StateType>();
+        if (traceStart != null) {
+            states.add(traceStart);
+            trace.forEach(transition -> states.add(transition.getTargetState()));
+        }
+        return states;
+    }
+
+    /**
+     * Gets the trace of transitions from an initial state to the goal state found by the last search, including the userdata of the transitions.
+     * @return The transitions in the order in which they were taken, empty if the goal state is an initial state or no goal state was found
+     */
+    public List<Transition<StateType>> getTransitionTrace() {
+        return new ArrayList<>(trace);
+    }
+
+    /**
+     * Gets the bound of the last iteration of the last search.
+     * If the last search found no goal state, this is the bound that the next iteration would have used, infinite if no path was pruned.
+     * @return
+     */
+    public double getCostBound() {
+        return bound;
+    }
+
+    /**
+     * Counts the iterations of the last search.
+     * @return
+     */
+    public int getIterationCount() {
+        return iterations;
+    }
+
+    /**
+     * Counts the states that were expanded during the last search, summed over all iterations.
+     * @return
+     */
+    public long getExpandedCount() {
+        return expanded;
+    }
+
+    private Optional<StateType> searchFrom(StateType initial, Predicate<StateType> isGoal) {
+        if (!withinBound(initial, 0)) {
+            return Optional.empty();
+        }
+        if (isGoal.test(initial)) {
+            traceStart = initial;
+            return Optional.of(initial);
+        }
+        push(initial, 0, null);
+        try {
+            while (!stack.isEmpty()) {
+                final var frame = stack.peek();
+                if (!frame.successors.hasNext()) {
+                    stack.pop();
+                    path.remove(frame.state);
+                    continue;
+                }
+                final var transition = frame.successors.next();
+                final var target = transition.getTargetState();
+                if (path.contains(target)) {
+                    continue;
+                }
+                final double cost = frame.cost + costs.applyAsDouble(transition);
+                if (!withinBound(target, cost)) {
+                    continue;
+                }
+                if (isGoal.test(target)) {
+                    recordTrace(transition);
+                    return Optional.of(target);
+                }
+                push(target, cost, transition);
+            }
+            return Optional.empty();
+        } finally {
+            stack.clear();
+            path.clear();
+        }
+    }
+
+    private boolean withinBound(StateType state, double cost) {
+        final double estimate = cost + heuristic.applyAsDouble(state);
+        if (estimate > bound) {
+            nextBound = Math.min(nextBound, estimate);
+            return false;
+        }
+        return true;
+    }
+
+    private void push(StateType state, double cost, Transition<StateType> transition) {
+        expanded++;
+        final Iterator<Transition<StateType>> successors;
+        if (nextFunction instanceof PushNextFunction) {
+            final var buffer = new ArrayList<Transition<StateType>>();
+            ((PushNextFunction<StateType>) nextFunction).generate(state, buffer::add);
+            successors = buffer.iterator();
+        } else {
+            // The stream is consumed lazily, so only the transitions up to the current one are generated
+            successors = nextFunction.apply(state).iterator();
+        }
+        stack.push(new Frame<>(state, cost, transition, successors));
+        path.add(state);
+    }
+
+    private void recordTrace(Transition<StateType> last) {
+        final var frames = stack.descendingIterator();
+        traceStart = frames.next().state;
+        while (frames.hasNext()) {
+            trace.add(frames.next().transition);
+        }
+        trace.add(last);
+    }
+
+    private static final class Frame<StateType> {
+        final StateType state;
+        final double cost;
+        final Transition<StateType> transition;
+        final Iterator<Transition<StateType>> successors;
+
+        Frame(StateType state, double cost, Transition<StateType> transition, Iterator<Transition<StateType>> successors) {
+            this.state = state;
+            this.cost = cost;
+            this.transition = transition;
+            this.successors = successors;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package abeona.engines;
+
+import abeona.NextFunction;
+import abeona.PushNextFunction;
+import abeona.Transition;
+import abeona.util.Arguments;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * A breadth-first search that expands a whole layer of states at once on a {@link ForkJoinPool}, for state spaces in which every transition has the same cost.
+ *
+ * Unlike {@link abeona.Query#exploreParallel(int)}, which serializes the evaluation of every transition behind a single lock, the workers of this engine never synchronize on a shared lock.
+ * The current layer is split into chunks that are expanded in parallel, every generated state is claimed by inserting it into a concurrent map from state to the state that discovered it.
+ * Only the worker that claims a state adds it to the next layer, so the next layer is free of duplicates without a separate merge step.
+ * The map doubles as the set of known states and as the back-links used by {@link #getStateTrace(Object)}.
+ *
+ * Like {@link abeona.behaviours.TerminateOnGoalStateBehaviour} the search stops at the first discovered state matching the goal predicate, the initial states are tested as well.
+ * Since the states of a layer are expanded concurrently, which goal is returned when a layer holds several of them is not defined, but its trace always has the minimal number of transitions.
+ *
+ * The next-function is invoked concurrently and should be thread-safe, if it implements {@link PushNextFunction} the transitions are pushed without building streams.
+ * The engine itself is not thread-safe, only one search may run on an instance at a time.
+ *
+ * @param <StateType>
+ */
+public final class ParallelBfs<StateType> {
+    private static final int DEFAULT_CHUNK_SIZE = 256;
+    private final NextFunction<StateType> nextFunction;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final ConcurrentHashMap<StateType, StateType> parents = new ConcurrentHashMap<>();
+    private final AtomicReference<StateType> goal = new AtomicReference<>();
+    private int depth = 0;
+
+    /**
+     * Creates an engine that expands its layers on the common pool.
+     * @param nextFunction The thread-safe next-function of the state space
+     * @throws IllegalArgumentException Thrown if the next-function is null
+     */
+    public ParallelBfs(NextFunction<StateType> nextFunction) {
+        this(nextFunction, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates an engine that expands its layers on the given pool.
+     * @param nextFunction The thread-safe next-function of the state space
+     * @param pool The pool to expand the layers on
+     * @param chunkSize The number of states of a layer that a single task expands, at least 1
+     * @throws IllegalArgumentException Thrown if the next-function or pool is null, or the chunk size is lower than 1
+     */
+    public ParallelBfs(NextFunction<StateType> nextFunction, ForkJoinPool pool, int chunkSize) {
+        Arguments.requireNonNull(nextFunction, "nextFunction");
+        Arguments.requireNonNull(pool, "pool");
+        Arguments.requireMinimum(1, chunkSize, "chunkSize");
+        this.nextFunction = nextFunction;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Searches breadth-first from the initial states until a goal state is discovered or the state space is exhausted.
+     * States that are already known from a previous search are not explored again, use {@link #clear()} to start over.
+     * @param initialStates The states to start the search from
+     * @param isGoal The predicate identifying goal states
+     * @return An optional holding the discovered goal state, or empty if the state space was exhausted without finding one
+     * @throws IllegalArgumentException Thrown if an argument is null
+     */
+    public Optional<StateType> search(Stream<StateType> initialStates, Predicate<StateType> isGoal) {
+        Arguments.requireNonNull(initialStates, "initialStates");
+        Arguments.requireNonNull(isGoal, "isGoal");
+        goal.set(null);
+        depth = 0;
+        final List<StateType> initialLayer = new ArrayList<>();
+        initialStates.forEach(state -> {
+            Arguments.requireNonNull(state, "state");
+            // An initial state links to itself, which marks the start of its trace
+            if (parents.putIfAbsent(state, state) == null) {
+                initialLayer.add(state);
+                if (isGoal.test(state)) {
+                    goal.compareAndSet(null, state);
+                }
+            }
+        });
+        var layer = initialLayer;
+        while (goal.get() == null && !layer.isEmpty()) {
+            layer = expandLayer(layer, isGoal);
+            if (!layer.isEmpty()) {
+                depth++;
+            }
+        }
+        return Optional.ofNullable(goal.get());
+    }
+
+    /**
+     * Explores the entire state space reachable from the initial states.
+     * @param initialStates The states to start the exploration from
+     * @return The number of states known after the exploration
+     * @throws IllegalArgumentException Thrown if an argument is null
+     */
+    public long explore(Stream<StateType> initialStates) {
+        search(initialStates, unused -> false);
+        return parents.mappingCount();
+    }
+
+    /**
+     * Gets the number of transitions between the initial states and the last completed layer of the last search.
+     * @return
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Counts the states that have been discovered, including the initial states.
+     * @return
+     */
+    public long getDiscoveredCount() {
+        return parents.mappingCount();
+    }
+
+    /**
+     * Tests if a state has been discovered by a search.
+     * @param state The state to test
+     * @return
+     * @throws IllegalArgumentException Thrown if the state is null
+     */
+    public boolean isDiscovered(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        return parents.containsKey(state);
+    }
+
+    /**
+     * Gets the state that discovered the given state.
+     * @param state The state to get the discovering state of
+     * @return An optional holding the discovering state, empty if the state is an initial state or has not been discovered
+     * @throws IllegalArgumentException Thrown if the state is null
+     */
+    public Optional<StateType> getTraceLink(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        final var parent = parents.get(state);
+        return parent == null || parent.equals(state) ? Optional.empty() : Optional.of(parent);
+    }
+
+    /**
+     * Builds the trace of states from an initial state to the given state.
+     * @param traceEnd The end-state to build the trace for
+     * @return The states on the trace, the first being an initial state and the last being the given state, empty if the state has not been discovered
+     * @throws IllegalArgumentException Thrown if the state is null
+     */
+    public List<StateType> getStateTrace(StateType traceEnd) {
+        Arguments.requireNonNull(traceEnd, "traceEnd");
+        final var trace = new ArrayList<StateType>();
+        var state = traceEnd;
+        var parent = parents.get(state);
+        while (parent != null) {
+            trace.add(state);
+            if (parent.equals(state)) {
+                break;
+            }
+            state = parent;
+            parent = parents.get(state);
+        }
+        Collections.reverse(trace);
+        return trace;
+    }
+
+    /**
+     * Forgets all discovered states.
+     */
+    public void clear() {
+        parents.clear();
+        goal.set(null);
+        depth = 0;
+    }
+
+    private List<StateType> expandLayer(List<StateType> layer, Predicate<StateType> isGoal) {
+        final int chunks = (layer.size() + chunkSize - 1) / chunkSize;
+        // Every chunk stores its discoveries in its own slot, the slots are only read after all chunks completed
+        final List<List<StateType>> discovered = new ArrayList<>(Collections.nCopies(chunks, null));
+        if (chunks == 1) {
+            discovered.set(0, expandChunk(layer, 0, isGoal));
+        } else {
+            pool.invoke(new Expansion(layer, discovered, 0, chunks, isGoal));
+        }
+        int total = 0;
+        for (List<StateType> states : discovered) {
+            total += states.size();
+        }
+        final var next = new ArrayList<StateType>(total);
+        for (List<StateType> states : discovered) {
+            next.addAll(states);
+        }
+        return next;
+    }
+
+    private List<StateType> expandChunk(List<StateType> layer, int chunk, Predicate<StateType> isGoal) {
+        final var discovered = new ArrayList<StateType>();
+        final int end = Math.min(layer.size(), (chunk + 1) * chunkSize);
+        for (int i = chunk * chunkSize; i < end && goal.get() == null; i++) {
+            final var source = layer.get(i);
+            final Consumer<Transition<StateType>> sink = transition -> {
+                final var target = transition.getTargetState();
+                if (parents.putIfAbsent(target, source) == null) {
+                    discovered.add(target);
+                    if (isGoal.test(target)) {
+                        goal.compareAndSet(null, target);
+                    }
+                }
+            };
+            if (nextFunction instanceof PushNextFunction) {
+                ((PushNextFunction<StateType>) nextFunction).generate(source, sink);
+            } else {
+                nextFunction.apply(source).forEach(sink);
+            }
+        }
+        return discovered;
+    }
+
+    private final class Expansion extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final List<StateType> layer;
+        private final List<List<StateType>> discovered;
+        private final int fromChunk;
+        private final int toChunk;
+        private final Predicate<StateType> isGoal;
+
+        Expansion(List<StateType> layer, List<List<StateType>> discovered, int fromChunk, int toChunk, Predicate<StateType> isGoal) {
+            this.layer = layer;
+            this.discovered = discovered;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+            this.isGoal = isGoal;
+        }
+
+        @Override
+        protected void compute() {
+            if (toChunk - fromChunk == 1) {
+                discovered.set(fromChunk, expandChunk(layer, fromChunk, isGoal));
+            } else {
+                final int middle = (fromChunk + toChunk) >>> 1;
+                invokeAll(
+                        new Expansion(layer, discovered, fromChunk, middle, isGoal),
+                        new Expansion(layer, discovered, middle, toChunk, isGoal)
+                );
+            }
+        }
+    }
+}
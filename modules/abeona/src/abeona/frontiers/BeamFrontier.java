@@ -0,0 +1,292 @@
+package abeona.frontiers;
+
+import abeona.util.Arguments;
+
+import java.util.*;
+
+/**
+ * An {@link OrderedFrontier} that holds at most a fixed number of states, the beam of a beam search.
+ * The states are ordered by a comparator, lower states are produced first and states the comparator considers equal are produced in insertion order.
+ *
+ * When the frontier is full a new state is only accepted if it is better than the worst state in the frontier, which is then evicted.
+ * The entries are kept in both a min-heap and a max-heap, so accepting or evicting a state takes O(log k) for a beam of width k and the size is known in constant time.
+ * Unlike limiting a frontier with {@link abeona.behaviours.FrontierCapacityBehaviour}, no extra behaviour is needed and the frontier is never scanned.
+ *
+ * Evicted states are not reported to the query, so they are not added to the heap and may be discovered again later.
+ *
+ * @param <StateType>
+ */
+public final class BeamFrontier<StateType> implements OrderedFrontier<StateType> {
+    private final Comparator<StateType> comparator;
+    private final int capacity;
+    private final Map<StateType, Entry<StateType>> entries = new HashMap<>();
+    private Entry<StateType>[] minHeap;
+    private Entry<StateType>[] maxHeap;
+    private int size = 0;
+    private long insertionCounter = 0;
+    private long evictionCounter = 0;
+    private int modificationCounter = 0;
+
+    private BeamFrontier(Comparator<StateType> comparator, int capacity) {
+        Arguments.requireNonNull(comparator, "comparator");
+        Arguments.requireMinimum(1, capacity, "capacity");
+        this.comparator = comparator;
+        this.capacity = capacity;
+        this.minHeap = newHeap(Math.min(capacity, 16));
+        this.maxHeap = newHeap(Math.min(capacity, 16));
+    }
+
+    /**
+     * Creates a frontier that keeps the best states according to the comparator.
+     * @param comparator The ordering of the states, lower states are produced first and kept when the frontier is full
+     * @param capacity The maximum number of states in the frontier, at least 1
+     * @param <StateType>
+     * @return
+     * @throws IllegalArgumentException Thrown if the comparator is null or the capacity is lower than 1
+     */
+    public static <StateType> BeamFrontier<StateType> withCapacity(Comparator<StateType> comparator, int capacity) {
+        return new BeamFrontier<>(comparator, capacity);
+    }
+
+    @Override
+    public Comparator<StateType> comparator() {
+        return comparator;
+    }
+
+    /**
+     * Gets the maximum number of states in the frontier.
+     * @return
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the number of states that were evicted or rejected because the frontier was full.
+     * @return
+     */
+    public long getEvictionCount() {
+        return evictionCounter;
+    }
+
+    /**
+     * Adds a state to the frontier if it is not yet present and there is room for it.
+     * If the frontier is full, the state is only added if it is better than the worst state in the frontier, which is evicted to make room.
+     * @param state The state to add to the frontier
+     * @return True if the state was added, false if it was already present or not better than the worst state of a full frontier
+     */
+    @Override
+    public boolean add(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        if (entries.containsKey(state)) {
+            return false;
+        }
+        if (size == capacity) {
+            evictionCounter++;
+            final var worst = maxHeap[0];
+            if (comparator.compare(state, worst.state) >= 0) {
+                return false;
+            }
+            entries.remove(worst.state);
+            removeEntry(worst);
+        }
+        final var entry = new Entry<>(state, insertionCounter++);
+        entries.put(state, entry);
+        if (size == minHeap.length) {
+            final int grown = (int) Math.min(capacity, size * 2L);
+            minHeap = Arrays.copyOf(minHeap, grown);
+            maxHeap = Arrays.copyOf(maxHeap, grown);
+        }
+        minHeap[size] = entry;
+        maxHeap[size] = entry;
+        entry.minIndex = size;
+        entry.maxIndex = size;
+        size++;
+        siftUp(minHeap, false, entry.minIndex);
+        siftUp(maxHeap, true, entry.maxIndex);
+        modificationCounter++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(StateType item) {
+        final var entry = entries.remove(item);
+        if (entry == null) {
+            return false;
+        }
+        removeEntry(entry);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+        Arrays.fill(minHeap, 0, size, null);
+        Arrays.fill(maxHeap, 0, size, null);
+        size = 0;
+        modificationCounter++;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return size != 0;
+    }
+
+    @Override
+    public StateType next() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        final var best = minHeap[0];
+        entries.remove(best.state);
+        removeEntry(best);
+        return best.state;
+    }
+
+    @Override
+    public Optional<StateType> peekNext() {
+        return size == 0 ? Optional.empty() : Optional.of(minHeap[0].state);
+    }
+
+    @Override
+    public Optional<StateType> peekLast() {
+        return size == 0 ? Optional.empty() : Optional.of(maxHeap[0].state);
+    }
+
+    @Override
+    public StateType removeLast() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        final var worst = maxHeap[0];
+        entries.remove(worst.state);
+        removeEntry(worst);
+        return worst.state;
+    }
+
+    @Override
+    public boolean contains(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        return entries.containsKey(state);
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Iterates over the states in the frontier in heap order, which is not the order in which they are produced.
+     * @return
+     */
+    @Override
+    public Iterator<StateType> iterator() {
+        return new Iterator<>() {
+            private final int expectedModificationCounter = modificationCounter;
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public StateType next() {
+                if (modificationCounter != expectedModificationCounter) {
+                    throw new ConcurrentModificationException();
+                }
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                return minHeap[index++].state;
+            }
+        };
+    }
+
+    private void removeEntry(Entry<StateType> entry) {
+        size--;
+        removeAt(minHeap, false, entry.minIndex);
+        removeAt(maxHeap, true, entry.maxIndex);
+        modificationCounter++;
+    }
+
+    private void removeAt(Entry<StateType>[] heap, boolean max, int index) {
+        // The size has already been decremented, so the last entry of the heap is at the size
+        final var last = heap[size];
+        heap[size] = null;
+        if (index != size) {
+            place(heap, max, index, last);
+            siftDown(heap, max, index);
+            if (heap[index] == last) {
+                siftUp(heap, max, index);
+            }
+        }
+    }
+
+    private void siftUp(Entry<StateType>[] heap, boolean max, int index) {
+        final var entry = heap[index];
+        while (index > 0) {
+            final int parentIndex = (index - 1) / 2;
+            final var parent = heap[parentIndex];
+            if (!isBefore(entry, parent, max)) {
+                break;
+            }
+            place(heap, max, index, parent);
+            index = parentIndex;
+        }
+        place(heap, max, index, entry);
+    }
+
+    private void siftDown(Entry<StateType>[] heap, boolean max, int index) {
+        final var entry = heap[index];
+        while (true) {
+            final int left = index * 2 + 1;
+            if (left >= size) {
+                break;
+            }
+            final int right = left + 1;
+            final int bestChild = right < size && isBefore(heap[right], heap[left], max) ? right : left;
+            final var child = heap[bestChild];
+            if (!isBefore(child, entry, max)) {
+                break;
+            }
+            place(heap, max, index, child);
+            index = bestChild;
+        }
+        place(heap, max, index, entry);
+    }
+
+    private static <StateType> void place(Entry<StateType>[] heap, boolean max, int index, Entry<StateType> entry) {
+        heap[index] = entry;
+        if (max) {
+            entry.maxIndex = index;
+        } else {
+            entry.minIndex = index;
+        }
+    }
+
+    private boolean isBefore(Entry<StateType> a, Entry<StateType> b, boolean max) {
+        int comparison = comparator.compare(a.state, b.state);
+        if (comparison == 0) {
+            comparison = Long.compare(a.insertion, b.insertion);
+        }
+        return max ? comparison > 0 : comparison < 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <StateType> Entry<StateType>[] newHeap(int capacity) {
+        return (Entry<StateType>[]) new Entry<?>[capacity];
+    }
+
+    private static final class Entry<StateType> {
+        final StateType state;
+        final long insertion;
+        int minIndex;
+        int maxIndex;
+
+        Entry(StateType state, long insertion) {
+            this.state = state;
+            this.insertion = insertion;
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package abeona.frontiers;
+
+import abeona.metadata.StateIndex;
+import abeona.util.Arguments;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToIntFunction;
+
+/**
+ * A {@link DynamicallyOrderedFrontier} for integer priorities that keeps a bucket of states for every priority value, also known as Dial's algorithm.
+ * The priority of a state is computed once when it is inserted, states with the lowest priority are produced first and states within a bucket are produced in the order they entered it.
+ *
+ * Inserting a state and changing its priority through {@link #mutateOrderedProperty(Object, Consumer)} take constant time, as the state is only unlinked from one bucket and appended to another.
+ * Producing the next state scans forward from the last produced priority to the next non-empty bucket.
+ * When the priorities of produced states never decrease, as with Dijkstra or A* with a consistent heuristic on non-negative integer costs, this scan is amortised constant time.
+ *
+ * The buckets are kept in an array spanning the lowest to the highest priority in the frontier, so this frontier is intended for priorities within a small range, such as small integer transition costs.
+ * Priorities may be negative and may be lower than the last produced priority, the buckets are shifted when needed.
+ *
+ * A frontier created through {@link #withIndexedPriority(StateIndex, IntUnaryOperator)} computes the priority from the id of a state instead,
+ * the id is looked up once when the state is inserted and kept in its entry, so recomputing the priority after a mutation reads per-id data directly.
+ *
+ * @param <StateType>
+ */
+public final class BucketFrontier<StateType> implements DynamicallyOrderedFrontier<StateType> {
+    private static final int MAX_BUCKETS = Integer.MAX_VALUE - 8;
+    private final ToIntFunction<StateType> priorityFunction;
+    private final StateIndex<StateType> index;
+    private final IntUnaryOperator indexedPriorityFunction;
+    private final Comparator<StateType> comparator;
+    private final Map<StateType, Entry<StateType>> entries = new HashMap<>();
+    private Entry<StateType>[] heads = newBuckets(64);
+    private Entry<StateType>[] tails = newBuckets(64);
+    // Priority of the first bucket, all buckets before lowest and after highest are empty
+    private int base = 0;
+    private int lowest = 0;
+    private int highest = 0;
+    private int modificationCounter = 0;
+
+    private BucketFrontier(ToIntFunction<StateType> priorityFunction) {
+        Arguments.requireNonNull(priorityFunction, "priorityFunction");
+        this.priorityFunction = priorityFunction;
+        this.index = null;
+        this.indexedPriorityFunction = null;
+        this.comparator = Comparator.comparingInt(priorityFunction);
+    }
+
+    private BucketFrontier(StateIndex<StateType> index, IntUnaryOperator priorityFunction) {
+        Arguments.requireNonNull(index, "index");
+        Arguments.requireNonNull(priorityFunction, "priorityFunction");
+        this.priorityFunction = null;
+        this.index = index;
+        this.indexedPriorityFunction = priorityFunction;
+        this.comparator = Comparator.comparingInt(state -> priorityFunction.applyAsInt(index.getOrAssign(state)));
+    }
+
+    /**
+     * Creates a frontier ordered on the given integer priority function.
+     * @param priorityFunction The function that computes the priority of a state, lower values are produced first
+     * @param <StateType>
+     * @return
+     * @throws IllegalArgumentException Thrown if the priority function is null
+     */
+    public static <StateType> BucketFrontier<StateType> withPriority(ToIntFunction<StateType> priorityFunction) {
+        return new BucketFrontier<>(priorityFunction);
+    }
+
+    /**
+     * Creates a frontier ordered on an integer priority function of the state ids assigned by the given index.
+     * Every inserted state is assigned an id, a state must not be released from the index while it is in the frontier.
+     * @param index The index that assigns the state ids
+     * @param priorityFunction The function that computes the priority of the state with an id, lower values are produced first
+     * @param <StateType>
+     * @return
+     * @throws IllegalArgumentException Thrown if the index or the priority function is null
+     */
+    public static <StateType> BucketFrontier<StateType> withIndexedPriority(StateIndex<StateType> index, IntUnaryOperator priorityFunction) {
+        return new BucketFrontier<>(index, priorityFunction);
+    }
+
+    @Override
+    public Comparator<StateType> comparator() {
+        return comparator;
+    }
+
+    /**
+     * Gets the priority that is stored for a state in the frontier.
+     * @param state The state to get the stored priority for
+     * @return The priority computed for the state when it was inserted or last mutated, empty if the state is not in the frontier
+     */
+    public OptionalInt getPriority(StateType state) {
+        final var entry = entries.get(state);
+        return entry == null ? OptionalInt.empty() : OptionalInt.of(entry.priority);
+    }
+
+    /**
+     * Gets the priority of the state that would be produced next.
+     * @return The lowest stored priority, empty if the frontier is empty
+     */
+    public OptionalInt peekPriority() {
+        return entries.isEmpty() ? OptionalInt.empty() : OptionalInt.of(base + lowestBucket());
+    }
+
+    @Override
+    public boolean add(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        if (entries.containsKey(state)) {
+            return false;
+        }
+        final var entry = new Entry<>(state, index == null ? -1 : index.getOrAssign(state));
+        entry.priority = priorityOf(entry);
+        link(entry, entries.isEmpty());
+        entries.put(state, entry);
+        modificationCounter++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(StateType item) {
+        final var entry = entries.remove(item);
+        if (entry == null) {
+            return false;
+        }
+        unlink(entry);
+        modificationCounter++;
+        return true;
+    }
+
+    @Override
+    public void mutateOrderedProperty(StateType state, Consumer<StateType> mutator) {
+        final var entry = entries.get(state);
+        try {
+            mutator.accept(state);
+        } finally {
+            if (entry != null) {
+                final int priority = priorityOf(entry);
+                if (priority != entry.priority) {
+                    unlink(entry);
+                    entry.priority = priority;
+                    link(entry, entries.size() == 1);
+                }
+                modificationCounter++;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        if (!entries.isEmpty()) {
+            Arrays.fill(heads, lowest, highest + 1, null);
+            Arrays.fill(tails, lowest, highest + 1, null);
+        }
+        entries.clear();
+        modificationCounter++;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !entries.isEmpty();
+    }
+
+    @Override
+    public StateType next() {
+        if (entries.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        final var entry = heads[lowestBucket()];
+        entries.remove(entry.state);
+        unlink(entry);
+        modificationCounter++;
+        return entry.state;
+    }
+
+    @Override
+    public Optional<StateType> peekNext() {
+        return entries.isEmpty() ? Optional.empty() : Optional.of(heads[lowestBucket()].state);
+    }
+
+    @Override
+    public Optional<StateType> peekLast() {
+        return entries.isEmpty() ? Optional.empty() : Optional.of(tails[highestBucket()].state);
+    }
+
+    @Override
+    public StateType removeLast() {
+        if (entries.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        final var entry = tails[highestBucket()];
+        entries.remove(entry.state);
+        unlink(entry);
+        modificationCounter++;
+        return entry.state;
+    }
+
+    @Override
+    public boolean contains(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        return entries.containsKey(state);
+    }
+
+    @Override
+    public long size() {
+        return entries.size();
+    }
+
+    /**
+     * Iterates over the states in the frontier in the order in which they would be produced.
+     * @return
+     */
+    @Override
+    public Iterator<StateType> iterator() {
+        return new Iterator<>() {
+            private final int expectedModificationCounter = modificationCounter;
+            private int bucket = lowest;
+            private Entry<StateType> upcoming = entries.isEmpty() ? null : seek(lowest);
+
+            @Override
+            public boolean hasNext() {
+                return upcoming != null;
+            }
+
+            @Override
+            public StateType next() {
+                if (modificationCounter != expectedModificationCounter) {
+                    throw new ConcurrentModificationException();
+                }
+                if (upcoming == null) {
+                    throw new NoSuchElementException();
+                }
+                final var result = upcoming;
+                upcoming = result.next != null ? result.next : seek(bucket + 1);
+                return result.state;
+            }
+
+            private Entry<StateType> seek(int from) {
+                for (bucket = from; bucket <= highest; bucket++) {
+                    if (heads[bucket] != null) {
+                        return heads[bucket];
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    private int lowestBucket() {
+        while (heads[lowest] == null) {
+            lowest++;
+        }
+        return lowest;
+    }
+
+    private int highestBucket() {
+        while (heads[highest] == null) {
+            highest--;
+        }
+        return highest;
+    }
+
+    private void link(Entry<StateType> entry, boolean onlyEntry) {
+        final int bucket = bucketOf(entry.priority, onlyEntry);
+        if (onlyEntry) {
+            lowest = bucket;
+            highest = bucket;
+        } else {
+            lowest = Math.min(lowest, bucket);
+            highest = Math.max(highest, bucket);
+        }
+        final var tail = tails[bucket];
+        entry.previous = tail;
+        entry.next = null;
+        if (tail == null) {
+            heads[bucket] = entry;
+        } else {
+            tail.next = entry;
+        }
+        tails[bucket] = entry;
+    }
+
+    private void unlink(Entry<StateType> entry) {
+        final int bucket = entry.priority - base;
+        if (entry.previous == null) {
+            heads[bucket] = entry.next;
+        } else {
+            entry.previous.next = entry.next;
+        }
+        if (entry.next == null) {
+            tails[bucket] = entry.previous;
+        } else {
+            entry.next.previous = entry.previous;
+        }
+        entry.previous = null;
+        entry.next = null;
+    }
+
+    private int bucketOf(int priority, boolean onlyEntry) {
+        if (onlyEntry) {
+            // All buckets are empty, so the first bucket can be moved to any priority
+            base = priority;
+            return 0;
+        }
+        final long offset = (long) priority - base;
+        if (offset < 0) {
+            shiftBuckets(-offset);
+            return 0;
+        }
+        if (offset >= heads.length && lowest > 0) {
+            shiftBuckets(-lowest);
+        }
+        final long bucket = (long) priority - base;
+        if (bucket >= heads.length) {
+            resize(bucket + 1);
+        }
+        return (int) bucket;
+    }
+
+    private void shiftBuckets(long shift) {
+        final int used = highest - lowest + 1;
+        final long from = lowest;
+        final long to = lowest + shift;
+        if (to + used > heads.length) {
+            resize(to + used);
+        }
+        System.arraycopy(heads, (int) from, heads, (int) to, used);
+        System.arraycopy(tails, (int) from, tails, (int) to, used);
+        if (shift > 0) {
+            Arrays.fill(heads, (int) from, (int) Math.min(to, from + used), null);
+            Arrays.fill(tails, (int) from, (int) Math.min(to, from + used), null);
+        } else {
+            Arrays.fill(heads, (int) Math.max(to + used, from), (int) from + used, null);
+            Arrays.fill(tails, (int) Math.max(to + used, from), (int) from + used, null);
+        }
+        base -= shift;
+        lowest += shift;
+        highest += shift;
+    }
+
+    private void resize(long required) {
+        if (required > MAX_BUCKETS) {
+            throw new IllegalArgumentException("The range of priorities in the frontier exceeds the maximum number of buckets");
+        }
+        final int capacity = (int) Math.min(MAX_BUCKETS, Math.max(required, heads.length * 2L));
+        heads = Arrays.copyOf(heads, capacity);
+        tails = Arrays.copyOf(tails, capacity);
+    }
+
+    private int priorityOf(Entry<StateType> entry) {
+        return index == null ? priorityFunction.applyAsInt(entry.state) : indexedPriorityFunction.applyAsInt(entry.id);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <StateType> Entry<StateType>[] newBuckets(int capacity) {
+        return (Entry<StateType>[]) new Entry<?>[capacity];
+    }
+
+    private static final class Entry<StateType> {
+        final StateType state;
+        final int id;
+        int priority;
+        Entry<StateType> previous;
+        Entry<StateType> next;
+
+        Entry(StateType state, int id) {
+            this.state = state;
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,528 @@
+package abeona.frontiers;
+
+import abeona.codecs.StateCodec;
+import abeona.heaps.Heap;
+import abeona.util.Arguments;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * A breadth-first frontier for state spaces that do not fit in memory, the states are kept in files on disk in their encoded form.
+ *
+ * The frontier works layer by layer. Discovered states are collected in a fixed-size buffer, which is sorted and written to a run file whenever it fills up.
+ * Once the current layer is exhausted the runs are merged into the file of the next layer.
+ * Duplicates are removed during the merge, and so are states that already occur in the files of previous layers (delayed duplicate detection).
+ * The layer the frontier produces states from is read back through memory-mapped segments, the merges stream their files through small buffers.
+ * Only the run buffer and these windows occupy memory, no matter how many states have been explored.
+ *
+ * When all previous layers take part in duplicate detection, the layers that are no longer current are merged into a single sorted file of closed states.
+ * Each new layer is then compared against two files instead of against every previous layer.
+ *
+ * Because duplicates are only detected when a layer is completed, this frontier has to be paired with the heap returned by {@link #getHeap()}.
+ * That heap does not store anything and reports every state as unknown, leaving duplicate detection to the frontier.
+ * Use {@link abeona.util.ExplorationPresets#setupExternalBfs} to set up a query with the pair.
+ *
+ * The states are compared on their encodings, {@link Object#equals(Object)} and {@link Object#hashCode()} of the state type are not used.
+ * Failures to read or write the files are thrown as {@link UncheckedIOException}.
+ *
+ * @param <StateType>
+ */
+public final class ExternalBfsFrontier<StateType> implements Frontier<StateType>, AutoCloseable {
+    private static final int DEFAULT_RUN_BUFFER_BYTES = 1 << 24;
+    private static final int SEGMENT_BYTES = 1 << 26;
+    private static final int BUFFER_BYTES = 1 << 16;
+    private final StateCodec<StateType> codec;
+    private final Path directory;
+    private final int recordSize;
+    private final int duplicateDetectionDepth;
+    private final byte[] runBuffer;
+    private final ByteBuffer runBufferView;
+    private final List<Path> runs = new ArrayList<>();
+    private final Deque<Path> layers = new ArrayDeque<>();
+    private final Heap<StateType> heap = new LayerHeap();
+    private int runRecords = 0;
+    private int fileCounter = 0;
+    private Path closedLayers = null;
+    private RecordReader currentLayer = null;
+    private long currentLayerSize = 0;
+    private int depth = -1;
+
+    /**
+     * Creates a frontier that stores its files in the given directory, comparing new layers against all previous layers.
+     * @param codec The codec used to encode the states
+     * @param directory The existing directory to store the layer files in
+     * @throws IllegalArgumentException Thrown if any argument is null
+     */
+    public ExternalBfsFrontier(StateCodec<StateType> codec, Path directory) {
+        this(codec, directory, DEFAULT_RUN_BUFFER_BYTES, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a frontier that stores its files in the given directory.
+     * For undirected state spaces a duplicate detection depth of 2 suffices, as a successor of a state in layer d can only be in layer d - 1, d or d + 1.
+     * @param codec The codec used to encode the states
+     * @param directory The existing directory to store the layer files in
+     * @param runBufferBytes The number of bytes of memory used to collect discovered states before they are sorted and written to disk
+     * @param duplicateDetectionDepth The number of previous layers a new layer is compared against
+     * @throws IllegalArgumentException Thrown if the codec or directory is null, the run buffer cannot hold a single state or the depth is lower than 1
+     */
+    public ExternalBfsFrontier(StateCodec<StateType> codec, Path directory, int runBufferBytes, int duplicateDetectionDepth) {
+        Arguments.requireNonNull(codec, "codec");
+        Arguments.requireNonNull(directory, "directory");
+        Arguments.requireMinimum(codec.getEncodedSize(), runBufferBytes, "runBufferBytes");
+        Arguments.requireMinimum(1, duplicateDetectionDepth, "duplicateDetectionDepth");
+        this.codec = codec;
+        this.directory = directory;
+        this.recordSize = codec.getEncodedSize();
+        this.duplicateDetectionDepth = duplicateDetectionDepth;
+        this.runBuffer = new byte[runBufferBytes / recordSize * recordSize];
+        this.runBufferView = ByteBuffer.wrap(runBuffer);
+    }
+
+    /**
+     * Gets the heap that has to be used together with this frontier.
+     * @return
+     */
+    public Heap<StateType> getHeap() {
+        return heap;
+    }
+
+    /**
+     * Gets the depth of the layer the frontier is currently producing states from.
+     * @return The number of completed layers before the current one, -1 if no layer has been started yet
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Gets the number of distinct states in the layer the frontier is currently producing states from.
+     * @return
+     */
+    public long getLayerSize() {
+        return currentLayerSize;
+    }
+
+    @Override
+    public boolean add(Stream<? extends StateType> generator) {
+        Arguments.requireNonNull(generator, "generator");
+        final var iterator = generator.iterator();
+        boolean modified = false;
+        while (iterator.hasNext()) {
+            final var state = iterator.next();
+            Arguments.requireNonNull(state, "state");
+            if (runRecords * recordSize == runBuffer.length) {
+                spillRun();
+            }
+            runBufferView.clear().position(runRecords * recordSize);
+            codec.encode(state, runBufferView);
+            if (runBufferView.position() != (runRecords + 1) * recordSize) {
+                throw new IllegalStateException("The codec did not write exactly " + recordSize + " bytes");
+            }
+            runRecords++;
+            modified = true;
+        }
+        return modified;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (currentLayer == null || !currentLayer.hasRecord()) {
+            if (runRecords == 0 && runs.isEmpty()) {
+                return false;
+            }
+            completeLayer();
+        }
+        return true;
+    }
+
+    @Override
+    public StateType next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final var state = codec.decode(ByteBuffer.wrap(currentLayer.record));
+        currentLayer.advance();
+        return state;
+    }
+
+    /**
+     * Removes all pending states and all layer files, after which previously explored states are no longer recognized as duplicates.
+     */
+    @Override
+    public void clear() {
+        closeCurrentLayer();
+        runs.forEach(ExternalBfsFrontier::delete);
+        runs.clear();
+        forgetLayers(0);
+        runRecords = 0;
+        currentLayerSize = 0;
+        depth = -1;
+    }
+
+    /**
+     * Deletes all files created by the frontier.
+     */
+    @Override
+    public void close() {
+        clear();
+    }
+
+    private void spillRun() {
+        final int count = runRecords;
+        final var order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        sortRecords(order, 0, count - 1);
+        final var run = newFile("run");
+        try (final var writer = new RecordWriter(run, recordSize)) {
+            int previous = -1;
+            for (int index : order) {
+                if (previous == -1 || compareRecords(previous, index) != 0) {
+                    writer.write(runBuffer, index * recordSize);
+                    previous = index;
+                }
+            }
+        }
+        runs.add(run);
+        runRecords = 0;
+    }
+
+    private void completeLayer() {
+        if (runRecords != 0) {
+            spillRun();
+        }
+        closeCurrentLayer();
+        final var layer = newFile("layer");
+        final var open = new PriorityQueue<RecordReader>((a, b) -> Arrays.compareUnsigned(a.record, b.record));
+        final var previous = new ArrayList<RecordReader>();
+        long size = 0;
+        try (final var writer = new RecordWriter(layer, recordSize)) {
+            for (Path run : runs) {
+                final var reader = new RecordReader(run, recordSize, false);
+                if (reader.hasRecord()) {
+                    open.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+            if (closedLayers != null) {
+                previous.add(new RecordReader(closedLayers, recordSize, false));
+            }
+            for (Path previousLayer : layers) {
+                previous.add(new RecordReader(previousLayer, recordSize, false));
+            }
+            final var last = new byte[recordSize];
+            boolean hasLast = false;
+            while (!open.isEmpty()) {
+                final var reader = open.poll();
+                final var record = reader.record;
+                if (!(hasLast && Arrays.equals(last, record)) && !occursIn(previous, record)) {
+                    writer.write(record, 0);
+                    size++;
+                }
+                System.arraycopy(record, 0, last, 0, recordSize);
+                hasLast = true;
+                reader.advance();
+                if (reader.hasRecord()) {
+                    open.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+        } finally {
+            open.forEach(RecordReader::close);
+            previous.forEach(RecordReader::close);
+        }
+        runs.forEach(ExternalBfsFrontier::delete);
+        runs.clear();
+        if (size == 0) {
+            // Every discovered state was a duplicate, an empty layer ends the exploration
+            delete(layer);
+            return;
+        }
+        layers.addLast(layer);
+        while (layers.size() > (keepsAllLayers() ? 1 : duplicateDetectionDepth)) {
+            retireLayer(layers.removeFirst());
+        }
+        currentLayer = new RecordReader(layer, recordSize, true);
+        currentLayerSize = size;
+        depth++;
+    }
+
+    private boolean keepsAllLayers() {
+        return duplicateDetectionDepth == Integer.MAX_VALUE;
+    }
+
+    private void retireLayer(Path layer) {
+        if (!keepsAllLayers()) {
+            delete(layer);
+            return;
+        }
+        // Both files are sorted and disjoint, so a plain merge produces the new sorted set of closed states
+        final var merged = newFile("closed");
+        try (final var writer = new RecordWriter(merged, recordSize);
+             final var left = new RecordReader(layer, recordSize, false);
+             final var right = closedLayers == null ? null : new RecordReader(closedLayers, recordSize, false)) {
+            while (left.hasRecord() || (right != null && right.hasRecord())) {
+                final boolean takeLeft = right == null || !right.hasRecord()
+                        || (left.hasRecord() && Arrays.compareUnsigned(left.record, right.record) < 0);
+                final var reader = takeLeft ? left : right;
+                writer.write(reader.record, 0);
+                reader.advance();
+            }
+        }
+        delete(layer);
+        if (closedLayers != null) {
+            delete(closedLayers);
+        }
+        closedLayers = merged;
+    }
+
+    private void forgetLayers(int keep) {
+        while (layers.size() > keep) {
+            delete(layers.removeFirst());
+        }
+        if (closedLayers != null) {
+            delete(closedLayers);
+            closedLayers = null;
+        }
+    }
+
+    private static boolean occursIn(List<RecordReader> previous, byte[] record) {
+        for (RecordReader reader : previous) {
+            int comparison = -1;
+            while (reader.hasRecord() && (comparison = Arrays.compareUnsigned(reader.record, record)) < 0) {
+                reader.advance();
+            }
+            if (reader.hasRecord() && comparison == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void closeCurrentLayer() {
+        if (currentLayer != null) {
+            currentLayer.close();
+            currentLayer = null;
+        }
+    }
+
+    private Path newFile(String prefix) {
+        return directory.resolve(prefix + "-" + (fileCounter++) + ".bin");
+    }
+
+    private int compareRecords(int a, int b) {
+        return Arrays.compareUnsigned(runBuffer, a * recordSize, (a + 1) * recordSize, runBuffer, b * recordSize, (b + 1) * recordSize);
+    }
+
+    private void sortRecords(int[] order, int low, int high) {
+        // Quicksort on the record indices, the records themselves stay in place
+        while (high - low > 16) {
+            final int pivot = order[low + (high - low) / 2];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (compareRecords(order[i], pivot) < 0) {
+                    i++;
+                }
+                while (compareRecords(order[j], pivot) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    final int swap = order[i];
+                    order[i++] = order[j];
+                    order[j--] = swap;
+                }
+            }
+            // Recurse into the smaller part to bound the stack depth
+            if (j - low < high - i) {
+                sortRecords(order, low, j);
+                low = i;
+            } else {
+                sortRecords(order, i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            final int value = order[i];
+            int j = i - 1;
+            while (j >= low && compareRecords(order[j], value) > 0) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = value;
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the fixed-size records of a file sequentially, either through memory-mapped segments or through a read buffer.
+     * Mapped segments are only released by the garbage collector, so short-lived readers use the buffer to avoid piling up mappings.
+     */
+    private static final class RecordReader implements AutoCloseable {
+        private final FileChannel channel;
+        private final long fileSize;
+        private final boolean memoryMapped;
+        private final int segmentSize;
+        private final byte[] record;
+        private ByteBuffer segment;
+        private long segmentStart = 0;
+        private boolean hasRecord;
+
+        RecordReader(Path file, int recordSize, boolean memoryMapped) {
+            try {
+                this.channel = FileChannel.open(file, StandardOpenOption.READ);
+                this.fileSize = channel.size();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.memoryMapped = memoryMapped;
+            this.segmentSize = Math.max(1, (memoryMapped ? SEGMENT_BYTES : BUFFER_BYTES) / recordSize) * recordSize;
+            this.record = new byte[recordSize];
+            if (!memoryMapped) {
+                segment = ByteBuffer.allocate(segmentSize);
+            }
+            map();
+            advance();
+        }
+
+        boolean hasRecord() {
+            return hasRecord;
+        }
+
+        void advance() {
+            if (!segment.hasRemaining()) {
+                segmentStart += segment.limit();
+                map();
+            }
+            hasRecord = segment.hasRemaining();
+            if (hasRecord) {
+                segment.get(record);
+            }
+        }
+
+        private void map() {
+            try {
+                final long length = Math.min(segmentSize, fileSize - segmentStart);
+                if (memoryMapped) {
+                    segment = channel.map(FileChannel.MapMode.READ_ONLY, segmentStart, length);
+                } else {
+                    segment.clear().limit((int) length);
+                    while (segment.hasRemaining()) {
+                        if (channel.read(segment, segmentStart + segment.position()) < 0) {
+                            throw new IOException("Unexpected end of file");
+                        }
+                    }
+                    segment.flip();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() {
+            hasRecord = false;
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Appends fixed-size records to a new file through a write buffer.
+     */
+    private static final class RecordWriter implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final int recordSize;
+
+        RecordWriter(Path file, int recordSize) {
+            try {
+                this.channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.recordSize = recordSize;
+            this.buffer = ByteBuffer.allocate(Math.max(1, BUFFER_BYTES / recordSize) * recordSize);
+        }
+
+        void write(byte[] source, int offset) {
+            if (buffer.remaining() < recordSize) {
+                flush();
+            }
+            buffer.put(source, offset, recordSize);
+        }
+
+        private void flush() {
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() {
+            flush();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * The heap paired with the frontier, the explored states are recorded in the layer files instead.
+     */
+    private final class LayerHeap implements Heap<StateType> {
+        @Override
+        public boolean add(StateType state) {
+            return true;
+        }
+
+        /**
+         * Always returns false, duplicates are detected by the frontier when a layer is completed.
+         * @param state The state to test presence for
+         * @return
+         */
+        @Override
+        public boolean contains(StateType state) {
+            return false;
+        }
+
+        /**
+         * Deletes the files of the completed layers, after which the states in them are no longer recognized as duplicates.
+         * The pending states of the frontier are kept.
+         */
+        @Override
+        public void clear() {
+            forgetLayers(currentLayer == null ? 0 : 1);
+        }
+    }
+}
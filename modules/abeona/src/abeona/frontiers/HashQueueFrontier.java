@@ -0,0 +1,184 @@
+package abeona.frontiers;
+
+import abeona.util.Arguments;
+
+import java.util.*;
+
+/**
+ * A frontier implementation that orders its items based on discovery order, like {@link QueueFrontier}.
+ * The states are kept in a linked list that is indexed by a hashmap, which makes testing presence, removing states and counting them O(1) operations.
+ * This frontier relies on {@link Object#hashCode()} and {@link Object#equals(Object)} of the states.
+ * The frontier must be constructed through either: {@link #fifoFrontier()} or {@link #lifoFrontier()} to create a fifo or lifo ordered frontier (respectively)
+ * @param <StateType>
+ */
+public final class HashQueueFrontier<StateType> implements ManagedFrontier<StateType> {
+    private final Map<StateType, Node<StateType>> nodes = new HashMap<>();
+    private final boolean isStack;
+    private Node<StateType> head = null;
+    private Node<StateType> tail = null;
+    private int modificationCounter = 0;
+
+    private HashQueueFrontier(boolean isStack) {
+        this.isStack = isStack;
+    }
+
+    @Override
+    public boolean add(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        if (nodes.containsKey(state)) {
+            return false;
+        }
+        final var node = new Node<>(state);
+        nodes.put(state, node);
+        if (head == null) {
+            head = tail = node;
+        } else if (isStack) {
+            node.next = head;
+            head.previous = node;
+            head = node;
+        } else {
+            node.previous = tail;
+            tail.next = node;
+            tail = node;
+        }
+        modificationCounter++;
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        nodes.clear();
+        head = tail = null;
+        modificationCounter++;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return head != null;
+    }
+
+    @Override
+    public StateType next() {
+        if (head == null) {
+            throw new NoSuchElementException();
+        }
+        final var node = head;
+        nodes.remove(node.state);
+        unlink(node);
+        return node.state;
+    }
+
+    @Override
+    public Optional<StateType> peekNext() {
+        return head == null ? Optional.empty() : Optional.of(head.state);
+    }
+
+    @Override
+    public boolean remove(StateType item) {
+        final var node = nodes.remove(item);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
+
+    @Override
+    public boolean contains(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        return nodes.containsKey(state);
+    }
+
+    @Override
+    public long size() {
+        return nodes.size();
+    }
+
+    /**
+     * Iterates over the states in the order in which they would be produced by the frontier.
+     * The iterator supports {@link Iterator#remove()}.
+     * @return
+     */
+    @Override
+    public Iterator<StateType> iterator() {
+        return new Iterator<>() {
+            private Node<StateType> upcoming = head;
+            private Node<StateType> current = null;
+            private int expectedModificationCounter = modificationCounter;
+
+            @Override
+            public boolean hasNext() {
+                return upcoming != null;
+            }
+
+            @Override
+            public StateType next() {
+                if (modificationCounter != expectedModificationCounter) {
+                    throw new ConcurrentModificationException();
+                }
+                if (upcoming == null) {
+                    throw new NoSuchElementException();
+                }
+                current = upcoming;
+                upcoming = upcoming.next;
+                return current.state;
+            }
+
+            @Override
+            public void remove() {
+                if (current == null) {
+                    throw new IllegalStateException();
+                }
+                if (modificationCounter != expectedModificationCounter) {
+                    throw new ConcurrentModificationException();
+                }
+                HashQueueFrontier.this.remove(current.state);
+                current = null;
+                expectedModificationCounter = modificationCounter;
+            }
+        };
+    }
+
+    private void unlink(Node<StateType> node) {
+        if (node.previous == null) {
+            head = node.next;
+        } else {
+            node.previous.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.previous;
+        } else {
+            node.next.previous = node.previous;
+        }
+        node.previous = node.next = null;
+        modificationCounter++;
+    }
+
+    /**
+     * Creates a frontier that orders its items based on first-in-first-out ordering, creates BFS exploration order.
+     * @param <StateType>
+     * @return
+     */
+    public static <StateType> HashQueueFrontier<StateType> fifoFrontier() {
+        return new HashQueueFrontier<>(false);
+    }
+
+    /**
+     * Creates a frontier that orders its items based on last-in-first-out ordering, creates DFS exploration order.
+     * @param <StateType>
+     * @return
+     */
+    public static <StateType> HashQueueFrontier<StateType> lifoFrontier() {
+        return new HashQueueFrontier<>(true);
+    }
+
+    private static final class Node<StateType> {
+        final StateType state;
+        Node<StateType> previous;
+        Node<StateType> next;
+
+        Node(StateType state) {
+            this.state = state;
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package abeona.frontiers;
+
+import abeona.metadata.StateIndex;
+import abeona.util.Arguments;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A {@link DynamicallyOrderedFrontier} backed by a d-ary heap in which every state knows its position.
+ * The priority of a state is computed once when it is inserted and stored next to the state in the heap entry, the heap itself only compares these stored priorities.
+ * States with the lowest priority are produced first, states with an equal priority are produced in insertion order.
+ *
+ * Changing the priority of a state through {@link #mutateOrderedProperty(Object, Consumer)} recomputes the priority once and moves the entry up or down the heap in O(log n).
+ * Unlike {@link TreeMapFrontier#withCollisions} no tie-breaker on the hashcode is required, so states with colliding hashes are never lost.
+ *
+ * A frontier created through {@link #withIndexedPriority(StateIndex, IntToDoubleFunction)} computes the priority from the id of a state instead,
+ * the id is looked up once when the state is inserted and kept in its entry, so recomputing the priority after a mutation reads per-id data directly.
+ *
+ * @param <StateType>
+ */
+public final class IndexedHeapFrontier<StateType> implements DynamicallyOrderedFrontier<StateType> {
+    private static final int DEFAULT_ARITY = 4;
+    private final ToDoubleFunction<StateType> priorityFunction;
+    private final StateIndex<StateType> index;
+    private final IntToDoubleFunction indexedPriorityFunction;
+    private final Comparator<StateType> comparator;
+    private final int arity;
+    private final Map<StateType, Entry<StateType>> entries = new HashMap<>();
+    private Entry<StateType>[] heap = newHeap(16);
+    private int size = 0;
+    private long insertionCounter = 0;
+    private int modificationCounter = 0;
+
+    private IndexedHeapFrontier(ToDoubleFunction<StateType> priorityFunction, int arity) {
+        Arguments.requireNonNull(priorityFunction, "priorityFunction");
+        Arguments.requireMinimum(2, arity, "arity");
+        this.priorityFunction = priorityFunction;
+        this.index = null;
+        this.indexedPriorityFunction = null;
+        this.comparator = Comparator.comparingDouble(priorityFunction);
+        this.arity = arity;
+    }
+
+    private IndexedHeapFrontier(StateIndex<StateType> index, IntToDoubleFunction priorityFunction, int arity) {
+        Arguments.requireNonNull(index, "index");
+        Arguments.requireNonNull(priorityFunction, "priorityFunction");
+        Arguments.requireMinimum(2, arity, "arity");
+        this.priorityFunction = null;
+        this.index = index;
+        this.indexedPriorityFunction = priorityFunction;
+        this.comparator = Comparator.comparingDouble(state -> priorityFunction.applyAsDouble(index.getOrAssign(state)));
+        this.arity = arity;
+    }
+
+    /**
+     * Creates a frontier ordered on the given priority function using a 4-ary heap.
+     * @param priorityFunction The function that computes the priority of a state, lower values are produced first
+     * @param <StateType>
+     * @return
+     * @throws IllegalArgumentException Thrown if the priority function is null
+     */
+    public static <StateType> IndexedHeapFrontier<StateType> withPriority(ToDoubleFunction<StateType> priorityFunction) {
+        return new IndexedHeapFrontier<>(priorityFunction, DEFAULT_ARITY);
+    }
+
+    /**
+     * Creates a frontier ordered on the given priority function using a heap with a specific number of children per node.
+     * @param priorityFunction The function that computes the priority of a state, lower values are produced first
+     * @param arity The number of children of each node in the heap, at least 2
+     * @param <StateType>
+     * @return
+     * @throws IllegalArgumentException Thrown if the priority function is null or the arity is lower than 2
+     */
+    public static <StateType> IndexedHeapFrontier<StateType> withPriority(ToDoubleFunction<StateType> priorityFunction, int arity) {
+        return new IndexedHeapFrontier<>(priorityFunction, arity);
+    }
+
+    /**
+     * Creates a frontier ordered on a priority function of the state ids assigned by the given index, using a 4-ary heap.
+     * Every inserted state is assigned an id, a state must not be released from the index while it is in the frontier.
+     * @param index The index that assigns the state ids
+     * @param priorityFunction The function that computes the priority of the state with an id, lower values are produced first
+     * @param <StateType>
+     * @return
+     * @throws IllegalArgumentException Thrown if the index or the priority function is null
+     */
+    public static <StateType> IndexedHeapFrontier<StateType> withIndexedPriority(StateIndex<StateType> index, IntToDoubleFunction priorityFunction) {
+        return new IndexedHeapFrontier<>(index, priorityFunction, DEFAULT_ARITY);
+    }
+
+    @Override
+    public Comparator<StateType> comparator() {
+        return comparator;
+    }
+
+    /**
+     * Gets the priority that is stored for a state in the frontier.
+     * @param state The state to get the stored priority for
+     * @return The priority computed for the state when it was inserted or last mutated, empty if the state is not in the frontier
+     */
+    public OptionalDouble getPriority(StateType state) {
+        final var entry = entries.get(state);
+        return entry == null ? OptionalDouble.empty() : OptionalDouble.of(entry.priority);
+    }
+
+    /**
+     * Gets the priority of the state that would be produced next.
+     * @return The lowest stored priority, empty if the frontier is empty
+     */
+    public OptionalDouble peekPriority() {
+        return size == 0 ? OptionalDouble.empty() : OptionalDouble.of(heap[0].priority);
+    }
+
+    @Override
+    public boolean add(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        if (entries.containsKey(state)) {
+            return false;
+        }
+        final var entry = new Entry<>(state, index == null ? -1 : index.getOrAssign(state), insertionCounter++);
+        entry.priority = priorityOf(entry);
+        entries.put(state, entry);
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        entry.index = size;
+        heap[size++] = entry;
+        siftUp(entry.index);
+        modificationCounter++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(StateType item) {
+        final var entry = entries.remove(item);
+        if (entry == null) {
+            return false;
+        }
+        removeAt(entry.index);
+        return true;
+    }
+
+    @Override
+    public void mutateOrderedProperty(StateType state, Consumer<StateType> mutator) {
+        final var entry = entries.get(state);
+        try {
+            mutator.accept(state);
+        } finally {
+            if (entry != null) {
+                final double priority = priorityOf(entry);
+                if (priority < entry.priority) {
+                    entry.priority = priority;
+                    siftUp(entry.index);
+                } else if (priority > entry.priority) {
+                    entry.priority = priority;
+                    siftDown(entry.index);
+                }
+                modificationCounter++;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+        Arrays.fill(heap, 0, size, null);
+        size = 0;
+        modificationCounter++;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return size != 0;
+    }
+
+    @Override
+    public StateType next() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        final var root = heap[0];
+        entries.remove(root.state);
+        removeAt(0);
+        return root.state;
+    }
+
+    @Override
+    public Optional<StateType> peekNext() {
+        return size == 0 ? Optional.empty() : Optional.of(heap[0].state);
+    }
+
+    @Override
+    public Optional<StateType> peekLast() {
+        return size == 0 ? Optional.empty() : Optional.of(heap[indexOfLast()].state);
+    }
+
+    @Override
+    public StateType removeLast() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        final var last = heap[indexOfLast()];
+        entries.remove(last.state);
+        removeAt(last.index);
+        return last.state;
+    }
+
+    @Override
+    public boolean contains(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        return entries.containsKey(state);
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Iterates over the states in the frontier in heap order, which is not the order in which they are produced.
+     * @return
+     */
+    @Override
+    public Iterator<StateType> iterator() {
+        return new Iterator<>() {
+            private final int expectedModificationCounter = modificationCounter;
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public StateType next() {
+                if (modificationCounter != expectedModificationCounter) {
+                    throw new ConcurrentModificationException();
+                }
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                return heap[index++].state;
+            }
+        };
+    }
+
+    private int indexOfLast() {
+        // The lowest ranked entry is always a leaf, the leaves start after the parent of the last entry
+        int worst = size - 1;
+        for (int i = size == 1 ? 0 : (size - 2) / arity + 1; i < size; i++) {
+            if (isBefore(heap[worst], heap[i])) {
+                worst = i;
+            }
+        }
+        return worst;
+    }
+
+    private void removeAt(int index) {
+        final var last = heap[--size];
+        heap[size] = null;
+        if (index != size) {
+            heap[index] = last;
+            last.index = index;
+            siftDown(index);
+            if (heap[index] == last) {
+                siftUp(index);
+            }
+        }
+        modificationCounter++;
+    }
+
+    private void siftUp(int index) {
+        final var entry = heap[index];
+        while (index > 0) {
+            final int parentIndex = (index - 1) / arity;
+            final var parent = heap[parentIndex];
+            if (!isBefore(entry, parent)) {
+                break;
+            }
+            heap[index] = parent;
+            parent.index = index;
+            index = parentIndex;
+        }
+        heap[index] = entry;
+        entry.index = index;
+    }
+
+    private void siftDown(int index) {
+        final var entry = heap[index];
+        while (true) {
+            final int firstChild = index * arity + 1;
+            if (firstChild >= size) {
+                break;
+            }
+            final int lastChild = Math.min(firstChild + arity, size);
+            int bestChild = firstChild;
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                if (isBefore(heap[child], heap[bestChild])) {
+                    bestChild = child;
+                }
+            }
+            final var child = heap[bestChild];
+            if (!isBefore(child, entry)) {
+                break;
+            }
+            heap[index] = child;
+            child.index = index;
+            index = bestChild;
+        }
+        heap[index] = entry;
+        entry.index = index;
+    }
+
+    private double priorityOf(Entry<StateType> entry) {
+        return index == null ? priorityFunction.applyAsDouble(entry.state) : indexedPriorityFunction.applyAsDouble(entry.id);
+    }
+
+    private static boolean isBefore(Entry<?> a, Entry<?> b) {
+        final int comparison = Double.compare(a.priority, b.priority);
+        return comparison < 0 || (comparison == 0 && a.insertion < b.insertion);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <StateType> Entry<StateType>[] newHeap(int capacity) {
+        return (Entry<StateType>[]) new Entry<?>[capacity];
+    }
+
+    private static final class Entry<StateType> {
+        final StateType state;
+        final int id;
+        final long insertion;
+        double priority;
+        int index;
+
+        Entry(StateType state, int id, long insertion) {
+            this.state = state;
+            this.id = id;
+            this.insertion = insertion;
+        }
+    }
+}
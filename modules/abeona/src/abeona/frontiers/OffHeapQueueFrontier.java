@@ -0,0 +1,263 @@
+package abeona.frontiers;
+
+import abeona.codecs.OffHeapStateTable;
+import abeona.codecs.StateCodec;
+import abeona.util.Arguments;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * A frontier that orders its items based on discovery order, like {@link HashQueueFrontier}, but stores the states outside of the Java heap in their encoded form.
+ * The queue is a chain of fixed-size segments of encoded states in direct {@link ByteBuffer}s, next to it an {@link OffHeapStateTable} indexes the encodings to keep presence tests O(1).
+ * Segments are allocated as the queue grows and freed once they are consumed, so the size of the queue is not limited by the size of a single buffer.
+ * The states are compared on their encodings, {@link Object#equals(Object)} and {@link Object#hashCode()} of the state type are not used.
+ * States are decoded when they leave the frontier, so the produced instances are equal to the inserted states but not identical to them.
+ *
+ * Every insertion is numbered, the number is stored next to the encoding in the queue and next to the state in the index.
+ * Removing a state only removes it from the index, its encoding stays in the queue and is skipped once it reaches the front.
+ * An encoding is only produced if its number matches the number in the index, so a state that is removed and added again is produced at the position of its last insertion.
+ *
+ * The frontier must be constructed through either: {@link #fifoFrontier(StateCodec)} or {@link #lifoFrontier(StateCodec)} to create a fifo or lifo ordered frontier (respectively)
+ * @param <StateType>
+ */
+public final class OffHeapQueueFrontier<StateType> implements ManagedFrontier<StateType> {
+    private static final int DEFAULT_CAPACITY = 1 << 10;
+    private static final int SEGMENT_BYTES = 1 << 16;
+    private static final long ABSENT = -1;
+    private final StateCodec<StateType> codec;
+    private final OffHeapStateTable<StateType> index;
+    private final boolean isStack;
+    private final int encodedSize;
+    private final int entrySize;
+    private final int segmentEntries;
+    // A fifo frontier consumes from the first segment, a lifo frontier from the last
+    private final ArrayDeque<ByteBuffer> segments = new ArrayDeque<>();
+    // A consumed segment is kept for reuse, so a queue that shrinks and grows around a segment boundary does not keep allocating
+    private ByteBuffer spare = null;
+    private int headOffset = 0;
+    private int tailOffset = 0;
+    private long count = 0;
+    private long nextSequence = 0;
+    private StateType peeked = null;
+    private int modificationCounter = 0;
+
+    private OffHeapQueueFrontier(StateCodec<StateType> codec, boolean isStack) {
+        Arguments.requireNonNull(codec, "codec");
+        this.codec = codec;
+        this.index = new OffHeapStateTable<>(codec, DEFAULT_CAPACITY, true);
+        this.isStack = isStack;
+        this.encodedSize = codec.getEncodedSize();
+        this.entrySize = Long.BYTES + encodedSize;
+        this.segmentEntries = Math.max(1, SEGMENT_BYTES / entrySize);
+    }
+
+    /**
+     * Creates a frontier that orders its items based on first-in-first-out ordering, creates BFS exploration order.
+     * @param codec The codec used to encode the states
+     * @param <StateType>
+     * @return
+     * @throws IllegalArgumentException Thrown if the codec is null
+     */
+    public static <StateType> OffHeapQueueFrontier<StateType> fifoFrontier(StateCodec<StateType> codec) {
+        return new OffHeapQueueFrontier<>(codec, false);
+    }
+
+    /**
+     * Creates a frontier that orders its items based on last-in-first-out ordering, creates DFS exploration order.
+     * @param codec The codec used to encode the states
+     * @param <StateType>
+     * @return
+     * @throws IllegalArgumentException Thrown if the codec is null
+     */
+    public static <StateType> OffHeapQueueFrontier<StateType> lifoFrontier(StateCodec<StateType> codec) {
+        return new OffHeapQueueFrontier<>(codec, true);
+    }
+
+    @Override
+    public boolean add(StateType state) {
+        final long sequence = nextSequence;
+        if (!index.add(state, sequence)) {
+            return false;
+        }
+        nextSequence++;
+        if (segments.isEmpty() || tailOffset == segmentEntries) {
+            segments.addLast(allocateSegment());
+            tailOffset = 0;
+        }
+        final var segment = segments.getLast();
+        final int offset = tailOffset * entrySize;
+        segment.putLong(offset, sequence);
+        codec.encode(state, segment.slice(offset + Long.BYTES, encodedSize));
+        tailOffset++;
+        count++;
+        if (isStack) {
+            peeked = null;
+        }
+        modificationCounter++;
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        index.clear();
+        while (!segments.isEmpty()) {
+            releaseSegment(segments.removeLast());
+        }
+        headOffset = 0;
+        tailOffset = 0;
+        count = 0;
+        peeked = null;
+        modificationCounter++;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return skipRemoved();
+    }
+
+    @Override
+    public StateType next() {
+        if (!skipRemoved()) {
+            throw new NoSuchElementException();
+        }
+        final var state = peeked;
+        index.remove(state);
+        popHead();
+        return state;
+    }
+
+    @Override
+    public Optional<StateType> peekNext() {
+        return skipRemoved() ? Optional.of(peeked) : Optional.empty();
+    }
+
+    @Override
+    public boolean remove(StateType item) {
+        if (!index.remove(item)) {
+            return false;
+        }
+        peeked = null;
+        modificationCounter++;
+        return true;
+    }
+
+    @Override
+    public boolean contains(StateType state) {
+        return index.contains(state);
+    }
+
+    @Override
+    public long size() {
+        return index.size();
+    }
+
+    /**
+     * Gets the number of bytes of off-heap memory reserved by the frontier.
+     * @return
+     */
+    public long getMemoryUsage() {
+        final long segmentBytes = (long) segmentEntries * entrySize;
+        return (segments.size() + (spare == null ? 0 : 1)) * segmentBytes + index.getMemoryUsage();
+    }
+
+    /**
+     * Iterates over the decoded states in the order in which they would be produced by the frontier.
+     * The states are decoded one at a time while walking the queue, nothing besides the upcoming state is kept on the Java heap.
+     * @return
+     */
+    @Override
+    public Iterator<StateType> iterator() {
+        return new Iterator<>() {
+            private final int expectedModificationCounter = modificationCounter;
+            private final Iterator<ByteBuffer> segmentIterator = isStack ? segments.descendingIterator() : segments.iterator();
+            private ByteBuffer segment = null;
+            private int position = 0;
+            private long remaining = count;
+            private StateType upcoming = null;
+
+            @Override
+            public boolean hasNext() {
+                if (modificationCounter != expectedModificationCounter) {
+                    throw new ConcurrentModificationException();
+                }
+                while (upcoming == null && remaining > 0) {
+                    if (segment == null) {
+                        segment = segmentIterator.next();
+                        position = isStack ? tailOffset - 1 : headOffset;
+                    } else if (position < 0 || position == segmentEntries) {
+                        segment = segmentIterator.next();
+                        position = isStack ? segmentEntries - 1 : 0;
+                    }
+                    final var candidate = liveStateAt(segment, position * entrySize);
+                    position += isStack ? -1 : 1;
+                    remaining--;
+                    upcoming = candidate;
+                }
+                return upcoming != null;
+            }
+
+            @Override
+            public StateType next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final var state = upcoming;
+                upcoming = null;
+                return state;
+            }
+        };
+    }
+
+    private boolean skipRemoved() {
+        while (peeked == null && count != 0) {
+            final var segment = isStack ? segments.getLast() : segments.getFirst();
+            final int position = isStack ? tailOffset - 1 : headOffset;
+            peeked = liveStateAt(segment, position * entrySize);
+            if (peeked == null) {
+                popHead();
+            }
+        }
+        return peeked != null;
+    }
+
+    private StateType liveStateAt(ByteBuffer segment, int offset) {
+        // Encodings of removed states are still in the queue, as are earlier encodings of states that were added again
+        final var state = codec.decode(segment.slice(offset + Long.BYTES, encodedSize));
+        return index.getValue(state, ABSENT) == segment.getLong(offset) ? state : null;
+    }
+
+    private void popHead() {
+        count--;
+        if (isStack) {
+            if (--tailOffset == 0) {
+                releaseSegment(segments.removeLast());
+                tailOffset = segments.isEmpty() ? 0 : segmentEntries;
+            }
+        } else if (count == 0) {
+            releaseSegment(segments.removeFirst());
+            headOffset = 0;
+            tailOffset = 0;
+        } else if (++headOffset == segmentEntries) {
+            releaseSegment(segments.removeFirst());
+            headOffset = 0;
+        }
+        peeked = null;
+        modificationCounter++;
+    }
+
+    private ByteBuffer allocateSegment() {
+        if (spare != null) {
+            final var segment = spare;
+            spare = null;
+            return segment;
+        }
+        return ByteBuffer.allocateDirect(segmentEntries * entrySize);
+    }
+
+    private void releaseSegment(ByteBuffer segment) {
+        if (spare == null) {
+            spare = segment;
+        }
+    }
+}
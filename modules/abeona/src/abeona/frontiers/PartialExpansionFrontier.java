@@ -0,0 +1,136 @@
+package abeona.frontiers;
+
+import abeona.util.Arguments;
+import abeona.util.PeekableIterator;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * A lazy frontier that keeps the generators of states suspended and only pulls a state from a generator when it is actually needed, known as partial expansion.
+ * Every evaluated state adds a single generator, so the frontier holds one suspended iterator per partially expanded state instead of all of its successors.
+ * Successors that are never picked are never generated, which saves next-function work and frontier memory when the exploration terminates early.
+ *
+ * The frontier must be constructed through either {@link #lifoFrontier()} or {@link #orderedFrontier(Comparator)}.
+ * The lifo frontier always pulls from the most recently added generator that is not yet exhausted, which gives a lazy depth-first search.
+ * Unlike {@link HashQueueFrontier#lifoFrontier()} the successors of a state are then picked in the order in which they are generated.
+ * The ordered frontier peeks the first state of every generator and picks the lowest of those heads, after which the generator is advanced to its next state.
+ * This is an exact best-first order if every generator produces its states in order of the comparator,
+ * otherwise it is a best-first order over the heads of the generators only.
+ *
+ * The query tests whether a discovered state is known while the generator is being pulled, so a state that has been picked before is never produced again.
+ * In the ordered frontier the heads of the generators are kept unique, a generator whose head is already the head of another generator skips that state.
+ * Because the frontier does not hold all of its states it is not a {@link ManagedFrontier}, and the transitions of a state are evaluated after {@link abeona.Query#afterStateEvaluation} fired.
+ * @param <StateType>
+ */
+public final class PartialExpansionFrontier<StateType> implements Frontier<StateType> {
+    private final Comparator<StateType> comparator;
+    private final Queue<PeekableIterator<StateType>> generators;
+    private final Set<StateType> heads = new HashSet<>();
+    // The generator of the last picked state, it is advanced once the picked state has been added to the heap
+    private PeekableIterator<StateType> suspended = null;
+
+    private PartialExpansionFrontier(Comparator<StateType> comparator) {
+        this.comparator = comparator;
+        if (comparator == null) {
+            this.generators = Collections.asLifoQueue(new ArrayDeque<>());
+        } else {
+            this.generators = new PriorityQueue<>((a, b) -> comparator.compare(a.peek(), b.peek()));
+        }
+    }
+
+    /**
+     * Creates a frontier that pulls from the most recently added generator first, performing a lazy depth-first search.
+     * @param <StateType>
+     * @return
+     */
+    public static <StateType> PartialExpansionFrontier<StateType> lifoFrontier() {
+        return new PartialExpansionFrontier<>(null);
+    }
+
+    /**
+     * Creates a frontier that picks the lowest state among the heads of its generators.
+     * @param comparator The comparator that orders the states
+     * @param <StateType>
+     * @return
+     * @throws IllegalArgumentException Thrown if the comparator is null
+     */
+    public static <StateType> PartialExpansionFrontier<StateType> orderedFrontier(Comparator<StateType> comparator) {
+        Arguments.requireNonNull(comparator, "comparator");
+        return new PartialExpansionFrontier<>(comparator);
+    }
+
+    /**
+     * Gets the comparator the heads of the generators are ordered by.
+     * @return An optional holding the comparator, empty for a lifo frontier
+     */
+    public Optional<Comparator<StateType>> comparator() {
+        return Optional.ofNullable(comparator);
+    }
+
+    /**
+     * Counts the generators that are suspended in the frontier, exhausted generators may still be counted by a lifo frontier.
+     * @return
+     */
+    public int getGeneratorCount() {
+        return generators.size() + (suspended == null ? 0 : 1);
+    }
+
+    @Override
+    public boolean add(Stream<? extends StateType> generator) {
+        Arguments.requireNonNull(generator, "generator");
+        final var iterator = new PeekableIterator<StateType>(generator.<StateType>map(state -> state).iterator());
+        if (comparator == null) {
+            generators.add(iterator);
+            return true;
+        }
+        return offer(iterator);
+    }
+
+    @Override
+    public void clear() {
+        generators.clear();
+        heads.clear();
+        suspended = null;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (comparator == null) {
+            while (!generators.isEmpty() && !generators.peek().hasNext()) {
+                generators.remove();
+            }
+        } else if (suspended != null) {
+            offer(suspended);
+            suspended = null;
+        }
+        return !generators.isEmpty();
+    }
+
+    @Override
+    public StateType next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        if (comparator == null) {
+            return generators.peek().next();
+        }
+        suspended = generators.remove();
+        final var state = suspended.next();
+        heads.remove(state);
+        return state;
+    }
+
+    private boolean offer(PeekableIterator<StateType> generator) {
+        // Advance the generator to a state that is not the head of another generator
+        while (generator.hasNext()) {
+            final var head = generator.peek();
+            if (heads.add(head)) {
+                generators.add(generator);
+                return true;
+            }
+            generator.next();
+        }
+        return false;
+    }
+}
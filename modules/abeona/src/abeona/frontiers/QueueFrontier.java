@@ -7,6 +7,7 @@ import java.util.stream.Stream;
 
 /**
  * A frontier implementation that orders its items based on discovery order.
+ * Testing presence of a state requires a scan of the whole queue, use {@link HashQueueFrontier} for large frontiers.
  * The frontier must be constructed through either: {@link #fifoFrontier()} or {@link #lifoFrontier()} to create a fifo or lifo ordered frontier (respectively)
  * @param <StateType>
  */
@@ -48,6 +49,11 @@ public final class QueueFrontier<StateType> implements ManagedFrontier<StateType
         return queue.remove(item);
     }
 
+    @Override
+    public long size() {
+        return queue.size();
+    }
+
     @Override
     public Iterator<StateType> iterator() {
         return queue.iterator();
@@ -0,0 +1,347 @@
+package abeona.frontiers;
+
+import abeona.behaviours.TraceCostBehaviour;
+import abeona.behaviours.TraceCostStore;
+import abeona.util.Arguments;
+
+import java.util.*;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A best-first frontier whose entries are search nodes that cache the cost to reach a state (g), the heuristic estimate of the remaining cost (h) and their sum (f).
+ * The heuristic is evaluated exactly once per generated state, the heap only compares the cached doubles: lowest f first, then lowest h, then insertion order.
+ *
+ * The g values are written through the {@link TraceCostStore} returned by {@link #getCostStore()}, which is meant to back a {@link TraceCostBehaviour}.
+ * When that behaviour finds a cheaper path to a state in the frontier, the node is moved up the heap in O(log n) without recomputing the heuristic.
+ * States that are added without a known cost, such as the initial states, get a g value of 0.
+ * Use {@link abeona.util.ExplorationPresets#setupAStarNodes} to set up a query with this frontier.
+ *
+ * Nodes are kept after their state leaves the frontier, so the costs of explored states remain available and the heuristic is never evaluated twice for a state.
+ * This frontier relies on {@link Object#hashCode()} and {@link Object#equals(Object)} of the states.
+ *
+ * @param <StateType>
+ */
+public final class SearchNodeFrontier<StateType> implements OrderedFrontier<StateType> {
+    private static final int ARITY = 4;
+    private final ToDoubleFunction<StateType> heuristic;
+    private final Map<StateType, Node<StateType>> nodes = new HashMap<>();
+    private final TraceCostStore<StateType> costStore = new NodeCostStore();
+    private final Comparator<StateType> comparator;
+    private Node<StateType>[] heap = newHeap(16);
+    private int size = 0;
+    private long insertionCounter = 0;
+    private int modificationCounter = 0;
+
+    private SearchNodeFrontier(ToDoubleFunction<StateType> heuristic) {
+        Arguments.requireNonNull(heuristic, "heuristic");
+        this.heuristic = heuristic;
+        this.comparator = Comparator.comparingDouble(state -> {
+            final var node = nodes.get(state);
+            return node == null ? Double.POSITIVE_INFINITY : node.f;
+        });
+    }
+
+    /**
+     * Creates a frontier that orders its nodes on the cost to reach a state plus the given heuristic.
+     * @param heuristic The function estimating the remaining cost from a state to a goal state
+     * @param <StateType>
+     * @return
+     * @throws IllegalArgumentException Thrown if the heuristic is null
+     */
+    public static <StateType> SearchNodeFrontier<StateType> withHeuristic(ToDoubleFunction<StateType> heuristic) {
+        return new SearchNodeFrontier<>(heuristic);
+    }
+
+    /**
+     * Gets the store through which the g values of the nodes are read and written, intended to back a {@link TraceCostBehaviour}.
+     * Writing a cost for an unknown state creates its node, writing a lower cost for a state in the frontier moves it up the heap.
+     * States added to the frontier without a cost, such as the initial states, are ordered with a cost of 0 but the store returns the fallback for them, so they have no trace cost.
+     * @return
+     */
+    public TraceCostStore<StateType> getCostStore() {
+        return costStore;
+    }
+
+    /**
+     * Gets the cached heuristic value of a state
+     * @param state The state to get the heuristic value of
+     * @return The heuristic value, empty if no node exists for the state
+     */
+    public OptionalDouble getHeuristic(StateType state) {
+        final var node = nodes.get(state);
+        return node == null ? OptionalDouble.empty() : OptionalDouble.of(node.h);
+    }
+
+    /**
+     * Gets the f value (cost plus heuristic) of the state that would be produced next.
+     * @return The lowest f value in the frontier, empty if the frontier is empty
+     */
+    public OptionalDouble peekPriority() {
+        return size == 0 ? OptionalDouble.empty() : OptionalDouble.of(heap[0].f);
+    }
+
+    @Override
+    public Comparator<StateType> comparator() {
+        return comparator;
+    }
+
+    @Override
+    public boolean add(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        var node = nodes.get(state);
+        if (node == null) {
+            // Initial states are added without a cost, their node keeps g at 0 but they have no trace cost
+            node = createNode(state, 0);
+            node.traced = false;
+        } else if (node.index != -1) {
+            return false;
+        }
+        node.insertion = insertionCounter++;
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        node.index = size;
+        heap[size++] = node;
+        siftUp(node.index);
+        modificationCounter++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(StateType item) {
+        final var node = nodes.get(item);
+        if (node == null || node.index == -1) {
+            return false;
+        }
+        removeAt(node.index);
+        return true;
+    }
+
+    /**
+     * Removes all nodes, including the cached costs and heuristic values of explored states.
+     */
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            heap[i] = null;
+        }
+        nodes.clear();
+        size = 0;
+        modificationCounter++;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return size != 0;
+    }
+
+    @Override
+    public StateType next() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        final var root = heap[0];
+        removeAt(0);
+        return root.state;
+    }
+
+    @Override
+    public Optional<StateType> peekNext() {
+        return size == 0 ? Optional.empty() : Optional.of(heap[0].state);
+    }
+
+    @Override
+    public Optional<StateType> peekLast() {
+        return size == 0 ? Optional.empty() : Optional.of(heap[indexOfLast()].state);
+    }
+
+    @Override
+    public StateType removeLast() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        final var last = heap[indexOfLast()];
+        removeAt(last.index);
+        return last.state;
+    }
+
+    @Override
+    public boolean contains(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        final var node = nodes.get(state);
+        return node != null && node.index != -1;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Iterates over the states in the frontier in heap order, which is not the order in which they are produced.
+     * @return
+     */
+    @Override
+    public Iterator<StateType> iterator() {
+        return new Iterator<>() {
+            private final int expectedModificationCounter = modificationCounter;
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public StateType next() {
+                if (modificationCounter != expectedModificationCounter) {
+                    throw new ConcurrentModificationException();
+                }
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                return heap[index++].state;
+            }
+        };
+    }
+
+    private Node<StateType> createNode(StateType state, double g) {
+        final var node = new Node<>(state, g, heuristic.applyAsDouble(state));
+        nodes.put(state, node);
+        return node;
+    }
+
+    private void updateCost(Node<StateType> node, double g) {
+        final double previous = node.g;
+        node.traced = true;
+        node.g = g;
+        node.f = g + node.h;
+        if (node.index != -1) {
+            if (g < previous) {
+                siftUp(node.index);
+            } else if (g > previous) {
+                siftDown(node.index);
+            }
+            modificationCounter++;
+        }
+    }
+
+    private int indexOfLast() {
+        // The lowest ranked node is always a leaf, the leaves start after the parent of the last node
+        int worst = size - 1;
+        for (int i = size == 1 ? 0 : (size - 2) / ARITY + 1; i < size; i++) {
+            if (isBefore(heap[worst], heap[i])) {
+                worst = i;
+            }
+        }
+        return worst;
+    }
+
+    private void removeAt(int index) {
+        heap[index].index = -1;
+        final var last = heap[--size];
+        heap[size] = null;
+        if (index != size) {
+            heap[index] = last;
+            last.index = index;
+            siftDown(index);
+            if (heap[index] == last) {
+                siftUp(index);
+            }
+        }
+        modificationCounter++;
+    }
+
+    private void siftUp(int index) {
+        final var node = heap[index];
+        while (index > 0) {
+            final int parentIndex = (index - 1) / ARITY;
+            final var parent = heap[parentIndex];
+            if (!isBefore(node, parent)) {
+                break;
+            }
+            heap[index] = parent;
+            parent.index = index;
+            index = parentIndex;
+        }
+        heap[index] = node;
+        node.index = index;
+    }
+
+    private void siftDown(int index) {
+        final var node = heap[index];
+        while (true) {
+            final int firstChild = index * ARITY + 1;
+            if (firstChild >= size) {
+                break;
+            }
+            final int lastChild = Math.min(firstChild + ARITY, size);
+            int bestChild = firstChild;
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                if (isBefore(heap[child], heap[bestChild])) {
+                    bestChild = child;
+                }
+            }
+            final var child = heap[bestChild];
+            if (!isBefore(child, node)) {
+                break;
+            }
+            heap[index] = child;
+            child.index = index;
+            index = bestChild;
+        }
+        heap[index] = node;
+        node.index = index;
+    }
+
+    private static boolean isBefore(Node<?> a, Node<?> b) {
+        if (a.f != b.f) {
+            return a.f < b.f;
+        }
+        if (a.h != b.h) {
+            return a.h < b.h;
+        }
+        return a.insertion < b.insertion;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <StateType> Node<StateType>[] newHeap(int capacity) {
+        return (Node<StateType>[]) new Node<?>[capacity];
+    }
+
+    private final class NodeCostStore implements TraceCostStore<StateType> {
+        @Override
+        public double get(StateType state, double fallback) {
+            final var node = nodes.get(state);
+            return node == null || !node.traced ? fallback : node.g;
+        }
+
+        @Override
+        public void set(StateType state, double cost) {
+            Arguments.requireNonNull(state, "state");
+            final var node = nodes.get(state);
+            if (node == null) {
+                createNode(state, cost);
+            } else {
+                updateCost(node, cost);
+            }
+        }
+    }
+
+    private static final class Node<StateType> {
+        final StateType state;
+        final double h;
+        double g;
+        double f;
+        long insertion;
+        int index = -1;
+        boolean traced = true;
+
+        Node(StateType state, double g, double h) {
+            this.state = state;
+            this.g = g;
+            this.h = h;
+            this.f = g + h;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package abeona.heaps;
+
+import abeona.util.Arguments;
+import abeona.util.Hashing;
+
+import java.util.Arrays;
+import java.util.function.ToLongFunction;
+
+/**
+ * A heap that applies bitstate hashing (supertrace): every state is represented by k bits in a fixed-size bit array, like a Bloom filter.
+ * The memory use of the heap is fixed at construction time and independent of the number of states explored, which allows partial searches of state spaces that do not fit in memory.
+ *
+ * The heap is approximate, a state whose k bits happen to be set by other states is considered known and is never explored.
+ * Such omissions make the exploration partial, the statistics {@link #getFalsePositiveProbability()} and {@link #getEstimatedCoverage()} describe how partial the exploration was.
+ * Omissions happen in {@link #contains(Object)}, which the query uses to test whether a discovered state is known, but the heap cannot tell a wrongly known state from a revisited one.
+ * Instead every lookup that answers a state is unknown counts as a new state offered at the fill ratio of that moment,
+ * at which a new state is wrongly answered known with probability p, so p / (1 - p) new states are expected to have been omitted for every state that was not.
+ * This estimate assumes the heap is only queried for states that are not in the frontier of the query, which holds for the default {@link abeona.Query#isKnown} with a {@link abeona.frontiers.ManagedFrontier}.
+ * Since the states themselves are not stored this heap cannot be iterated and does not implement {@link ManagedHeap}.
+ *
+ * The k bit positions are derived from a single 64-bit hash of the state through double hashing.
+ *
+ * @param <StateType>
+ */
+public final class BitstateHeap<StateType> implements Heap<StateType> {
+    private static final int DEFAULT_HASH_FUNCTIONS = 3;
+    private final ToLongFunction<StateType> hasher;
+    private final int hashFunctions;
+    private final long[] bits;
+    private final long bitCount;
+    private long setBits = 0;
+    private long storedStates = 0;
+    private double expectedOmissions = 0;
+
+    /**
+     * Creates a bitstate heap using a given amount of memory.
+     * @param hasher The function producing a 64-bit hash of a state, all bits should be well distributed
+     * @param memoryBudget The number of bytes to use for the bit array, rounded down to a multiple of 8
+     * @param hashFunctions The number of bits (k) set for every state
+     * @throws IllegalArgumentException Thrown if the hasher is null, the memory budget is lower than 8 bytes or the number of hash functions is lower than 1
+     */
+    public BitstateHeap(ToLongFunction<StateType> hasher, long memoryBudget, int hashFunctions) {
+        Arguments.requireNonNull(hasher, "hasher");
+        Arguments.requireRange(Long.BYTES, (long) Integer.MAX_VALUE * Long.BYTES, memoryBudget, "memoryBudget");
+        Arguments.requireMinimum(1, hashFunctions, "hashFunctions");
+        this.hasher = hasher;
+        this.hashFunctions = hashFunctions;
+        this.bits = new long[(int) (memoryBudget / Long.BYTES)];
+        this.bitCount = (long) bits.length * Long.SIZE;
+    }
+
+    /**
+     * Creates a bitstate heap using a given amount of memory that sets 3 bits for every state.
+     * @param hasher The function producing a 64-bit hash of a state, all bits should be well distributed
+     * @param memoryBudget The number of bytes to use for the bit array, rounded down to a multiple of 8
+     * @throws IllegalArgumentException Thrown if the hasher is null or the memory budget is lower than 8 bytes
+     */
+    public BitstateHeap(ToLongFunction<StateType> hasher, long memoryBudget) {
+        this(hasher, memoryBudget, DEFAULT_HASH_FUNCTIONS);
+    }
+
+    @Override
+    public boolean add(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        final long hash = Hashing.mix64(hasher.applyAsLong(state));
+        final long step = Hashing.rehash64(hash) | 1;
+        if (isSet(hash, step)) {
+            return false;
+        }
+        long position = hash;
+        for (int i = 0; i < hashFunctions; i++, position += step) {
+            final long bit = Long.remainderUnsigned(position, bitCount);
+            final int word = (int) (bit >>> 6);
+            final long mask = 1L << bit;
+            if ((bits[word] & mask) == 0) {
+                bits[word] |= mask;
+                setBits++;
+            }
+        }
+        storedStates++;
+        return true;
+    }
+
+    @Override
+    public boolean contains(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        final long hash = Hashing.mix64(hasher.applyAsLong(state));
+        if (isSet(hash, Hashing.rehash64(hash) | 1)) {
+            return true;
+        }
+        // This state is new, at the current fill ratio an expected number of other new states were wrongly answered known for every such state
+        final double falsePositiveProbability = getFalsePositiveProbability();
+        expectedOmissions += falsePositiveProbability / (1 - falsePositiveProbability);
+        return false;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(bits, 0);
+        setBits = 0;
+        storedStates = 0;
+        expectedOmissions = 0;
+    }
+
+    /**
+     * Gets the number of states that have been added to the heap, which equals the number of successful calls to {@link #add(Object)}.
+     * @return
+     */
+    public long getStoredStateCount() {
+        return storedStates;
+    }
+
+    /**
+     * Gets the fraction of bits in the bit array that are set.
+     * @return A value between 0 and 1
+     */
+    public double getFillRatio() {
+        return (double) setBits / bitCount;
+    }
+
+    /**
+     * Gets the probability that a state that was never added is currently reported as known, which is the fill ratio to the power k.
+     * @return A value between 0 and 1
+     */
+    public double getFalsePositiveProbability() {
+        return Math.pow(getFillRatio(), hashFunctions);
+    }
+
+    /**
+     * Estimates the number of distinct states that were offered to the heap, including those that were omitted due to false positives.
+     * The omissions are estimated from the lookups through {@link #contains(Object)} that answered a state is unknown and the fill ratio at the time of each lookup.
+     * @return The number of stored states plus the expected number of omitted states
+     */
+    public double getEstimatedStateCount() {
+        return storedStates + expectedOmissions;
+    }
+
+    /**
+     * Estimates the fraction of the distinct states offered to the heap that were actually stored rather than omitted as false positives.
+     * For an exploration this approximates the fraction of the reachable state space that was covered.
+     * @return A value between 0 and 1, 1 if no states were offered yet
+     */
+    public double getEstimatedCoverage() {
+        final double estimatedStates = getEstimatedStateCount();
+        return estimatedStates == 0 ? 1 : storedStates / estimatedStates;
+    }
+
+    /**
+     * Gets the number of bytes used by the bit array
+     * @return
+     */
+    public long getMemoryUsage() {
+        return (long) bits.length * Long.BYTES;
+    }
+
+    private boolean isSet(long hash, long step) {
+        long position = hash;
+        for (int i = 0; i < hashFunctions; i++, position += step) {
+            final long bit = Long.remainderUnsigned(position, bitCount);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,70 @@
+package abeona.heaps;
+
+import abeona.util.Arguments;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implements a thread-safe heap backed by the key set of a {@link ConcurrentHashMap}.
+ * Unlike {@link HashSetHeap} this heap may be shared by multiple threads without external locking.
+ * A query using this heap is explored by {@link abeona.Query#exploreParallel(int)} without serializing the known-state checks, see its threading contract.
+ *
+ * {@link #add(Object)} is a single atomic insert-if-absent, when several threads add the same state at once exactly one of them gets true.
+ * Threads adding different states only contend when the states land in the same bin of the map, so throughput scales with the number of threads instead of serializing on one lock as {@link java.util.Collections#synchronizedSet(Set)} does.
+ * The iterator is weakly consistent: it never throws a {@link java.util.ConcurrentModificationException} and supports remove().
+ * The {@link StateType} is expected to override {@link Object#hashCode()} and {@link Object#equals(Object)} properly.
+ *
+ * @param <StateType>
+ */
+public class ConcurrentHashSetHeap<StateType> implements ManagedHeap<StateType> {
+    private final Set<StateType> states;
+
+    public ConcurrentHashSetHeap() {
+        this.states = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Creates a heap that is sized for an expected number of states, avoiding resizes of the backing map during exploration.
+     * @param expectedSize The expected number of states, at least 0
+     * @throws IllegalArgumentException Thrown if the expected size is negative
+     */
+    public ConcurrentHashSetHeap(int expectedSize) {
+        Arguments.requireMinimum(0, expectedSize, "expectedSize");
+        this.states = ConcurrentHashMap.newKeySet(expectedSize);
+    }
+
+    @Override
+    public boolean add(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        return states.add(state);
+    }
+
+    @Override
+    public boolean remove(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        return states.remove(state);
+    }
+
+    @Override
+    public void clear() {
+        states.clear();
+    }
+
+    @Override
+    public Iterator<StateType> iterator() {
+        return states.iterator();
+    }
+
+    @Override
+    public boolean contains(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        return states.contains(state);
+    }
+
+    @Override
+    public long size() {
+        return states.size();
+    }
+}
@@ -0,0 +1,242 @@
+package abeona.heaps;
+
+import abeona.util.Arguments;
+import abeona.util.Hashing;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * A heap that applies hash compaction: instead of the states it only stores a 64-bit fingerprint of every state.
+ * The fingerprints are kept in an open-addressing table of primitive longs, costing 8 to 16 bytes per state regardless of the size of the state representation.
+ *
+ * The heap is not exact, two distinct states that produce the same fingerprint are considered equal.
+ * When that happens the second state is considered known and will never be explored, along with any state that is only reachable through it.
+ * The chance that this happens to at least one state is reported by {@link #getCollisionProbability()} and depends on the number of stored states and the number of bits of the fingerprint.
+ * Use {@link #capacityForCollisionProbability(double, int)} to find how many states can be stored while staying below an acceptable probability.
+ *
+ * Since the states themselves are not stored this heap cannot be iterated and does not implement {@link ManagedHeap}.
+ *
+ * @param <StateType>
+ */
+public final class FingerprintHeap<StateType> implements Heap<StateType> {
+    private static final int DEFAULT_CAPACITY = 1 << 10;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    private static final long EMPTY = 0;
+    private static final long ZERO_FINGERPRINT = 0x9E3779B97F4A7C15L;
+    private final ToLongFunction<StateType> fingerprinter;
+    private final int fingerprintBits;
+    private long[] table;
+    private int size = 0;
+    private int resizeThreshold;
+
+    /**
+     * Creates a heap that stores 64-bit fingerprints produced by the given function.
+     * @param fingerprinter The function that produces the fingerprint for a state, all 64 bits should be well distributed
+     * @throws IllegalArgumentException Thrown if the fingerprint function is null
+     */
+    public FingerprintHeap(ToLongFunction<StateType> fingerprinter) {
+        this(fingerprinter, Long.SIZE, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a heap that stores fingerprints produced by the given function.
+     * @param fingerprinter The function that produces the fingerprint for a state
+     * @param fingerprintBits The number of bits of entropy the fingerprint function produces, used to report the collision probability
+     * @param initialCapacity The number of states the heap is initially sized for
+     * @throws IllegalArgumentException Thrown if the fingerprint function is null, the fingerprint bits fall outside 1 to 64 or the capacity is lower than 1
+     */
+    public FingerprintHeap(ToLongFunction<StateType> fingerprinter, int fingerprintBits, int initialCapacity) {
+        Arguments.requireNonNull(fingerprinter, "fingerprinter");
+        Arguments.requireRange(1, Long.SIZE + 1, fingerprintBits, "fingerprintBits");
+        Arguments.requireMinimum(1, initialCapacity, "initialCapacity");
+        this.fingerprinter = fingerprinter;
+        this.fingerprintBits = fingerprintBits;
+        allocate(tableSizeFor(initialCapacity));
+    }
+
+    /**
+     * Creates a heap that derives the fingerprints from {@link Object#hashCode()}.
+     * The fingerprints then only have 32 bits of entropy: the odds of a collision are about 1% at ten thousand states and 50% at about 77 thousand states, see {@link #collisionProbability(long, int)}.
+     * Prefer {@link #FingerprintHeap(ToLongFunction)} with a proper 64-bit hash of the state representation.
+     * @param <StateType>
+     * @return
+     */
+    public static <StateType> FingerprintHeap<StateType> fromHashCode() {
+        return new FingerprintHeap<>(Hashing::hash64, Integer.SIZE, DEFAULT_CAPACITY);
+    }
+
+    @Override
+    public boolean add(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        final long fingerprint = fingerprintOf(state);
+        final int mask = table.length - 1;
+        int index = indexOf(fingerprint, mask);
+        while (table[index] != EMPTY) {
+            if (table[index] == fingerprint) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        table[index] = fingerprint;
+        if (++size > resizeThreshold) {
+            grow();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean contains(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        final long fingerprint = fingerprintOf(state);
+        final int mask = table.length - 1;
+        int index = indexOf(fingerprint, mask);
+        while (table[index] != EMPTY) {
+            if (table[index] == fingerprint) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the fingerprint of a state from the heap.
+     * Any other state that shares the fingerprint is considered unknown afterwards as well.
+     * @param state The state to remove
+     * @return True if the fingerprint of the state was in the heap, false otherwise
+     * @throws IllegalArgumentException Thrown if the state is null
+     */
+    public boolean remove(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        final long fingerprint = fingerprintOf(state);
+        final int mask = table.length - 1;
+        int index = indexOf(fingerprint, mask);
+        while (table[index] != EMPTY) {
+            if (table[index] == fingerprint) {
+                removeAt(index, mask);
+                size--;
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    @Override
+    public void clear() {
+        allocate(tableSizeFor(DEFAULT_CAPACITY));
+        size = 0;
+    }
+
+    /**
+     * Counts the number of fingerprints in the heap
+     * @return The number of distinct fingerprints stored
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of bytes used by the fingerprint table
+     * @return
+     */
+    public long getMemoryUsage() {
+        return (long) table.length * Long.BYTES;
+    }
+
+    /**
+     * Estimates the probability that at least one state was wrongly considered known because its fingerprint collided with that of another stored state.
+     * @return The collision probability for the current number of stored states
+     */
+    public double getCollisionProbability() {
+        return collisionProbability(size, fingerprintBits);
+    }
+
+    /**
+     * Estimates the probability that among a number of distinct states at least two share a fingerprint (the birthday bound).
+     * @param states The number of distinct states stored
+     * @param fingerprintBits The number of bits of entropy in the fingerprints
+     * @return The probability of at least one collision
+     */
+    public static double collisionProbability(long states, int fingerprintBits) {
+        Arguments.requireMinimum(0, states, "states");
+        Arguments.requireRange(1, Long.SIZE + 1, fingerprintBits, "fingerprintBits");
+        if (states < 2) {
+            return 0;
+        }
+        final double pairs = (double) states * (states - 1) / 2;
+        return -Math.expm1(-pairs / Math.pow(2, fingerprintBits));
+    }
+
+    /**
+     * Computes how many distinct states can be stored before the collision probability exceeds a given bound.
+     * @param probability The acceptable probability of at least one collision, between 0 and 1 (exclusive)
+     * @param fingerprintBits The number of bits of entropy in the fingerprints
+     * @return The maximum number of states
+     */
+    public static long capacityForCollisionProbability(double probability, int fingerprintBits) {
+        if (!(probability > 0 && probability < 1)) {
+            throw new IllegalArgumentException("Argument probability must be in the range of 0 up to 1 (exclusive)");
+        }
+        Arguments.requireRange(1, Long.SIZE + 1, fingerprintBits, "fingerprintBits");
+        final double pairs = -Math.log1p(-probability) * Math.pow(2, fingerprintBits);
+        return (long) Math.floor((1 + Math.sqrt(1 + 8 * pairs)) / 2);
+    }
+
+    private long fingerprintOf(StateType state) {
+        final long fingerprint = fingerprinter.applyAsLong(state);
+        return fingerprint == EMPTY ? ZERO_FINGERPRINT : fingerprint;
+    }
+
+    private static int indexOf(long fingerprint, int mask) {
+        // The fingerprint is mixed again so a fingerprint function with poorly distributed low bits still spreads over the table
+        return (int) Hashing.mix64(fingerprint) & mask;
+    }
+
+    private void removeAt(int hole, int mask) {
+        // Shift the following fingerprints of the probe sequence back into the hole, so no lookup stops early at an empty slot
+        int index = hole;
+        while (true) {
+            index = (index + 1) & mask;
+            final long fingerprint = table[index];
+            if (fingerprint == EMPTY) {
+                break;
+            }
+            final int home = indexOf(fingerprint, mask);
+            if (((index - home) & mask) >= ((index - hole) & mask)) {
+                table[hole] = fingerprint;
+                hole = index;
+            }
+        }
+        table[hole] = EMPTY;
+    }
+
+    private void allocate(int tableSize) {
+        table = new long[tableSize];
+        // Tiny tables would otherwise get a threshold of 0
+        resizeThreshold = tableSize == MAXIMUM_CAPACITY ? tableSize - tableSize / 16 : Math.max(1, tableSize / 4 * 3);
+    }
+
+    private void grow() {
+        if (table.length == MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("The fingerprint table has reached its maximum capacity");
+        }
+        final var old = table;
+        allocate(old.length * 2);
+        final int mask = table.length - 1;
+        for (long fingerprint : old) {
+            if (fingerprint != EMPTY) {
+                int index = indexOf(fingerprint, mask);
+                while (table[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                table[index] = fingerprint;
+            }
+        }
+    }
+
+    private static int tableSizeFor(int capacity) {
+        final long required = (long) capacity * 4 / 3 + 1;
+        return (int) Math.min(MAXIMUM_CAPACITY, Long.highestOneBit(required - 1) << 1);
+    }
+}
@@ -0,0 +1,150 @@
+package abeona.heaps;
+
+import abeona.util.Arguments;
+
+import java.util.*;
+
+/**
+ * A heap that groups its states into layers and only retains a fixed number of the most recent layers, as used by frontier search and breadth-first heuristic search.
+ * States are added to the newest layer, {@link #startLayer()} opens a new layer and drops the oldest layer once more layers exist than are retained.
+ *
+ * In a breadth-first exploration of an undirected state space every neighbour of a state lies in the previous, current or next layer.
+ * Retaining the previous and current layer (two layers) therefore suffices to never expand a state twice, the next layer being the frontier.
+ * If transitions can go back at most r layers, r + 1 layers should be retained.
+ * The memory used is then proportional to the width of the state space instead of its size.
+ * Use {@link abeona.behaviours.LayeredBfsBehaviour} to open the layers during exploration and to rebuild traces.
+ *
+ * The {@link StateType} is expected to override {@link Object#hashCode()} and {@link Object#equals(Object)} properly.
+ *
+ * @param <StateType>
+ */
+public class LayeredHeap<StateType> implements ManagedHeap<StateType> {
+    private final int retainedLayers;
+    private final Deque<Set<StateType>> layers = new ArrayDeque<>();
+    private long size = 0;
+
+    /**
+     * Creates a heap that retains the given number of layers.
+     * @param retainedLayers The number of most recent layers to keep, at least 1
+     * @throws IllegalArgumentException Thrown if the number of layers is lower than 1
+     */
+    public LayeredHeap(int retainedLayers) {
+        Arguments.requireMinimum(1, retainedLayers, "retainedLayers");
+        this.retainedLayers = retainedLayers;
+        layers.addLast(new HashSet<>());
+    }
+
+    /**
+     * Gets the number of most recent layers that are kept.
+     * @return
+     */
+    public int getRetainedLayers() {
+        return retainedLayers;
+    }
+
+    /**
+     * Opens a new layer that subsequently added states are put in.
+     * If this exceeds the number of retained layers, the oldest layer is dropped.
+     * @return The states of the dropped layer, empty if no layer was dropped
+     */
+    public Set<StateType> startLayer() {
+        layers.addLast(new HashSet<>());
+        if (layers.size() > retainedLayers) {
+            final var dropped = layers.removeFirst();
+            size -= dropped.size();
+            return dropped;
+        }
+        return Collections.emptySet();
+    }
+
+    @Override
+    public boolean add(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        if (contains(state)) {
+            return false;
+        }
+        layers.getLast().add(state);
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        for (Set<StateType> layer : layers) {
+            if (layer.remove(state)) {
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean contains(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        // Most lookups in a breadth-first exploration hit the newest layers
+        final var iterator = layers.descendingIterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().contains(state)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes all states and layers, the heap starts over with a single empty layer.
+     */
+    @Override
+    public void clear() {
+        layers.clear();
+        layers.addLast(new HashSet<>());
+        size = 0;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Iterates over the states from the oldest retained layer to the newest layer.
+     * @return
+     */
+    @Override
+    public Iterator<StateType> iterator() {
+        return new Iterator<>() {
+            private final Iterator<Set<StateType>> layerIterator = layers.iterator();
+            private Iterator<StateType> current = Collections.emptyIterator();
+            private Iterator<StateType> removable = null;
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && layerIterator.hasNext()) {
+                    current = layerIterator.next().iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public StateType next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                removable = current;
+                return current.next();
+            }
+
+            @Override
+            public void remove() {
+                if (removable == null) {
+                    throw new IllegalStateException();
+                }
+                removable.remove();
+                removable = null;
+                size--;
+            }
+        };
+    }
+}
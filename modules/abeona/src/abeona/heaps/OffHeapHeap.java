@@ -0,0 +1,127 @@
+package abeona.heaps;
+
+import abeona.codecs.OffHeapStateTable;
+import abeona.codecs.StateCodec;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A heap that stores the states outside of the Java heap in their encoded form, as produced by a {@link StateCodec}.
+ * Every state costs the encoded size plus one byte and a fraction of empty slots, with no per-state object overhead and no work for the garbage collector.
+ * The states are compared on their encodings, {@link Object#equals(Object)} and {@link Object#hashCode()} of the state type are not used.
+ *
+ * Iterating the heap decodes the states, so the iterator produces new instances that are equal to the stored states but not identical to them.
+ *
+ * @param <StateType>
+ */
+public final class OffHeapHeap<StateType> implements ManagedHeap<StateType> {
+    private static final int DEFAULT_CAPACITY = 1 << 10;
+    private final OffHeapStateTable<StateType> table;
+
+    /**
+     * Creates a heap that stores states encoded by the given codec.
+     * @param codec The codec used to encode the states
+     * @throws IllegalArgumentException Thrown if the codec is null
+     */
+    public OffHeapHeap(StateCodec<StateType> codec) {
+        this(codec, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a heap that stores states encoded by the given codec.
+     * @param codec The codec used to encode the states
+     * @param initialCapacity The number of states the heap is initially sized for
+     * @throws IllegalArgumentException Thrown if the codec is null or the capacity is lower than 1
+     */
+    public OffHeapHeap(StateCodec<StateType> codec, int initialCapacity) {
+        this.table = new OffHeapStateTable<>(codec, initialCapacity);
+    }
+
+    @Override
+    public boolean add(StateType state) {
+        return table.add(state);
+    }
+
+    @Override
+    public boolean remove(StateType state) {
+        return table.remove(state);
+    }
+
+    @Override
+    public boolean contains(StateType state) {
+        return table.contains(state);
+    }
+
+    @Override
+    public void clear() {
+        table.clear();
+    }
+
+    @Override
+    public long size() {
+        return table.size();
+    }
+
+    /**
+     * Gets the number of bytes of off-heap memory reserved by the heap.
+     * @return
+     */
+    public long getMemoryUsage() {
+        return table.getMemoryUsage();
+    }
+
+    /**
+     * Iterates over the decoded states in the heap, in no particular order.
+     * The iterator supports {@link Iterator#remove()}.
+     * @return
+     */
+    @Override
+    public Iterator<StateType> iterator() {
+        return new Iterator<>() {
+            private int expectedModificationCounter = table.getModificationCounter();
+            private int upcoming = findOccupied(0);
+            private int current = -1;
+
+            @Override
+            public boolean hasNext() {
+                return upcoming < table.getSlotCount();
+            }
+
+            @Override
+            public StateType next() {
+                if (table.getModificationCounter() != expectedModificationCounter) {
+                    throw new ConcurrentModificationException();
+                }
+                if (upcoming >= table.getSlotCount()) {
+                    throw new NoSuchElementException();
+                }
+                current = upcoming;
+                upcoming = findOccupied(current + 1);
+                return table.decode(current);
+            }
+
+            @Override
+            public void remove() {
+                if (current == -1) {
+                    throw new IllegalStateException();
+                }
+                if (table.getModificationCounter() != expectedModificationCounter) {
+                    throw new ConcurrentModificationException();
+                }
+                table.removeSlot(current);
+                current = -1;
+                expectedModificationCounter = table.getModificationCounter();
+            }
+        };
+    }
+
+    private int findOccupied(int slot) {
+        final int slots = table.getSlotCount();
+        while (slot < slots && !table.isOccupied(slot)) {
+            slot++;
+        }
+        return slot;
+    }
+}
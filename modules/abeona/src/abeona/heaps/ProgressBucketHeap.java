@@ -0,0 +1,170 @@
+package abeona.heaps;
+
+import abeona.util.Arguments;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A heap that groups its states into buckets of equal progress, intended for sweep-line exploration with {@link abeona.behaviours.SweepLineBehaviour}.
+ * The buckets are kept in a navigable map ordered by a progress comparator, which should indicate equivalence (0) for states with the same progress.
+ *
+ * {@link #purgeBelow(Object, Predicate, Consumer)} drops all states with a lower progress than a threshold by detaching whole buckets from the map,
+ * so a purge only touches the states that are dropped instead of every state in the heap.
+ * States that the purge is asked to retain are moved out of their bucket into a separate set, so they are not looked at again by later purges.
+ *
+ * The {@link StateType} is expected to override {@link Object#hashCode()} and {@link Object#equals(Object)} properly.
+ *
+ * @param <StateType>
+ */
+public class ProgressBucketHeap<StateType> implements ManagedHeap<StateType> {
+    private final Comparator<StateType> progressComparator;
+    private final NavigableMap<StateType, Set<StateType>> buckets;
+    private final Set<StateType> retained = new HashSet<>();
+    private long size = 0;
+
+    /**
+     * Creates a heap that groups its states on the given progress measure.
+     * @param progressComparator The comparator that compares the progress of states, it should indicate equivalence (0) for states with the same progress
+     * @throws IllegalArgumentException Thrown if the comparator is null
+     */
+    public ProgressBucketHeap(Comparator<StateType> progressComparator) {
+        Arguments.requireNonNull(progressComparator, "progressComparator");
+        this.progressComparator = progressComparator;
+        this.buckets = new TreeMap<>(progressComparator);
+    }
+
+    /**
+     * Gets the comparator the states are grouped on.
+     * @return
+     */
+    public Comparator<StateType> comparator() {
+        return progressComparator;
+    }
+
+    @Override
+    public boolean add(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        if (retained.contains(state)) {
+            return false;
+        }
+        final var added = buckets.computeIfAbsent(state, unused -> new HashSet<>()).add(state);
+        if (added) {
+            size++;
+        }
+        return added;
+    }
+
+    @Override
+    public boolean remove(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        if (retained.remove(state)) {
+            size--;
+            return true;
+        }
+        final var bucket = buckets.get(state);
+        if (bucket == null || !bucket.remove(state)) {
+            return false;
+        }
+        if (bucket.isEmpty()) {
+            buckets.remove(state);
+        }
+        size--;
+        return true;
+    }
+
+    @Override
+    public boolean contains(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        if (retained.contains(state)) {
+            return true;
+        }
+        final var bucket = buckets.get(state);
+        return bucket != null && bucket.contains(state);
+    }
+
+    @Override
+    public void clear() {
+        buckets.clear();
+        retained.clear();
+        size = 0;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Removes all states with a lower progress than the threshold, except for the states that should be retained.
+     * Only the buckets below the threshold are visited.
+     * @param threshold The state whose progress is the lowest progress that is kept
+     * @param retain Tests if a state below the threshold should be kept, a kept state is never tested again
+     * @param onPurged Invoked for every state that was removed, after it has been removed
+     * @return The number of removed states
+     * @throws IllegalArgumentException Thrown if an argument is null
+     */
+    public long purgeBelow(StateType threshold, Predicate<StateType> retain, Consumer<StateType> onPurged) {
+        Arguments.requireNonNull(threshold, "threshold");
+        Arguments.requireNonNull(retain, "retain");
+        Arguments.requireNonNull(onPurged, "onPurged");
+        final var below = buckets.headMap(threshold, false);
+        long purged = 0;
+        while (!below.isEmpty()) {
+            // Detach the bucket before notifying, so handlers observe the heap without the purged states
+            final var bucket = below.pollFirstEntry().getValue();
+            for (StateType state : bucket) {
+                if (retain.test(state)) {
+                    retained.add(state);
+                } else {
+                    size--;
+                    purged++;
+                    onPurged.accept(state);
+                }
+            }
+        }
+        return purged;
+    }
+
+    /**
+     * Iterates over the retained states first and then over the buckets in order of progress.
+     * @return
+     */
+    @Override
+    public Iterator<StateType> iterator() {
+        return new Iterator<>() {
+            private final Iterator<Set<StateType>> bucketIterator = buckets.values().iterator();
+            private Iterator<StateType> current = retained.iterator();
+            private Iterator<StateType> removable = null;
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && bucketIterator.hasNext()) {
+                    current = bucketIterator.next().iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public StateType next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                removable = current;
+                return current.next();
+            }
+
+            @Override
+            public void remove() {
+                if (removable == null) {
+                    throw new IllegalStateException();
+                }
+                // Empty buckets are left in place, they are dropped by the next purge that passes them
+                removable.remove();
+                removable = null;
+                size--;
+            }
+        };
+    }
+}
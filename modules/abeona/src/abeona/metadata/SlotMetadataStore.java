@@ -0,0 +1,486 @@
+package abeona.metadata;
+
+import abeona.util.Arguments;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Implements a metadata store in which the keys are registered up front as typed slots.
+ * Every state is assigned a dense id by a {@link StateIndex} and every slot stores its values in a column array indexed by that id.
+ * Reading or writing a value through a slot costs a single index lookup, or none at all when the id is already known, and primitive slots store their values unboxed.
+ *
+ * The generic {@link #set} and {@link #get} methods remain available for behaviours that are not aware of slots.
+ * Keys that have not been registered are registered as {@link ObjectSlot} on their first use, values for primitive slots are converted from and to their boxed form.
+ *
+ * The store holds strong references to every state that has been given an id, unlike {@link LookupMetadataStore} metadata is never dropped by the garbage collector.
+ * Values of a state are dropped when its id is released from the index.
+ *
+ * @param <StateType>
+ */
+public final class SlotMetadataStore<StateType> implements MetadataStore<StateType> {
+    private final StateIndex<StateType> index;
+    private final Map<Object, Slot<StateType>> slots = new HashMap<>();
+
+    /**
+     * Creates a store with its own state index.
+     */
+    public SlotMetadataStore() {
+        this(new StateIndex<>());
+    }
+
+    /**
+     * Creates a store that shares a state index with other components.
+     * @param index The index that assigns the ids of the states
+     * @throws IllegalArgumentException Thrown if the index is null
+     */
+    public SlotMetadataStore(StateIndex<StateType> index) {
+        Arguments.requireNonNull(index, "index");
+        this.index = index;
+    }
+
+    /**
+     * Gets the index that assigns the ids of the states, which are used to index the columns of the slots.
+     * @return
+     */
+    public StateIndex<StateType> getStateIndex() {
+        return index;
+    }
+
+    /**
+     * Registers a slot that stores object values, or returns the object slot already registered under the key.
+     * @param key The key the slot is registered under, as used by {@link #get} and {@link #set}
+     * @param <ValueType> The type of the values in the slot
+     * @return The slot registered under the key
+     * @throws IllegalArgumentException Thrown if the key is null
+     * @throws IllegalStateException Thrown if a slot of a different type is registered under the key
+     */
+    @SuppressWarnings("unchecked")
+    public <ValueType> ObjectSlot<StateType, ValueType> registerObjectSlot(Object key) {
+        return register(key, ObjectSlot.class, () -> new ObjectSlot<>(index));
+    }
+
+    /**
+     * Registers a slot that stores int values, or returns the int slot already registered under the key.
+     * @param key The key the slot is registered under, as used by {@link #get} and {@link #set}
+     * @return The slot registered under the key
+     * @throws IllegalArgumentException Thrown if the key is null
+     * @throws IllegalStateException Thrown if a slot of a different type is registered under the key
+     */
+    @SuppressWarnings("unchecked")
+    public IntSlot<StateType> registerIntSlot(Object key) {
+        return register(key, IntSlot.class, () -> new IntSlot<>(index));
+    }
+
+    /**
+     * Registers a slot that stores long values, or returns the long slot already registered under the key.
+     * @param key The key the slot is registered under, as used by {@link #get} and {@link #set}
+     * @return The slot registered under the key
+     * @throws IllegalArgumentException Thrown if the key is null
+     * @throws IllegalStateException Thrown if a slot of a different type is registered under the key
+     */
+    @SuppressWarnings("unchecked")
+    public LongSlot<StateType> registerLongSlot(Object key) {
+        return register(key, LongSlot.class, () -> new LongSlot<>(index));
+    }
+
+    /**
+     * Registers a slot that stores double values, or returns the double slot already registered under the key.
+     * @param key The key the slot is registered under, as used by {@link #get} and {@link #set}
+     * @return The slot registered under the key
+     * @throws IllegalArgumentException Thrown if the key is null
+     * @throws IllegalStateException Thrown if a slot of a different type is registered under the key
+     */
+    @SuppressWarnings("unchecked")
+    public DoubleSlot<StateType> registerDoubleSlot(Object key) {
+        return register(key, DoubleSlot.class, () -> new DoubleSlot<>(index));
+    }
+
+    @Override
+    public void set(StateType state, Object key, Object value) {
+        Arguments.requireNonNull(state, "state");
+        Arguments.requireNonNull(key, "key");
+        if (value == null) {
+            final var slot = slots.get(key);
+            final int id = index.idOf(state);
+            if (slot != null && id != -1) {
+                slot.unsetById(id);
+            }
+        } else {
+            final var slot = slots.computeIfAbsent(key, unused -> new ObjectSlot<>(index));
+            slot.setBoxed(index.getOrAssign(state), value);
+        }
+    }
+
+    @Override
+    public Optional<Object> get(StateType state, Object key) {
+        Arguments.requireNonNull(state, "state");
+        Arguments.requireNonNull(key, "key");
+        final var slot = slots.get(key);
+        final int id = index.idOf(state);
+        if (slot == null || id == -1 || !slot.isSetById(id)) {
+            return Optional.empty();
+        }
+        return Optional.of(slot.getBoxed(id));
+    }
+
+    private <SlotType extends Slot<StateType>> SlotType register(Object key, Class<SlotType> type, Supplier<SlotType> factory) {
+        Arguments.requireNonNull(key, "key");
+        final var existing = slots.get(key);
+        if (existing == null) {
+            final var slot = factory.get();
+            slots.put(key, slot);
+            return slot;
+        } else if (type.isInstance(existing)) {
+            return type.cast(existing);
+        } else {
+            throw new IllegalStateException("A slot of type " + existing.getClass().getSimpleName() + " is already registered under key " + key);
+        }
+    }
+
+    /**
+     * Base class of the typed slots, keeps track of which states have a value in the slot.
+     * @param <StateType>
+     */
+    public abstract static class Slot<StateType> {
+        final StateIndex<StateType> index;
+        private long[] present = new long[1];
+
+        Slot(StateIndex<StateType> index) {
+            this.index = index;
+            // A released id may be reused by another state, which should not inherit the value
+            index.addReleaseListener(this::unsetById);
+        }
+
+        /**
+         * Tests whether a state has a value in this slot
+         * @param state The state to test
+         * @return
+         */
+        public final boolean isSet(StateType state) {
+            final int id = index.idOf(state);
+            return id != -1 && isSetById(id);
+        }
+
+        /**
+         * Tests whether the state with the given id has a value in this slot
+         * @param id The id of the state, as assigned by the {@link StateIndex} of the store
+         * @return
+         */
+        public final boolean isSetById(int id) {
+            final int word = id >>> 6;
+            return word < present.length && (present[word] & (1L << id)) != 0;
+        }
+
+        /**
+         * Removes the value of a state from this slot
+         * @param state The state to remove the value of
+         */
+        public final void unset(StateType state) {
+            final int id = index.idOf(state);
+            if (id != -1) {
+                unsetById(id);
+            }
+        }
+
+        /**
+         * Removes the value of the state with the given id from this slot
+         * @param id The id of the state, as assigned by the {@link StateIndex} of the store
+         */
+        public final void unsetById(int id) {
+            final int word = id >>> 6;
+            if (word < present.length) {
+                present[word] &= ~(1L << id);
+                clearValue(id);
+            }
+        }
+
+        final void markSet(int id) {
+            final int word = id >>> 6;
+            if (word >= present.length) {
+                present = Arrays.copyOf(present, Math.max(word + 1, present.length * 2));
+            }
+            present[word] |= 1L << id;
+        }
+
+        static int grownLength(int length, int id) {
+            return Math.max(id + 1, Math.max(16, length * 2));
+        }
+
+        void clearValue(int id) {
+        }
+
+        abstract Object getBoxed(int id);
+
+        abstract void setBoxed(int id, Object value);
+    }
+
+    /**
+     * A slot holding object values
+     * @param <StateType>
+     * @param <ValueType>
+     */
+    public static final class ObjectSlot<StateType, ValueType> extends Slot<StateType> {
+        private Object[] values = new Object[0];
+
+        private ObjectSlot(StateIndex<StateType> index) {
+            super(index);
+        }
+
+        /**
+         * Gets the value of a state
+         * @param state The state to get the value of
+         * @return The value of the state, empty if the state has no value in this slot
+         */
+        public Optional<ValueType> get(StateType state) {
+            final int id = index.idOf(state);
+            return id == -1 ? Optional.empty() : Optional.ofNullable(getById(id));
+        }
+
+        /**
+         * Gets the value of the state with the given id
+         * @param id The id of the state, as assigned by the {@link StateIndex} of the store
+         * @return The value of the state, null if the state has no value in this slot
+         */
+        @SuppressWarnings("unchecked")
+        public ValueType getById(int id) {
+            return id < values.length ? (ValueType) values[id] : null;
+        }
+
+        /**
+         * Sets the value of a state, assigning an id to the state if it has none yet
+         * @param state The state to set the value of
+         * @param value The value to store, null removes the value
+         */
+        public void set(StateType state, ValueType value) {
+            setById(index.getOrAssign(state), value);
+        }
+
+        /**
+         * Sets the value of the state with the given id
+         * @param id The id of the state, as assigned by the {@link StateIndex} of the store
+         * @param value The value to store, null removes the value
+         */
+        public void setById(int id, ValueType value) {
+            if (value == null) {
+                unsetById(id);
+                return;
+            }
+            if (id >= values.length) {
+                values = Arrays.copyOf(values, grownLength(values.length, id));
+            }
+            values[id] = value;
+            markSet(id);
+        }
+
+        @Override
+        void clearValue(int id) {
+            if (id < values.length) {
+                values[id] = null;
+            }
+        }
+
+        @Override
+        Object getBoxed(int id) {
+            return getById(id);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        void setBoxed(int id, Object value) {
+            setById(id, (ValueType) value);
+        }
+    }
+
+    /**
+     * A slot holding int values
+     * @param <StateType>
+     */
+    public static final class IntSlot<StateType> extends Slot<StateType> {
+        private int[] values = new int[0];
+
+        private IntSlot(StateIndex<StateType> index) {
+            super(index);
+        }
+
+        /**
+         * Gets the value of a state
+         * @param state The state to get the value of
+         * @return The value of the state, empty if the state has no value in this slot
+         */
+        public OptionalInt get(StateType state) {
+            final int id = index.idOf(state);
+            return id != -1 && isSetById(id) ? OptionalInt.of(values[id]) : OptionalInt.empty();
+        }
+
+        /**
+         * Gets the value of the state with the given id
+         * @param id The id of the state, as assigned by the {@link StateIndex} of the store
+         * @param fallback The value to return if the state has no value in this slot
+         * @return
+         */
+        public int getById(int id, int fallback) {
+            return isSetById(id) ? values[id] : fallback;
+        }
+
+        /**
+         * Sets the value of a state, assigning an id to the state if it has none yet
+         * @param state The state to set the value of
+         * @param value The value to store
+         */
+        public void set(StateType state, int value) {
+            setById(index.getOrAssign(state), value);
+        }
+
+        /**
+         * Sets the value of the state with the given id
+         * @param id The id of the state, as assigned by the {@link StateIndex} of the store
+         * @param value The value to store
+         */
+        public void setById(int id, int value) {
+            if (id >= values.length) {
+                values = Arrays.copyOf(values, grownLength(values.length, id));
+            }
+            values[id] = value;
+            markSet(id);
+        }
+
+        @Override
+        Object getBoxed(int id) {
+            return values[id];
+        }
+
+        @Override
+        void setBoxed(int id, Object value) {
+            setById(id, ((Number) value).intValue());
+        }
+    }
+
+    /**
+     * A slot holding long values
+     * @param <StateType>
+     */
+    public static final class LongSlot<StateType> extends Slot<StateType> {
+        private long[] values = new long[0];
+
+        private LongSlot(StateIndex<StateType> index) {
+            super(index);
+        }
+
+        /**
+         * Gets the value of a state
+         * @param state The state to get the value of
+         * @return The value of the state, empty if the state has no value in this slot
+         */
+        public OptionalLong get(StateType state) {
+            final int id = index.idOf(state);
+            return id != -1 && isSetById(id) ? OptionalLong.of(values[id]) : OptionalLong.empty();
+        }
+
+        /**
+         * Gets the value of the state with the given id
+         * @param id The id of the state, as assigned by the {@link StateIndex} of the store
+         * @param fallback The value to return if the state has no value in this slot
+         * @return
+         */
+        public long getById(int id, long fallback) {
+            return isSetById(id) ? values[id] : fallback;
+        }
+
+        /**
+         * Sets the value of a state, assigning an id to the state if it has none yet
+         * @param state The state to set the value of
+         * @param value The value to store
+         */
+        public void set(StateType state, long value) {
+            setById(index.getOrAssign(state), value);
+        }
+
+        /**
+         * Sets the value of the state with the given id
+         * @param id The id of the state, as assigned by the {@link StateIndex} of the store
+         * @param value The value to store
+         */
+        public void setById(int id, long value) {
+            if (id >= values.length) {
+                values = Arrays.copyOf(values, grownLength(values.length, id));
+            }
+            values[id] = value;
+            markSet(id);
+        }
+
+        @Override
+        Object getBoxed(int id) {
+            return values[id];
+        }
+
+        @Override
+        void setBoxed(int id, Object value) {
+            setById(id, ((Number) value).longValue());
+        }
+    }
+
+    /**
+     * A slot holding double values
+     * @param <StateType>
+     */
+    public static final class DoubleSlot<StateType> extends Slot<StateType> {
+        private double[] values = new double[0];
+
+        private DoubleSlot(StateIndex<StateType> index) {
+            super(index);
+        }
+
+        /**
+         * Gets the value of a state
+         * @param state The state to get the value of
+         * @return The value of the state, empty if the state has no value in this slot
+         */
+        public OptionalDouble get(StateType state) {
+            final int id = index.idOf(state);
+            return id != -1 && isSetById(id) ? OptionalDouble.of(values[id]) : OptionalDouble.empty();
+        }
+
+        /**
+         * Gets the value of the state with the given id
+         * @param id The id of the state, as assigned by the {@link StateIndex} of the store
+         * @param fallback The value to return if the state has no value in this slot
+         * @return
+         */
+        public double getById(int id, double fallback) {
+            return isSetById(id) ? values[id] : fallback;
+        }
+
+        /**
+         * Sets the value of a state, assigning an id to the state if it has none yet
+         * @param state The state to set the value of
+         * @param value The value to store
+         */
+        public void set(StateType state, double value) {
+            setById(index.getOrAssign(state), value);
+        }
+
+        /**
+         * Sets the value of the state with the given id
+         * @param id The id of the state, as assigned by the {@link StateIndex} of the store
+         * @param value The value to store
+         */
+        public void setById(int id, double value) {
+            if (id >= values.length) {
+                values = Arrays.copyOf(values, grownLength(values.length, id));
+            }
+            values[id] = value;
+            markSet(id);
+        }
+
+        @Override
+        Object getBoxed(int id) {
+            return values[id];
+        }
+
+        @Override
+        void setBoxed(int id, Object value) {
+            setById(id, ((Number) value).doubleValue());
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package abeona.metadata;
+
+import abeona.util.Arguments;
+import abeona.util.Hashing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Assigns dense integer ids to states, so they can be used to index plain arrays of per-state data.
+ * The ids start at 0, an id that is released through {@link #release(Object)} is handed out again to the next state that is assigned an id.
+ * The ids in use therefore stay below the largest number of states that held an id at the same time, instead of growing with every state ever seen.
+ * Every id maps back to the first instance that was assigned that id, which makes the index usable for interning states as well.
+ *
+ * Data indexed by the ids has to be dropped when an id is released, owners of such data should register a listener through {@link #addReleaseListener(IntConsumer)}.
+ * Data that refers to the id of another state can detect that the id has been reused since, by comparing {@link #generationOf(int)} at the time of storing and reading.
+ *
+ * The index is an open-addressing table of ids next to an array of states, so an entry costs a few bytes and no objects besides the state itself.
+ * The index holds strong references to the states until they are released or the index is cleared,
+ * which is why a {@link abeona.Query} only creates its index once ids are requested and assigns ids to the states they are requested for.
+ * This class relies on {@link Object#hashCode()} and {@link Object#equals(Object)} of the states and is not thread-safe.
+ *
+ * @param <StateType>
+ */
+public final class StateIndex<StateType> {
+    private static final int NO_ID = -1;
+    private static final int RELEASED = -2;
+    private final List<IntConsumer> releaseListeners = new ArrayList<>();
+    private Object[] states = new Object[16];
+    private int[] generations = new int[16];
+    private int[] table = newTable(32);
+    private int[] freeIds = new int[0];
+    private int freeCount = 0;
+    private int bound = 0;
+    private int live = 0;
+    private int tombstones = 0;
+
+    /**
+     * Registers a listener that is invoked with the id of every released state, before the id can be reused.
+     * @param listener The listener that drops the data stored for the id
+     * @throws IllegalArgumentException Thrown if the listener is null
+     */
+    public void addReleaseListener(IntConsumer listener) {
+        Arguments.requireNonNull(listener, "listener");
+        releaseListeners.add(listener);
+    }
+
+    /**
+     * Gets the id of a state, assigning the next free id if the state has none yet.
+     * @param state The state to get the id for
+     * @return The id of the state
+     * @throws IllegalArgumentException Thrown if the state is null
+     */
+    public int getOrAssign(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        final int mask = table.length - 1;
+        int firstTombstone = -1;
+        for (int slot = homeSlot(state, mask); ; slot = (slot + 1) & mask) {
+            final int id = table[slot];
+            if (id == NO_ID) {
+                if (firstTombstone != -1) {
+                    tombstones--;
+                    return assign(state, firstTombstone);
+                }
+                return assign(state, slot);
+            } else if (id == RELEASED) {
+                if (firstTombstone == -1) {
+                    firstTombstone = slot;
+                }
+            } else if (states[id].equals(state)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Gets the id of a state without assigning one.
+     * @param state The state to get the id for
+     * @return The id of the state, -1 if the state has no id
+     * @throws IllegalArgumentException Thrown if the state is null
+     */
+    public int idOf(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        final int slot = slotOf(state);
+        return slot == -1 ? NO_ID : table[slot];
+    }
+
+    /**
+     * Releases the id of a state, after which the index no longer references the state.
+     * The release listeners are notified and the id is reused for the next state that is assigned an id.
+     * @param state The state to release
+     * @return True if the state had an id that has been released, false otherwise
+     * @throws IllegalArgumentException Thrown if the state is null
+     */
+    public boolean release(StateType state) {
+        Arguments.requireNonNull(state, "state");
+        final int slot = slotOf(state);
+        if (slot == -1) {
+            return false;
+        }
+        final int id = table[slot];
+        states[id] = null;
+        generations[id]++;
+        table[slot] = RELEASED;
+        live--;
+        tombstones++;
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, Math.max(16, freeCount * 2));
+        }
+        freeIds[freeCount++] = id;
+        for (IntConsumer listener : releaseListeners) {
+            listener.accept(id);
+        }
+        return true;
+    }
+
+    /**
+     * Gets the state that was assigned an id.
+     * @param id The id of the state
+     * @return The instance of the state that was first assigned the id, null if the id has been released and not reused yet
+     * @throws IndexOutOfBoundsException Thrown if the id has never been assigned
+     */
+    @SuppressWarnings("unchecked")
+    public StateType stateOf(int id) {
+        if (id < 0 || id >= bound) {
+            throw new IndexOutOfBoundsException("No state has id " + id);
+        }
+        return (StateType) states[id];
+    }
+
+    /**
+     * Gets the number of times an id has been released, which changes whenever the id may be reused for another state.
+     * @param id The id to get the generation of
+     * @return The generation of the id
+     * @throws IndexOutOfBoundsException Thrown if the id has never been assigned
+     */
+    public int generationOf(int id) {
+        if (id < 0 || id >= bound) {
+            throw new IndexOutOfBoundsException("No state has id " + id);
+        }
+        return generations[id];
+    }
+
+    /**
+     * Gets the instance of a state that holds its id, assigning an id if the state has none yet.
+     * @param state The state to intern
+     * @return The instance that was first assigned the id of the state
+     */
+    public StateType intern(StateType state) {
+        return stateOf(getOrAssign(state));
+    }
+
+    /**
+     * Counts the states that currently hold an id.
+     * @return
+     */
+    public int size() {
+        return live;
+    }
+
+    /**
+     * Gets the bound below which all assigned ids lie, which is the length arrays indexed by the ids need.
+     * @return
+     */
+    public int getIdBound() {
+        return bound;
+    }
+
+    /**
+     * Removes all states from the index, ids assigned afterwards start at 0 again.
+     * Data that is indexed by the old ids is not cleared by the index and has to be discarded by its owner, the release listeners are not notified.
+     */
+    public void clear() {
+        Arrays.fill(states, 0, bound, null);
+        Arrays.fill(generations, 0, bound, 0);
+        Arrays.fill(table, NO_ID);
+        bound = 0;
+        freeCount = 0;
+        live = 0;
+        tombstones = 0;
+    }
+
+    private int assign(StateType state, int slot) {
+        final int id = freeCount > 0 ? freeIds[--freeCount] : bound++;
+        if (id == states.length) {
+            states = Arrays.copyOf(states, id * 2);
+            generations = Arrays.copyOf(generations, id * 2);
+        }
+        states[id] = state;
+        table[slot] = id;
+        live++;
+        if (live + tombstones > table.length / 2) {
+            rehash();
+        }
+        return id;
+    }
+
+    private int slotOf(StateType state) {
+        final int mask = table.length - 1;
+        for (int slot = homeSlot(state, mask); ; slot = (slot + 1) & mask) {
+            final int id = table[slot];
+            if (id == NO_ID) {
+                return -1;
+            } else if (id != RELEASED && states[id].equals(state)) {
+                return slot;
+            }
+        }
+    }
+
+    private void rehash() {
+        // Released ids keep their place in the states array but no longer occupy the table
+        final int tableSize = live > table.length / 4 ? table.length * 2 : table.length;
+        table = newTable(tableSize);
+        tombstones = 0;
+        final int mask = tableSize - 1;
+        for (int id = 0; id < bound; id++) {
+            if (states[id] == null) {
+                continue;
+            }
+            int slot = homeSlot(states[id], mask);
+            while (table[slot] != NO_ID) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id;
+        }
+    }
+
+    private static int homeSlot(Object state, int mask) {
+        return (int) Hashing.hash64(state) & mask;
+    }
+
+    private static int[] newTable(int size) {
+        final var table = new int[size];
+        Arrays.fill(table, NO_ID);
+        return table;
+    }
+}
@@ -3,21 +3,73 @@ package abeona.util;
 import abeona.Query;
 import abeona.NextFunction;
 import abeona.Transition;
+import abeona.behaviours.LayeredBfsBehaviour;
 import abeona.behaviours.SweepLineBehaviour;
 import abeona.behaviours.TraceCostBehaviour;
 import abeona.behaviours.TraceCostFrontierBehaviour;
 import abeona.behaviours.TraceCostLimitBehaviour;
-import abeona.frontiers.QueueFrontier;
+import abeona.behaviours.TraceCostStore;
+import abeona.codecs.StateCodec;
+import abeona.frontiers.BeamFrontier;
+import abeona.frontiers.BucketFrontier;
+import abeona.frontiers.ExternalBfsFrontier;
+import abeona.frontiers.HashQueueFrontier;
+import abeona.frontiers.IndexedHeapFrontier;
+import abeona.frontiers.PartialExpansionFrontier;
+import abeona.frontiers.SearchNodeFrontier;
 import abeona.frontiers.TreeMapFrontier;
 import abeona.heaps.HashSetHeap;
+import abeona.heaps.LayeredHeap;
+import abeona.metadata.LookupMetadataStore;
+import abeona.metadata.StateIndex;
 
+import java.nio.file.Path;
 import java.util.Comparator;
 import java.util.Objects;
 import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
 
 public final class ExplorationPresets {
     public static <StateType> Query<StateType> setupBfs(NextFunction<StateType> neighbours) {
-        return new Query<>(QueueFrontier.fifoFrontier(), new HashSetHeap<>(), neighbours);
+        return new Query<>(HashQueueFrontier.fifoFrontier(), new HashSetHeap<>(), neighbours);
+    }
+
+    /**
+     * Sets up a breadth-first exploration that keeps the frontier and the explored states on disk, see {@link ExternalBfsFrontier}.
+     * The frontier should be closed once the exploration is done to delete its files.
+     * @param neighbours The next function of the state space
+     * @param codec The codec used to store the states on disk
+     * @param directory The existing directory to store the files in
+     * @param <StateType>
+     * @return
+     */
+    public static <StateType> Query<StateType> setupExternalBfs(
+            NextFunction<StateType> neighbours,
+            StateCodec<StateType> codec,
+            Path directory
+    ) {
+        final var frontier = new ExternalBfsFrontier<>(codec, directory);
+        return new Query<>(frontier, frontier.getHeap(), neighbours);
+    }
+
+    /**
+     * Sets up a breadth-first exploration that only keeps the most recent layers of explored states, see {@link LayeredHeap}.
+     * Traces can be rebuilt through the {@link LayeredBfsBehaviour} of the query, which can be found through {@link Query#getBehaviours(Class)}.
+     * @param neighbours The next function of the state space
+     * @param retainedLayers The number of layers to keep, 2 suffices for undirected state spaces
+     * @param relayInterval The number of layers between the relay layers that are kept to rebuild traces
+     * @param <StateType>
+     * @return
+     * @throws IllegalArgumentException Thrown if the number of layers or the relay interval is lower than 1
+     */
+    public static <StateType> Query<StateType> setupLayeredBfs(
+            NextFunction<StateType> neighbours,
+            int retainedLayers,
+            int relayInterval
+    ) {
+        final var query = new Query<>(HashQueueFrontier.<StateType>fifoFrontier(), new LayeredHeap<>(retainedLayers), neighbours);
+        query.addBehaviour(new LayeredBfsBehaviour<>(relayInterval));
+        return query;
     }
 
     public static <StateType> Query<StateType> setupBfsMaxDepth(
@@ -25,7 +77,7 @@ public final class ExplorationPresets {
             int maxDepth
     ) {
         final var query = setupBfs(neighbours);
-        final var traceCost = new TraceCostBehaviour<StateType>(unused -> 1);
+        final var traceCost = new TraceCostBehaviour<StateType>(unused -> 1, TraceCostStore.integer(query.getStateIndex()));
         final var maxTraceCost = new TraceCostLimitBehaviour<>(traceCost, maxDepth);
         query.addBehaviour(traceCost);
         query.addBehaviour(maxTraceCost);
@@ -33,7 +85,11 @@ public final class ExplorationPresets {
     }
 
     public static <StateType> Query<StateType> setupDfs(NextFunction<StateType> neighbours) {
-        return new Query<>(QueueFrontier.lifoFrontier(), new HashSetHeap<>(), neighbours);
+        return new Query<>(HashQueueFrontier.lifoFrontier(), new HashSetHeap<>(), neighbours);
+    }
+
+    public static <StateType> Query<StateType> setupLazyDfs(NextFunction<StateType> neighbours) {
+        return new Query<>(PartialExpansionFrontier.lifoFrontier(), new HashSetHeap<>(), neighbours);
     }
 
     public static <StateType> Query<StateType> setupDfsMaxDepth(
@@ -41,7 +97,7 @@ public final class ExplorationPresets {
             int maxDepth
     ) {
         final var query = setupDfs(neighbours);
-        final var traceCost = new TraceCostBehaviour<StateType>(unused -> 1);
+        final var traceCost = new TraceCostBehaviour<StateType>(unused -> 1, TraceCostStore.integer(query.getStateIndex()));
         final var maxTraceCost = new TraceCostLimitBehaviour<>(traceCost, maxDepth);
         query.addBehaviour(traceCost);
         query.addBehaviour(maxTraceCost);
@@ -60,23 +116,100 @@ public final class ExplorationPresets {
             ToDoubleFunction<Transition<StateType>> costs,
             ToDoubleFunction<StateType> remainingCostHeuristic
     ) {
-        final var traceCost = new TraceCostFrontierBehaviour<>(costs);
-        final var comparator = Comparator.<StateType>comparingDouble(state -> traceCost.getTraceCost(state)
-                .orElse(0) + remainingCostHeuristic.applyAsDouble(state));
-        final var frontier = TreeMapFrontier.withCollisions(comparator, Objects::hashCode);
+        final var stateIndex = new StateIndex<StateType>();
+        final var costStore = TraceCostStore.indexed(stateIndex);
+        final var traceCost = new TraceCostFrontierBehaviour<>(costs, costStore);
+        final var frontier = IndexedHeapFrontier.withIndexedPriority(stateIndex, id -> costStore.getById(id, 0)
+                + remainingCostHeuristic.applyAsDouble(stateIndex.stateOf(id)));
+        final var query = new Query<>(frontier, new HashSetHeap<>(), neighbours, new LookupMetadataStore<>(), stateIndex);
+        query.addBehaviour(traceCost);
+        return query;
+    }
+
+    /**
+     * Sets up an A* exploration on a {@link SearchNodeFrontier}, which caches the cost, heuristic and their sum on every frontier entry.
+     * Explores in the same order as {@link #setupAStar} but evaluates the heuristic only once per state.
+     * The costs are tracked by a {@link TraceCostBehaviour} that is backed by the frontier, it can be found through {@link Query#getBehaviours(Class)}.
+     * @param neighbours The next function of the state space
+     * @param costs The cost of a transition
+     * @param remainingCostHeuristic The estimate of the remaining cost from a state to a goal state
+     * @param <StateType>
+     * @return
+     */
+    public static <StateType> Query<StateType> setupAStarNodes(
+            NextFunction<StateType> neighbours,
+            ToDoubleFunction<Transition<StateType>> costs,
+            ToDoubleFunction<StateType> remainingCostHeuristic
+    ) {
+        final var frontier = SearchNodeFrontier.withHeuristic(remainingCostHeuristic);
         final var query = new Query<>(frontier, new HashSetHeap<>(), neighbours);
+        query.addBehaviour(new TraceCostBehaviour<>(costs, frontier.getCostStore()));
+        return query;
+    }
+
+    /**
+     * Sets up a Dijkstra exploration for integer transition costs on a {@link BucketFrontier}, see {@link #setupDialAStar}.
+     * @param neighbours The next function of the state space
+     * @param costs The non-negative integer cost of a transition
+     * @param <StateType>
+     * @return
+     */
+    public static <StateType> Query<StateType> setupDialDijkstra(
+            NextFunction<StateType> neighbours,
+            ToIntFunction<Transition<StateType>> costs
+    ) {
+        return setupDialAStar(neighbours, costs, s -> 0);
+    }
+
+    /**
+     * Sets up an A* exploration for integer transition costs and heuristics on a {@link BucketFrontier}.
+     * Explores in the same order of cost as {@link #setupAStar}, but inserting a state and lowering its cost take constant time.
+     * @param neighbours The next function of the state space
+     * @param costs The non-negative integer cost of a transition
+     * @param remainingCostHeuristic The integer estimate of the remaining cost from a state to a goal state
+     * @param <StateType>
+     * @return
+     */
+    public static <StateType> Query<StateType> setupDialAStar(
+            NextFunction<StateType> neighbours,
+            ToIntFunction<Transition<StateType>> costs,
+            ToIntFunction<StateType> remainingCostHeuristic
+    ) {
+        final var stateIndex = new StateIndex<StateType>();
+        final var costStore = TraceCostStore.integer(stateIndex);
+        final var traceCost = new TraceCostFrontierBehaviour<StateType>(costs::applyAsInt, costStore);
+        final var frontier = BucketFrontier.withIndexedPriority(stateIndex, id -> (int) costStore.getById(id, 0)
+                + remainingCostHeuristic.applyAsInt(stateIndex.stateOf(id)));
+        final var query = new Query<>(frontier, new HashSetHeap<>(), neighbours, new LookupMetadataStore<>(), stateIndex);
         query.addBehaviour(traceCost);
         return query;
     }
 
+    /**
+     * Sets up a beam search, a best-first exploration that only keeps the best states in a frontier of fixed width, see {@link BeamFrontier}.
+     * States that fall out of the beam are not marked as explored and the search is not complete.
+     * @param neighbours The next function of the state space
+     * @param ordering The ordering of the states, lower states are explored first and kept in the beam
+     * @param beamWidth The maximum number of states in the frontier
+     * @param <StateType>
+     * @return
+     * @throws IllegalArgumentException Thrown if the ordering is null or the beam width is lower than 1
+     */
+    public static <StateType> Query<StateType> setupBeamSearch(
+            NextFunction<StateType> neighbours,
+            Comparator<StateType> ordering,
+            int beamWidth
+    ) {
+        return new Query<>(BeamFrontier.withCapacity(ordering, beamWidth), new HashSetHeap<>(), neighbours);
+    }
+
     public static <StateType> Query<StateType> setupSweepLine(
             NextFunction<StateType> neighbours,
             Comparator<StateType> progressMeasure
     ) {
         final var frontier = TreeMapFrontier.withCollisions(progressMeasure, Objects::hashCode);
-        final var heap = new HashSetHeap<StateType>();
-        final var query = new Query<>(frontier, heap, neighbours);
         final var sweepLine = new SweepLineBehaviour<>(progressMeasure);
+        final var query = new Query<>(frontier, sweepLine.createHeap(), neighbours);
         query.addBehaviour(sweepLine);
         return query;
     }
@@ -0,0 +1,41 @@
+package abeona.util;
+
+/**
+ * Utility functions for spreading hash values, used by the hash based frontiers and heaps that do not rely on {@link java.util.HashMap}.
+ */
+public final class Hashing {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Mixes the bits of a 64-bit value such that every input bit affects every output bit (the finalizer of MurmurHash3).
+     * @param value The value to mix
+     * @return The mixed value
+     */
+    public static long mix64(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    /**
+     * Derives a 64-bit hash from the {@link Object#hashCode()} of an object.
+     * The result still only has 32 bits of entropy.
+     * @param obj The object to hash, not allowed to be null
+     * @return The spread hashcode
+     */
+    public static long hash64(Object obj) {
+        return mix64(obj.hashCode() * GOLDEN_GAMMA);
+    }
+
+    /**
+     * Derives an independent second hash from a 64-bit hash, useful for double hashing.
+     * @param hash The first hash
+     * @return The second hash
+     */
+    public static long rehash64(long hash) {
+        return mix64(hash + GOLDEN_GAMMA);
+    }
+}
@@ -40,9 +40,9 @@ public class PeekableIterator<T> implements Iterator<T> {
     public T peek() {
         if (peeked) {
             return peekedValue;
-        } else if (hasNext()) {
+        } else if (inner.hasNext()) {
+            peekedValue = inner.next();
             peeked = true;
-            peekedValue = next();
             return peekedValue;
         } else {
             throw new NoSuchElementException();
@@ -0,0 +1,144 @@
+package abeona;
+
+import abeona.behaviours.TraceCostBehaviour;
+import abeona.util.ExplorationPresets;
+
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A square grid of integer states shared by the tests of the search algorithms.
+ * The cell {@code x * side + y} is connected to its horizontal and vertical neighbours, the grid is undirected.
+ * Edge weights are derived from the numbers of the cells, so every test sees the same deterministic weights.
+ */
+public final class GridFixture {
+    private final int side;
+
+    public GridFixture(int side) {
+        this.side = side;
+    }
+
+    public int getSide() {
+        return side;
+    }
+
+    public int getCellCount() {
+        return side * side;
+    }
+
+    /**
+     * Gets the cell in the corner opposite of cell 0, the goal of most tests
+     * @return
+     */
+    public int getCorner() {
+        return side * side - 1;
+    }
+
+    /**
+     * Tests whether a step from a cell to a target stays on the grid without wrapping around to another row
+     * @param cell The cell the step starts at
+     * @param target The cell the step ends at
+     * @return True if the target is a neighbour of the cell, false otherwise
+     */
+    public boolean isMove(int cell, int target) {
+        return target >= 0 && target < side * side && (target / side == cell / side || target % side == cell % side);
+    }
+
+    /**
+     * Creates the next-function of the grid, generating the neighbours above, below, left and right of a cell in that order
+     * @return
+     */
+    public NextFunction<Integer> next() {
+        return cell -> Stream.of(cell - side, cell + side, cell - 1, cell + 1)
+                .filter(target -> isMove(cell, target))
+                .map(target -> new Transition<>(cell, target));
+    }
+
+    /**
+     * Creates the manhattan distance towards {@link #getCorner()}, an admissible heuristic for weights of at least 1
+     * @return
+     */
+    public ToDoubleFunction<Integer> manhattan() {
+        return cell -> (side - 1 - cell / side) + (side - 1 - cell % side);
+    }
+
+    /**
+     * Runs {@link ExplorationPresets#setupDijkstra} as a reference and compares it with the given query.
+     * Both queries explore the grid from the given cell, after which every cell should have the same trace cost in both.
+     * @param reference The query computing the expected costs
+     * @param query The query under test
+     * @param source The cell to explore from
+     */
+    public void assertSameCosts(Query<Integer> reference, Query<Integer> query, int source) {
+        reference.getFrontier().add(Stream.of(source));
+        query.getFrontier().add(Stream.of(source));
+        reference.explore();
+        query.explore();
+        for (int cell = 0; cell < side * side; cell++) {
+            assertEquals(costOf(reference, cell), costOf(query, cell), "Both queries should find the same costs");
+        }
+    }
+
+    /**
+     * Computes the cost of the cheapest path between two cells using {@link ExplorationPresets#setupDijkstra}
+     * @param weights The weights of the transitions
+     * @param source The cell the path starts at
+     * @param target The cell the path ends at
+     * @return
+     */
+    public double dijkstraCost(ToDoubleFunction<Transition<Integer>> weights, int source, int target) {
+        final var reference = ExplorationPresets.setupDijkstra(next(), weights);
+        reference.getFrontier().add(Stream.of(source));
+        reference.explore();
+        return costOf(reference, target);
+    }
+
+    /**
+     * Creates pseudo-random weights between 1 and 7, see {@link #integerWeights(int)}
+     * @return
+     */
+    public static ToDoubleFunction<Transition<Integer>> weights() {
+        return weights(7);
+    }
+
+    public static ToDoubleFunction<Transition<Integer>> weights(int range) {
+        final var weights = integerWeights(range);
+        return weights::applyAsInt;
+    }
+
+    /**
+     * Creates pseudo-random weights of at least 1, derived from the source and target cell of a transition
+     * @param range The number of distinct weights
+     * @return
+     */
+    public static ToIntFunction<Transition<Integer>> integerWeights(int range) {
+        return transition -> 1 + Math.floorMod(transition.getSourceState() * 31 + transition.getTargetState() * 17, range);
+    }
+
+    /**
+     * Creates pseudo-random weights between 1 and 7 for which the reverse of a transition costs the same as the transition
+     * @return
+     */
+    public static ToDoubleFunction<Transition<Integer>> symmetricWeights() {
+        return transition -> {
+            final int low = Math.min(transition.getSourceState(), transition.getTargetState());
+            final int high = Math.max(transition.getSourceState(), transition.getTargetState());
+            return 1 + Math.floorMod(low * 31 + high * 17, 7);
+        };
+    }
+
+    /**
+     * Gets the trace cost of a state from the {@link TraceCostBehaviour} of a query
+     * @param query The query with a trace cost behaviour
+     * @param state The state to get the cost of
+     * @return The trace cost, or NaN if the state has none
+     */
+    @SuppressWarnings("unchecked")
+    public static double costOf(Query<Integer> query, int state) {
+        final var traceCost = (TraceCostBehaviour<Integer>) query.getBehaviours(TraceCostBehaviour.class).findFirst().orElseThrow();
+        return traceCost.getTraceCostOrDefault(state, Double.NaN);
+    }
+}
@@ -1,9 +1,16 @@
 package abeona;
 
+import abeona.behaviours.IterationCounter;
+import abeona.behaviours.TerminateOnGoalStateBehaviour;
 import abeona.frontiers.QueueFrontier;
+import abeona.heaps.ConcurrentHashSetHeap;
 import abeona.heaps.HashSetHeap;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -56,6 +63,204 @@ class QueryTest {
         fail("Test not implemented");
     }
 
+    @Test
+    void explore_pushNextFunction() {
+        final PushNextFunction<MyState> nextFunction = PushNextFunction.wrap((state, sink) -> {
+            if (state.hash + 1 < 1000) {
+                sink.accept(new MyState(state.hash + 1));
+            }
+            if (state.hash * 2 < 1000) {
+                sink.accept(new MyState(state.hash * 2));
+            }
+        });
+        final var query = new Query<>(QueueFrontier.<MyState>fifoFrontier(), new HashSetHeap<>(), nextFunction);
+        final var counter = new IterationCounter<MyState>();
+        final var discoveries = new AtomicInteger();
+        query.addBehaviour(counter);
+        query.getFrontier().add(Stream.of(new MyState(0)));
+        query.onStateDiscovery.tap(event -> discoveries.incrementAndGet());
+
+        assertEquals(TerminationType.FrontierExhaustion, query.explore());
+        assertEquals(1000, counter.getCounter(query).orElseThrow(), "Every state should be evaluated exactly once");
+        assertEquals(999, discoveries.get(), "Every state except the initial state should be discovered exactly once");
+    }
+
+    @Test
+    void getStateId() {
+        final var query = new Query<MyState>(
+                QueueFrontier.<MyState>fifoFrontier(),
+                new HashSetHeap<>(),
+                state -> state.next()
+                        .filter(next -> next.hash < 100)
+                        .map(next -> new Transition<>(state, next))
+        );
+        query.getFrontier().add(Stream.of(query.internState(new MyState(0))));
+        query.explore();
+        assertEquals(0, query.getStateIndex().size(), "Exploring should not assign ids that are never requested");
+        final var interned = query.internState(new MyState(42));
+        final int id = query.getStateId(interned);
+        assertSame(interned, query.getStateIndex().stateOf(id));
+        assertEquals(id, query.getStateId(new MyState(42)));
+        assertEquals(1, query.getStateIndex().size(), "Looking up the id of an interned state should not assign a new one");
+    }
+
+    @Test
+    void exploreParallel() {
+        final var query = new Query<MyState>(
+                QueueFrontier.<MyState>fifoFrontier(),
+                new HashSetHeap<>(),
+                state -> state.next()
+                        .filter(next -> next.hash < 1000)
+                        .map(next -> new Transition<>(state, next))
+        );
+        final var counter = new IterationCounter<MyState>();
+        query.addBehaviour(counter);
+        query.getFrontier().add(Stream.of(new MyState(0)));
+
+        assertThrows(IllegalArgumentException.class, () -> query.exploreParallel(0));
+        assertEquals(TerminationType.FrontierExhaustion, query.exploreParallel(4));
+        assertEquals(1000, counter.getCounter(query).orElseThrow(), "Every state should be evaluated exactly once");
+    }
+
+    @Test
+    void exploreParallel_manualTermination() {
+        final var query = new Query<MyState>(
+                QueueFrontier.<MyState>fifoFrontier(),
+                new HashSetHeap<>(),
+                state -> state.next().map(next -> new Transition<>(state, next))
+        );
+        query.addBehaviour(new TerminateOnGoalStateBehaviour<>(state -> state.hash == 100));
+        query.getFrontier().add(Stream.of(new MyState(1)));
+
+        assertEquals(TerminationType.ManualTermination, query.exploreParallel(4));
+    }
+
+    @Test
+    void exploreParallel_concurrentHeap() {
+        final var query = new Query<MyState>(
+                QueueFrontier.<MyState>fifoFrontier(),
+                new ConcurrentHashSetHeap<>(),
+                state -> state.next()
+                        .filter(next -> next.hash < 1000)
+                        .map(next -> new Transition<>(state, next))
+        );
+        final var counter = new IterationCounter<MyState>();
+        query.addBehaviour(counter);
+        query.getFrontier().add(Stream.of(new MyState(0)));
+
+        assertTrue(ParallelExploration.isConcurrent(query));
+        assertEquals(TerminationType.FrontierExhaustion, query.exploreParallel(4));
+        assertEquals(1000, counter.getCounter(query).orElseThrow(), "Every state should be evaluated exactly once");
+        assertEquals(1000, ((ConcurrentHashSetHeap<MyState>) query.getHeap()).size());
+        assertFalse(query.getFrontier().hasNext());
+    }
+
+    @Test
+    void exploreParallel_concurrentHeap_discovery() {
+        final var query = new Query<MyState>(
+                QueueFrontier.<MyState>fifoFrontier(),
+                new ConcurrentHashSetHeap<>(),
+                state -> state.next()
+                        .filter(next -> next.hash < 1000)
+                        .map(next -> new Transition<>(state, next))
+        );
+        final var discovered = new HashSet<MyState>();
+        final var discoveries = new AtomicInteger();
+        query.onStateDiscovery.tap(event -> {
+            discoveries.incrementAndGet();
+            discovered.add(event.getTransition().getTargetState());
+        });
+        query.getFrontier().add(Stream.of(new MyState(0)));
+
+        assertTrue(ParallelExploration.isConcurrent(query));
+        assertEquals(TerminationType.FrontierExhaustion, query.exploreParallel(4));
+        assertEquals(999, discoveries.get(), "Every state except the initial state should be discovered exactly once");
+        assertEquals(999, discovered.size());
+    }
+
+    @Test
+    void exploreParallel_concurrentHeap_manualTermination() {
+        final var heap = new ConcurrentHashSetHeap<MyState>();
+        final var query = new Query<MyState>(
+                QueueFrontier.<MyState>fifoFrontier(),
+                heap,
+                state -> state.next().map(next -> new Transition<>(state, next))
+        );
+        query.addBehaviour(new TerminateOnGoalStateBehaviour<>(state -> state.hash == 100));
+        query.getFrontier().add(Stream.of(new MyState(1)));
+
+        assertTrue(ParallelExploration.isConcurrent(query));
+        assertEquals(TerminationType.ManualTermination, query.exploreParallel(4));
+        assertFalse(heap.contains(new MyState(100)), "The goal state should not be known since its discovery was interrupted");
+        for (MyState state : (QueueFrontier<MyState>) query.getFrontier()) {
+            assertFalse(heap.contains(state), "States returned to the frontier should not be known");
+        }
+    }
+
+    @Test
+    void exploreParallel_concurrentHeap_stopDuringEvaluation() {
+        // The next-function of state 500 is running when a discovery handler stops the exploration and completes only afterwards
+        final var generating = new CountDownLatch(1);
+        final var stopping = new CountDownLatch(1);
+        final var heap = new ConcurrentHashSetHeap<MyState>();
+        final var query = new Query<MyState>(
+                QueueFrontier.<MyState>fifoFrontier(),
+                heap,
+                state -> {
+                    if (state.hash == 500) {
+                        generating.countDown();
+                        try {
+                            stopping.await(5, TimeUnit.SECONDS);
+                            Thread.sleep(100);
+                        } catch (InterruptedException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                    return state.next()
+                            .filter(next -> next.hash < 1000)
+                            .map(next -> new Transition<>(state, next));
+                }
+        );
+        query.onStateDiscovery.tap(event -> {
+            if (event.getTransition().getTargetState().hash == 3) {
+                try {
+                    generating.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                stopping.countDown();
+                throw new TerminateExplorationSignal();
+            }
+        });
+        query.getFrontier().add(Stream.of(new MyState(0), new MyState(500)));
+
+        assertTrue(ParallelExploration.isConcurrent(query));
+        assertEquals(TerminationType.ManualTermination, query.exploreParallel(4));
+        final var frontier = (QueueFrontier<MyState>) query.getFrontier();
+        assertTrue(frontier.contains(new MyState(500)), "A state picked but not evaluated should be returned to the frontier");
+        assertFalse(heap.contains(new MyState(500)));
+        assertFalse(heap.contains(new MyState(501)), "The successors of an unevaluated state should not be known");
+    }
+
+    @Test
+    void exploreParallel_concurrentHeap_requiresUntappedInterceptors() {
+        final var query = new Query<MyState>(
+                QueueFrontier.<MyState>fifoFrontier(),
+                new ConcurrentHashSetHeap<>(),
+                state -> state.next().map(next -> new Transition<>(state, next))
+        );
+        assertTrue(ParallelExploration.isConcurrent(query));
+        final var handler = query.isKnown.tap((q, state, next) -> next.apply(q, state));
+        assertFalse(ParallelExploration.isConcurrent(query), "A tapped known-state check needs the serialized exploration");
+        query.isKnown.unTap(handler);
+        assertTrue(ParallelExploration.isConcurrent(query));
+        assertFalse(ParallelExploration.isConcurrent(new Query<MyState>(
+                QueueFrontier.<MyState>fifoFrontier(),
+                new HashSetHeap<>(),
+                state -> state.next().map(next -> new Transition<>(state, next))
+        )));
+    }
+
     @Test
     void evaluateState() {
         fail("Test not implemented");
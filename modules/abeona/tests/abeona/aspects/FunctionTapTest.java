@@ -7,6 +7,7 @@ import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -71,6 +72,30 @@ class FunctionTapTest {
         }
     }
 
+    @Test
+    void apply_unTap() {
+        final var tap = new FunctionTap<Integer, Integer>(i -> i + 1);
+        final FunctionTap.Interceptor<Integer, Integer> doubler = (i, next) -> next.apply(i) * 2;
+        final FunctionTap.Interceptor<Integer, Integer> negater = (i, next) -> -next.apply(i);
+        tap.tap(doubler);
+        tap.tap(negater);
+        assertEquals(-4, tap.apply(1), "Both interceptors should be invoked");
+        tap.unTap(doubler);
+        assertEquals(-2, tap.apply(1), "Untapped interceptor should no longer be invoked");
+        tap.unTapAll();
+        assertEquals(2, tap.apply(1), "Only the original function should be invoked");
+    }
+
+    @Test
+    void apply_nextInvokedTwice() {
+        final var counter = new AtomicInteger();
+        final var tap = new FunctionTap<Integer, Integer>(i -> counter.incrementAndGet());
+        tap.tap((i, next) -> next.apply(i) + next.apply(i));
+        tap.tap((i, next) -> next.apply(i));
+        assertEquals(3, tap.apply(0), "Invoking next twice should invoke the remaining chain twice");
+        assertEquals(2, counter.get());
+    }
+
     @Test
     void apply_interceptorArgs() {
         // TODO: Unit test modification of the arguments by an interceptor
@@ -0,0 +1,84 @@
+package abeona.behaviours;
+
+import abeona.NextFunction;
+import abeona.Query;
+import abeona.Transition;
+import abeona.util.ExplorationPresets;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactBacktraceBehaviourTest {
+    private static final NextFunction<Integer> operations = state -> Stream.of(
+            new Transition<>(state, state + 1, "inc"),
+            new Transition<>(state, state * 2, "double")
+    ).filter(transition -> transition.getTargetState() <= 100);
+
+    @Test
+    void getTransitionTrace() {
+        final var query = ExplorationPresets.setupBfs(operations);
+        final var backtrace = new CompactBacktraceBehaviour<Integer>();
+        query.addBehaviour(backtrace);
+        assertFalse(query.beforeStateEvaluation.isTapped(), "The behaviour should not keep the query off its fast evaluation paths");
+        query.getFrontier().add(Stream.of(1));
+        query.explore();
+
+        assertEquals(List.of(1, 2, 3, 6, 12, 24, 48, 96), backtrace.getStateTrace(96));
+        final var operators = backtrace.getTransitionTrace(96).stream()
+                .map(Transition::getUserdata)
+                .collect(Collectors.toList());
+        assertEquals(List.of("inc", "inc", "double", "double", "double", "double", "double"), operators);
+        assertTrue(backtrace.getTraceLink(1).isEmpty(), "The initial state should not have a back-link");
+        assertTrue(backtrace.getTransitionTrace(1).isEmpty());
+    }
+
+    @Test
+    void getTraceLink_releasedParent() {
+        final var query = ExplorationPresets.setupBfs(operations);
+        final var backtrace = new CompactBacktraceBehaviour<Integer>();
+        query.addBehaviour(backtrace);
+        query.getFrontier().add(Stream.of(1));
+        query.explore();
+
+        final var index = query.getStateIndex();
+        final int parentId = index.idOf(48);
+        assertTrue(index.release(48));
+        assertTrue(backtrace.getTraceLink(48).isEmpty(), "A released state should lose its back-link");
+        assertEquals(parentId, index.getOrAssign(1000), "The released id should be reused");
+        assertTrue(backtrace.getTraceLink(96).isEmpty(), "A link to a reused id should not be followed");
+        assertEquals(List.of(96), backtrace.getStateTrace(96));
+    }
+
+    @Test
+    void attach_lowerPathFound() {
+        // Transitions to a state through an "expensive" operator are replaced once a cheaper path is found
+        final NextFunction<Integer> weighted = state -> Stream.of(
+                new Transition<>(state, state + 1, 1.0),
+                new Transition<>(state, state + 3, 10.0)
+        ).filter(transition -> transition.getTargetState() <= 6);
+        final var traceCost = new TraceCostBehaviour<Integer>(transition -> (double) transition.getUserdata());
+        final var query = ExplorationPresets.setupBfs(weighted);
+        final var backtrace = new CompactBacktraceBehaviour<Integer>();
+        query.addBehaviour(traceCost);
+        backtrace.attach(query, traceCost);
+        query.getFrontier().add(Stream.of(0));
+        query.explore();
+
+        assertEquals(List.of(0, 1, 2, 3), backtrace.getStateTrace(3));
+        assertEquals(List.of(1.0, 1.0, 1.0), backtrace.getTransitionTrace(3).stream()
+                .map(Transition::getUserdata)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void attach_otherQuery() {
+        final var backtrace = new CompactBacktraceBehaviour<Integer>();
+        backtrace.attach(ExplorationPresets.setupBfs(operations));
+        final Query<Integer> other = ExplorationPresets.setupBfs(operations);
+        assertThrows(IllegalStateException.class, () -> backtrace.attach(other));
+    }
+}
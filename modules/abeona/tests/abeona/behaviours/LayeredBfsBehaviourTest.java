@@ -0,0 +1,77 @@
+package abeona.behaviours;
+
+import abeona.GridFixture;
+import abeona.NextFunction;
+import abeona.Query;
+import abeona.frontiers.HashQueueFrontier;
+import abeona.heaps.HashSetHeap;
+import abeona.heaps.LayeredHeap;
+import abeona.util.ExplorationPresets;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LayeredBfsBehaviourTest {
+    private static final int SIDE = 50;
+
+    // An undirected grid, every neighbour of a state lies in an adjacent layer
+    private static final NextFunction<Integer> grid = new GridFixture(SIDE).next();
+
+    @Test
+    void constructor() {
+        assertThrows(IllegalArgumentException.class, () -> new LayeredBfsBehaviour<Integer>(0));
+        assertThrows(IllegalArgumentException.class, () -> new LayeredHeap<Integer>(0));
+    }
+
+    @Test
+    void attach_requiresLayeredHeap() {
+        final var query = new Query<>(HashQueueFrontier.<Integer>fifoFrontier(), new HashSetHeap<>(), grid);
+        assertThrows(IllegalArgumentException.class, () -> query.addBehaviour(new LayeredBfsBehaviour<>(4)));
+    }
+
+    @Test
+    void explore_expandsOnce() {
+        final var query = ExplorationPresets.setupLayeredBfs(grid, 2, 8);
+        final Set<Integer> evaluated = new HashSet<>();
+        final long[] maxHeapSize = {0};
+        query.afterStateEvaluation.tap(event -> {
+            assertTrue(evaluated.add(event.getSourceState()), "No state should be expanded twice");
+            maxHeapSize[0] = Math.max(maxHeapSize[0], ((LayeredHeap<Integer>) query.getHeap()).size());
+        });
+        query.getFrontier().add(Stream.of(0));
+        query.explore();
+        assertEquals(SIDE * SIDE, evaluated.size());
+        // Two layers of a grid explored from a corner hold at most two diagonals
+        assertTrue(maxHeapSize[0] <= 2 * SIDE, "The heap should only hold the retained layers");
+    }
+
+    @Test
+    void getStateTrace_throughRelays() {
+        final var query = ExplorationPresets.setupLayeredBfs(grid, 2, 8);
+        @SuppressWarnings("unchecked") final var layered = (LayeredBfsBehaviour<Integer>) query.getBehaviours(LayeredBfsBehaviour.class).findFirst().orElseThrow();
+        final int goal = SIDE * SIDE - 1;
+        final var termination = new TerminateOnGoalStateBehaviour<Integer>(state -> state == goal);
+        query.addBehaviour(termination);
+        query.getFrontier().add(Stream.of(0));
+        assertEquals(goal, termination.wrapExploration(query).orElseThrow());
+
+        assertFalse(query.getHeap().contains(0), "The initial layer should have been dropped");
+        assertEquals(2 * (SIDE - 1), layered.getDepth(goal).orElseThrow());
+        final var trace = layered.getStateTrace(goal);
+        assertEquals(2 * (SIDE - 1) + 1, trace.size(), "The trace should be a shortest path");
+        assertEquals(0, trace.get(0));
+        assertEquals(goal, trace.get(trace.size() - 1));
+        for (int i = 1; i < trace.size(); i++) {
+            final int step = Math.abs(trace.get(i) - trace.get(i - 1));
+            assertTrue(step == 1 || step == SIDE, "Consecutive states on the trace should be neighbours");
+        }
+        assertTrue(layered.getRelayStateCount() < SIDE * SIDE / 4, "Only the relay layers should be kept");
+        assertEquals(trace.size() - 1, layered.getTransitionTrace(goal).size());
+        assertEquals(List.of(0), layered.getStateTrace(0), "An initial state is its own trace");
+    }
+}
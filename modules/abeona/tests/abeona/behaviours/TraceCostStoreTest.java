@@ -0,0 +1,49 @@
+package abeona.behaviours;
+
+import abeona.NextFunction;
+import abeona.metadata.StateIndex;
+import abeona.util.ExplorationPresets;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceCostStoreTest {
+    @Test
+    void indexed() {
+        final var index = new StateIndex<String>();
+        final var store = TraceCostStore.indexed(index);
+        assertEquals(-1, store.get("a", -1));
+        store.set("a", 2.5);
+        assertEquals(2.5, store.get("a", -1));
+        assertEquals(-1, store.get("b", -1), "A state without a stored cost should produce the fallback");
+        index.getOrAssign("c");
+        assertEquals(-1, store.get("c", -1), "A state with an id but without a cost should produce the fallback");
+        assertSame(index, store.getIndex());
+        assertEquals(2.5, store.getById(index.idOf("a"), -1));
+        assertEquals(-1, store.getById(index.idOf("c"), -1));
+        assertEquals(-1, store.getById(-1, -1), "An unassigned id should produce the fallback");
+    }
+
+    @Test
+    void integer() {
+        final var store = TraceCostStore.integer(new StateIndex<String>());
+        store.set("a", 3);
+        assertEquals(3, store.get("a", Double.NaN));
+        assertTrue(Double.isNaN(store.get("b", Double.NaN)));
+        assertEquals(3, store.getById(store.getIndex().idOf("a"), Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> store.set("a", 0.5));
+    }
+
+    @Test
+    void setupBfsMaxDepth() {
+        final NextFunction<Integer> next = NextFunction.wrap(state -> Stream.of(state + 1, state - 1));
+        final var query = ExplorationPresets.setupBfsMaxDepth(next, 5);
+        final var counter = new IterationCounter<Integer>();
+        query.addBehaviour(counter);
+        query.getFrontier().add(Stream.of(0));
+        query.explore();
+        assertEquals(11, counter.getCounter(query).orElseThrow(), "Only states within 5 steps of the initial state should be explored");
+    }
+}
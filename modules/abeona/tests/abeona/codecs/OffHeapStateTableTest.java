@@ -0,0 +1,168 @@
+package abeona.codecs;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapStateTableTest {
+    // 12 bytes per state, so encodings are compared both a long and a byte at a time
+    private static final StateCodec<Long> codec = new StateCodec<>() {
+        @Override
+        public int getEncodedSize() {
+            return Long.BYTES + Integer.BYTES;
+        }
+
+        @Override
+        public void encode(Long state, ByteBuffer target) {
+            target.putLong(state);
+            target.putInt((int) (state * 31));
+        }
+
+        @Override
+        public Long decode(ByteBuffer source) {
+            return source.getLong(source.position());
+        }
+    };
+
+    @Test
+    void constructor() {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapStateTable<Long>(null, 16));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapStateTable<>(codec, 0));
+        assertEquals(16, new OffHeapStateTable<>(codec, 1).getSlotCount());
+        assertEquals(256, new OffHeapStateTable<>(codec, 100).getSlotCount());
+    }
+
+    @Test
+    void add_contains_remove() {
+        final var table = new OffHeapStateTable<>(codec, 16);
+        assertTrue(table.add(1L));
+        assertFalse(table.add(1L), "Adding a known state should not modify the table");
+        assertTrue(table.contains(1L));
+        assertFalse(table.contains(2L));
+        assertEquals(1, table.size());
+        assertTrue(table.remove(1L));
+        assertFalse(table.remove(1L));
+        assertFalse(table.contains(1L));
+        assertEquals(0, table.size());
+        assertThrows(IllegalArgumentException.class, () -> table.add(null));
+    }
+
+    @Test
+    void add_grow() {
+        final var table = new OffHeapStateTable<>(codec, 1);
+        for (long state = 0; state < 10000; state++) {
+            assertTrue(table.add(state));
+        }
+        assertEquals(10000, table.size());
+        assertEquals(16384, table.getSlotCount());
+        assertEquals(16384L * (codec.getEncodedSize() + 1), table.getMemoryUsage());
+        for (long state = 0; state < 10000; state++) {
+            assertTrue(table.contains(state), "Every state should remain known after growing");
+        }
+        assertFalse(table.contains(10000L));
+    }
+
+    @Test
+    void remove_reusesTombstones() {
+        // A sliding window of states, every insertion follows a removal so the table fills up with tombstones
+        final var table = new OffHeapStateTable<>(codec, 100);
+        final int slots = table.getSlotCount();
+        for (long state = 0; state < 100; state++) {
+            table.add(state);
+        }
+        for (long state = 100; state < 20000; state++) {
+            assertTrue(table.remove(state - 100));
+            assertTrue(table.add(state));
+            assertEquals(100, table.size());
+        }
+        assertEquals(slots, table.getSlotCount(), "Rehashing away the tombstones should not grow the table");
+        for (long state = 0; state < 20000; state++) {
+            assertEquals(state >= 19900, table.contains(state));
+        }
+        assertTrue(table.remove(19950L));
+        assertTrue(table.add(19950L), "A removed state should be accepted again");
+        assertFalse(table.add(19951L), "A state behind a tombstone in its probe sequence should still be found");
+    }
+
+    @Test
+    void segments() {
+        // 13 byte slots in segments of 256 bytes, 16 slots per segment
+        final var table = new OffHeapStateTable<>(codec, 1, true, 256, 1 << 30);
+        for (long state = 0; state < 5000; state++) {
+            assertTrue(table.add(state, state * 2));
+        }
+        assertTrue(table.getSlotCount() / 16 > 1, "The slots should be spread over multiple segments");
+        for (long state = 0; state < 5000; state += 2) {
+            assertTrue(table.remove(state));
+        }
+        final Set<Long> decoded = new HashSet<>();
+        for (int slot = 0; slot < table.getSlotCount(); slot++) {
+            if (table.isOccupied(slot)) {
+                final long state = table.decode(slot);
+                assertEquals(state * 2, table.getValue(state, -1));
+                decoded.add(state);
+            }
+        }
+        assertEquals(2500, decoded.size());
+        for (long state = 0; state < 5000; state++) {
+            assertEquals(state % 2 == 1, decoded.contains(state));
+            assertEquals(state % 2 == 1, table.contains(state));
+        }
+    }
+
+    @Test
+    void getValue() {
+        final var table = new OffHeapStateTable<>(codec, 1, true);
+        assertTrue(table.add(1L, 10));
+        assertFalse(table.add(1L, 20), "Adding a known state should not modify the table");
+        assertEquals(10, table.getValue(1L, -1), "The value of a known state should not be replaced");
+        assertEquals(-1, table.getValue(2L, -1));
+        for (long state = 2; state < 1000; state++) {
+            table.add(state, state * 10);
+        }
+        for (long state = 1; state < 1000; state++) {
+            assertEquals(state * 10, table.getValue(state, -1), "Values should move along when the table grows");
+        }
+        table.remove(1L);
+        assertEquals(-1, table.getValue(1L, -1));
+
+        final var withoutValues = new OffHeapStateTable<>(codec, 1);
+        assertThrows(IllegalStateException.class, () -> withoutValues.add(1L, 10));
+        assertThrows(IllegalStateException.class, () -> withoutValues.getValue(1L, -1));
+    }
+
+    @Test
+    void add_full() {
+        // 16 slots fit 12 states before the table has to grow
+        final var table = new OffHeapStateTable<>(codec, 1, false, 1 << 30, 16);
+        for (long state = 0; state < 12; state++) {
+            assertTrue(table.add(state));
+        }
+        assertThrows(IllegalStateException.class, () -> table.add(12L));
+        assertEquals(12, table.size(), "A failed insertion should not be counted");
+        assertFalse(table.contains(12L), "A failed insertion should not be stored");
+        assertTrue(table.remove(0L));
+        assertTrue(table.add(12L), "A removal should make room for another state");
+        assertEquals(16, table.getSlotCount());
+    }
+
+    @Test
+    void clear() {
+        final var table = new OffHeapStateTable<>(codec, 1);
+        for (long state = 0; state < 100; state++) {
+            table.add(state);
+        }
+        final int slots = table.getSlotCount();
+        final int modifications = table.getModificationCounter();
+        table.clear();
+        assertEquals(0, table.size());
+        assertEquals(slots, table.getSlotCount());
+        assertNotEquals(modifications, table.getModificationCounter());
+        assertFalse(table.contains(1L));
+        assertTrue(table.add(1L));
+    }
+}
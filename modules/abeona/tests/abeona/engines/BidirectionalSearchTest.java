@@ -0,0 +1,97 @@
+package abeona.engines;
+
+import abeona.GridFixture;
+import abeona.NextFunction;
+import abeona.Transition;
+import abeona.behaviours.TerminateOnGoalStateBehaviour;
+import abeona.util.ExplorationPresets;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BidirectionalSearchTest {
+    private static final int SIDE = 60;
+
+    // The grid is undirected, so it is its own reverse
+    private static final NextFunction<Integer> grid = new GridFixture(SIDE).next();
+    // Symmetric weights, the reverse of a transition costs the same as the transition
+    private static final ToDoubleFunction<Transition<Integer>> weights = GridFixture.symmetricWeights();
+
+    @Test
+    void constructor() {
+        assertThrows(IllegalArgumentException.class, () -> new BidirectionalSearch<>(null, grid, weights));
+        assertThrows(IllegalArgumentException.class, () -> new BidirectionalSearch<>(grid, null, weights));
+        assertThrows(IllegalArgumentException.class, () -> new BidirectionalSearch<>(grid, grid, null));
+    }
+
+    @Test
+    void search_optimalCost() {
+        final int source = SIDE * (SIDE / 2) + 5;
+        final int target = SIDE * (SIDE / 2) + SIDE - 6;
+        final var reference = ExplorationPresets.setupDijkstra(grid, weights);
+        final var termination = new TerminateOnGoalStateBehaviour<Integer>(state -> state == target);
+        final long[] referenceExpanded = {0};
+        reference.afterStateEvaluation.tap(event -> referenceExpanded[0]++);
+        reference.addBehaviour(termination);
+        reference.getFrontier().add(Stream.of(source));
+        reference.explore();
+        final double expected = GridFixture.costOf(reference, target);
+
+        final var engine = new BidirectionalSearch<>(grid, grid, weights);
+        assertEquals(target, engine.search(Stream.of(source), Stream.of(target)).orElseThrow());
+        assertEquals(expected, engine.getTraceCost().orElseThrow(), "The path should have the optimal cost");
+        final var transitions = engine.getTransitionTrace();
+        assertEquals(expected, transitions.stream().mapToDouble(weights).sum());
+        final var states = engine.getStateTrace();
+        assertEquals(transitions.size() + 1, states.size());
+        assertEquals(source, states.get(0));
+        assertEquals(target, states.get(states.size() - 1));
+        for (int i = 0; i < transitions.size(); i++) {
+            assertEquals(states.get(i), transitions.get(i).getSourceState());
+            assertEquals(states.get(i + 1), transitions.get(i).getTargetState());
+        }
+        assertTrue(states.contains(engine.getMeetingState().orElseThrow()));
+        assertTrue(engine.getExpandedCount() < referenceExpanded[0], "Both searches together should expand fewer states than a single search");
+    }
+
+    @Test
+    void search_directed() {
+        // Doubling or incrementing a number, the reverse halves even numbers or decrements
+        final NextFunction<Integer> numbers = NextFunction.wrap(number -> Stream.of(number * 2, number + 1));
+        final NextFunction<Integer> reverse = NextFunction.wrap(number -> Stream.of(number / 2, number - 1)
+                .filter(predecessor -> predecessor >= 1)
+                .filter(predecessor -> predecessor * 2 == number || predecessor + 1 == number));
+        final var engine = new BidirectionalSearch<>(numbers, reverse, unused -> 1);
+        assertEquals(100, engine.search(Stream.of(1), Stream.of(100)).orElseThrow());
+        assertEquals(8, engine.getTraceCost().orElseThrow());
+        final var states = engine.getStateTrace();
+        assertEquals(9, states.size());
+        for (int i = 1; i < states.size(); i++) {
+            final int previous = states.get(i - 1);
+            assertTrue(states.get(i) == previous * 2 || states.get(i) == previous + 1, "The trace should follow forward transitions");
+        }
+    }
+
+    @Test
+    void search_unreachable() {
+        final NextFunction<Integer> line = NextFunction.wrap(number -> number < 10 ? Stream.of(number + 1) : Stream.empty());
+        final NextFunction<Integer> reverse = NextFunction.wrap(number -> number > 0 && number <= 10 ? Stream.of(number - 1) : Stream.empty());
+        final var engine = new BidirectionalSearch<>(line, reverse, unused -> 1);
+        assertTrue(engine.search(Stream.of(0), Stream.of(20)).isEmpty());
+        assertTrue(engine.getTraceCost().isEmpty());
+        assertTrue(engine.getStateTrace().isEmpty());
+        assertTrue(engine.getTransitionTrace().isEmpty());
+    }
+
+    @Test
+    void search_sourceIsTarget() {
+        final var engine = new BidirectionalSearch<>(grid, grid, weights);
+        assertEquals(7, engine.search(Stream.of(3, 7), Stream.of(7, 9)).orElseThrow());
+        assertEquals(0, engine.getTraceCost().orElseThrow());
+        assertEquals(List.of(7), engine.getStateTrace());
+        assertTrue(engine.getTransitionTrace().isEmpty());
+    }}
@@ -0,0 +1,88 @@
+package abeona.engines;
+
+import abeona.GridFixture;
+import abeona.NextFunction;
+import abeona.Transition;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashDistributedAStarTest {
+    private static final int SIDE = 40;
+
+    private static final GridFixture fixture = new GridFixture(SIDE);
+    private static final NextFunction<Integer> grid = fixture.next();
+    private static final ToDoubleFunction<Transition<Integer>> weights = GridFixture.weights();
+    private static final ToDoubleFunction<Integer> manhattan = fixture.manhattan();
+
+    @Test
+    void constructor() {
+        assertThrows(IllegalArgumentException.class, () -> new HashDistributedAStar<>(null, weights, manhattan, 1));
+        assertThrows(IllegalArgumentException.class, () -> new HashDistributedAStar<>(grid, null, manhattan, 1));
+        assertThrows(IllegalArgumentException.class, () -> new HashDistributedAStar<>(grid, weights, null, 1));
+        assertThrows(IllegalArgumentException.class, () -> new HashDistributedAStar<>(grid, weights, manhattan, 0));
+    }
+
+    @Test
+    void search_optimalCost() {
+        final int goal = SIDE * SIDE - 1;
+        final double expected = fixture.dijkstraCost(weights, 0, goal);
+
+        for (int parallelism : new int[]{1, 4}) {
+            final var engine = new HashDistributedAStar<>(grid, weights, manhattan, parallelism);
+            final List<Integer> goals = new ArrayList<>();
+            engine.onGoal.tap(goals::add);
+            assertEquals(goal, engine.search(Stream.of(0), state -> state == goal).orElseThrow());
+            assertEquals(expected, engine.getTraceCost(goal).orElseThrow(), "The returned goal should be reached with the optimal cost");
+            assertFalse(goals.isEmpty(), "Finding the goal should fire the event");
+
+            final var transitions = engine.getTransitionTrace(goal);
+            assertEquals(expected, transitions.stream().mapToDouble(weights).sum(), "The trace should have the optimal cost");
+            final var states = engine.getStateTrace(goal);
+            assertEquals(transitions.size() + 1, states.size());
+            assertEquals(0, states.get(0));
+            assertEquals(goal, states.get(states.size() - 1));
+            assertEquals(states.get(states.size() - 2), engine.getTraceLink(goal).orElseThrow());
+        }
+    }
+
+    @Test
+    void search_cheapestOfMultipleGoals() {
+        // The heuristic is zero so every goal is admissible, the cheapest of both goals should be returned
+        final int near = SIDE * 3 + 3;
+        final int far = SIDE * SIDE - 1;
+        final var engine = new HashDistributedAStar<>(grid, weights, unused -> 0, 3);
+        final var found = engine.search(Stream.of(0), state -> state == near || state == far).orElseThrow();
+        assertEquals(near, found);
+        assertTrue(engine.getTraceCost(far).isEmpty() || engine.getTraceCost(far).getAsDouble() > engine.getTraceCost(near).getAsDouble());
+    }
+
+    @Test
+    void search_noGoal() {
+        final var engine = new HashDistributedAStar<>(grid, weights, unused -> 0, 2);
+        assertTrue(engine.search(Stream.of(0), state -> false).isEmpty());
+        assertTrue(engine.getTraceCost(SIDE * SIDE - 1).isPresent(), "The whole state space should have been explored");
+        assertTrue(engine.getExpandedCount() >= SIDE * SIDE, "States may be expanded again when a cheaper path arrives later");
+    }
+
+    @Test
+    void search_initialGoal() {
+        final var engine = new HashDistributedAStar<>(grid, weights, manhattan, 2);
+        assertEquals(5, engine.search(Stream.of(5), state -> state == 5).orElseThrow());
+        assertEquals(List.of(5), engine.getStateTrace(5));
+        assertTrue(engine.getTransitionTrace(5).isEmpty());
+    }
+
+    @Test
+    void search_propagatesErrors() {
+        final var engine = new HashDistributedAStar<Integer>(state -> {
+            throw new IllegalStateException("failure");
+        }, weights, manhattan, 2);
+        final var error = assertThrows(RuntimeException.class, () -> engine.search(Stream.of(0), state -> false));
+        assertTrue(error.getCause() instanceof IllegalStateException);
+    }}
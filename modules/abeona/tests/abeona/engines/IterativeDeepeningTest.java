@@ -0,0 +1,92 @@
+package abeona.engines;
+
+import abeona.GridFixture;
+import abeona.NextFunction;
+import abeona.PushNextFunction;
+import abeona.Transition;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IterativeDeepeningTest {
+    private static final int SIDE = 5;
+
+    private static final GridFixture fixture = new GridFixture(SIDE);
+    private static final NextFunction<Integer> grid = fixture.next();
+    private static final ToDoubleFunction<Transition<Integer>> weights = GridFixture.weights(3);
+    private static final ToDoubleFunction<Integer> manhattan = fixture.manhattan();
+
+    @Test
+    void constructor() {
+        assertThrows(IllegalArgumentException.class, () -> new IterativeDeepening<Integer>(null));
+        assertThrows(IllegalArgumentException.class, () -> new IterativeDeepening<>(grid, null, manhattan));
+        assertThrows(IllegalArgumentException.class, () -> new IterativeDeepening<>(grid, weights, null));
+        final var engine = new IterativeDeepening<>(grid);
+        assertThrows(IllegalArgumentException.class, () -> engine.search(null, state -> true));
+        assertThrows(IllegalArgumentException.class, () -> engine.search(Stream.of(0), null));
+        assertThrows(IllegalArgumentException.class, () -> engine.search(Stream.of(0), state -> true, -1));
+    }
+
+    @Test
+    void search_shortestDepth() {
+        // An infinite state space in which a visited set would keep growing, doubling or incrementing a number
+        final NextFunction<Integer> numbers = PushNextFunction.wrap((number, sink) -> {
+            sink.accept(number * 2);
+            sink.accept(number + 1);
+        });
+        final var engine = new IterativeDeepening<>(numbers);
+        assertEquals(100, engine.search(Stream.of(1), state -> state == 100).orElseThrow());
+        // 1 -> 2 -> 3 -> 6 -> 12 -> 24 -> 25 -> 50 -> 100
+        assertEquals(List.of(1, 2, 3, 6, 12, 24, 25, 50, 100), engine.getStateTrace());
+        assertEquals(8, engine.getTransitionTrace().size());
+        assertEquals(8, engine.getCostBound());
+        assertEquals(9, engine.getIterationCount());
+    }
+
+    @Test
+    void search_optimalCost() {
+        final int goal = SIDE * SIDE - 1;
+        final double expected = fixture.dijkstraCost(weights, 0, goal);
+
+        final var engine = new IterativeDeepening<>(grid, weights, manhattan);
+        assertEquals(goal, engine.search(Stream.of(0), state -> state == goal).orElseThrow());
+        final var transitions = engine.getTransitionTrace();
+        assertEquals(expected, transitions.stream().mapToDouble(weights).sum(), "The trace should have the optimal cost");
+        final var states = engine.getStateTrace();
+        assertEquals(transitions.size() + 1, states.size());
+        assertEquals(0, states.get(0));
+        assertEquals(goal, states.get(states.size() - 1));
+        assertEquals(states.size(), states.stream().distinct().count(), "The trace should not contain cycles");
+    }
+
+    @Test
+    void search_maxCost() {
+        final var engine = new IterativeDeepening<>(grid);
+        final int goal = SIDE * SIDE - 1;
+        assertTrue(engine.search(Stream.of(0), state -> state == goal, 2 * (SIDE - 1) - 1).isEmpty());
+        assertTrue(engine.getStateTrace().isEmpty());
+        assertEquals(goal, engine.search(Stream.of(0), state -> state == goal, 2 * (SIDE - 1)).orElseThrow());
+        assertEquals(2 * (SIDE - 1) + 1, engine.getStateTrace().size());
+    }
+
+    @Test
+    void search_exhaustsWithoutGoal() {
+        // A cycle of states, only the path check stops the search from walking around forever
+        final NextFunction<Integer> cycle = NextFunction.wrap(state -> Stream.of((state + 1) % 10));
+        final var engine = new IterativeDeepening<>(cycle);
+        assertTrue(engine.search(Stream.of(0), state -> false).isEmpty());
+        assertEquals(Double.POSITIVE_INFINITY, engine.getCostBound(), "The search should end when no path is pruned");
+        assertEquals(10, engine.getIterationCount());
+    }
+
+    @Test
+    void search_initialGoal() {
+        final var engine = new IterativeDeepening<>(grid, weights, manhattan);
+        assertEquals(24, engine.search(Stream.of(3, 24), state -> state == 24).orElseThrow());
+        assertEquals(List.of(24), engine.getStateTrace());
+        assertTrue(engine.getTransitionTrace().isEmpty());
+    }}
@@ -0,0 +1,88 @@
+package abeona.engines;
+
+import abeona.NextFunction;
+import abeona.PushNextFunction;
+import abeona.Transition;
+import abeona.util.ExplorationPresets;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelBfsTest {
+    private static final int SIDE = 100;
+
+    private static final PushNextFunction<Integer> grid = (cell, sink) -> {
+        final int x = cell / SIDE;
+        final int y = cell % SIDE;
+        if (x > 0) sink.accept(new Transition<>(cell, cell - SIDE));
+        if (x < SIDE - 1) sink.accept(new Transition<>(cell, cell + SIDE));
+        if (y > 0) sink.accept(new Transition<>(cell, cell - 1));
+        if (y < SIDE - 1) sink.accept(new Transition<>(cell, cell + 1));
+    };
+
+    @Test
+    void constructor() {
+        assertThrows(IllegalArgumentException.class, () -> new ParallelBfs<>(null));
+        assertThrows(IllegalArgumentException.class, () -> new ParallelBfs<>(grid, null, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ParallelBfs<>(grid, ForkJoinPool.commonPool(), 0));
+    }
+
+    @Test
+    void search_shortestTrace() {
+        final var pool = new ForkJoinPool(4);
+        try {
+            final var engine = new ParallelBfs<>(grid, pool, 8);
+            final int goal = SIDE * SIDE - 1;
+            assertEquals(goal, engine.search(Stream.of(0), state -> state == goal).orElseThrow());
+            final var trace = engine.getStateTrace(goal);
+            assertEquals(2 * (SIDE - 1) + 1, trace.size(), "The trace should have the minimal number of transitions");
+            assertEquals(2 * (SIDE - 1), engine.getDepth());
+            assertEquals(0, trace.get(0));
+            for (int i = 1; i < trace.size(); i++) {
+                final int step = Math.abs(trace.get(i) - trace.get(i - 1));
+                assertTrue(step == 1 || step == SIDE, "Consecutive states on the trace should be neighbours");
+            }
+            assertTrue(engine.getTraceLink(0).isEmpty(), "Initial states have no discovering state");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void search_initialGoal() {
+        final var engine = new ParallelBfs<>(grid);
+        assertEquals(5, engine.search(Stream.of(5), state -> state == 5).orElseThrow());
+        assertEquals(List.of(5), engine.getStateTrace(5));
+        assertEquals(0, engine.getDepth());
+    }
+
+    @Test
+    void explore_matchesSetupBfs() {
+        final NextFunction<Integer> streamed = grid::apply;
+        final var engine = new ParallelBfs<>(streamed);
+        assertEquals(SIDE * SIDE, engine.explore(Stream.of(0)));
+        assertTrue(engine.search(Stream.of(0), state -> true).isEmpty(), "Known states should not be explored again");
+        final var query = ExplorationPresets.setupBfs(streamed);
+        query.getFrontier().add(Stream.of(0));
+        query.explore();
+        for (int cell = 0; cell < SIDE * SIDE; cell += 13) {
+            assertTrue(engine.isDiscovered(cell));
+            assertTrue(query.getHeap().contains(cell));
+        }
+        engine.clear();
+        assertEquals(0, engine.getDiscoveredCount());
+        assertFalse(engine.isDiscovered(0));
+    }
+
+    @Test
+    void search_propagatesErrors() {
+        final var engine = new ParallelBfs<Integer>(state -> {
+            throw new IllegalStateException("failure");
+        });
+        assertThrows(IllegalStateException.class, () -> engine.search(Stream.of(0), state -> false));
+    }
+}
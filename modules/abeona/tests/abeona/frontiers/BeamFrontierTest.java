@@ -0,0 +1,91 @@
+package abeona.frontiers;
+
+import abeona.NextFunction;
+import abeona.Transition;
+import abeona.util.ExplorationPresets;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BeamFrontierTest {
+    @Test
+    void constructor() {
+        assertThrows(IllegalArgumentException.class, () -> BeamFrontier.withCapacity(null, 1));
+        assertThrows(IllegalArgumentException.class, () -> BeamFrontier.withCapacity(Comparator.<Integer>naturalOrder(), 0));
+        assertDoesNotThrow(() -> BeamFrontier.withCapacity(Comparator.<Integer>naturalOrder(), 1));
+    }
+
+    @Test
+    void add_keepsBest() {
+        final var frontier = BeamFrontier.withCapacity(Comparator.<Integer>naturalOrder(), 50);
+        final var random = new Random(1);
+        final List<Integer> values = new ArrayList<>();
+        int attempts = 0;
+        for (int i = 0; i < 1000; i++) {
+            final int value = random.nextInt(1000000);
+            if (!values.contains(value)) {
+                values.add(value);
+            }
+            if (!frontier.contains(value)) {
+                attempts++;
+            }
+            frontier.add(value);
+            assertTrue(frontier.size() <= 50, "The frontier should never exceed its capacity");
+        }
+        values.sort(Integer::compare);
+        assertEquals(50, frontier.size());
+        assertEquals(values.get(49), frontier.peekLast().orElseThrow());
+        for (Integer value : values.subList(0, 50)) {
+            assertEquals(value, frontier.next(), "The best states should be kept and produced in order");
+        }
+        assertFalse(frontier.hasNext());
+        assertEquals(attempts - 50, frontier.getEvictionCount(), "Every state beyond the capacity should be evicted or rejected");
+    }
+
+    @Test
+    void add_full() {
+        final var frontier = BeamFrontier.withCapacity(Comparator.<Integer>naturalOrder(), 2);
+        assertTrue(frontier.add(5));
+        assertTrue(frontier.add(3));
+        assertFalse(frontier.add(3), "Adding a known state should not modify the frontier");
+        assertFalse(frontier.add(5), "Adding a known state should not modify the frontier");
+        assertFalse(frontier.add(7), "A worse state should be rejected when the frontier is full");
+        assertTrue(frontier.add(4));
+        assertFalse(frontier.contains(5), "The worst state should be evicted");
+        assertEquals(List.of(3, 4), List.of(frontier.next(), frontier.next()));
+    }
+
+    @Test
+    void remove() {
+        final var frontier = BeamFrontier.withCapacity(Comparator.<Integer>naturalOrder(), 10);
+        frontier.add(Stream.of(5, 3, 8, 1, 9));
+        assertTrue(frontier.remove(3));
+        assertFalse(frontier.remove(3));
+        assertEquals(9, frontier.removeLast());
+        assertEquals(8, frontier.peekLast().orElseThrow());
+        assertEquals(1, frontier.next());
+        assertEquals(5, frontier.next());
+        assertEquals(8, frontier.next());
+        assertFalse(frontier.hasNext());
+    }
+
+    @Test
+    void setupBeamSearch() {
+        // Every state leads to ten states, the beam should only follow the lowest ones
+        final NextFunction<Integer> tree = state -> state >= 1000
+                ? Stream.empty()
+                : Stream.iterate(state * 10, child -> child + 1).limit(10).map(child -> new Transition<>(state, child));
+        final var query = ExplorationPresets.setupBeamSearch(tree, Comparator.<Integer>reverseOrder(), 3);
+        final List<Integer> explored = new ArrayList<>();
+        query.beforeStateEvaluation.tap(event -> explored.add(event.getSourceState()));
+        query.getFrontier().add(Stream.of(1));
+        query.explore();
+        assertEquals(List.of(1, 19, 199, 1999, 1998, 1997), explored, "States that fell out of the beam should not be explored");
+    }
+}
@@ -0,0 +1,105 @@
+package abeona.frontiers;
+
+import abeona.GridFixture;
+import abeona.util.ExplorationPresets;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BucketFrontierTest {
+    @Test
+    void constructor() {
+        assertThrows(IllegalArgumentException.class, () -> BucketFrontier.withPriority(null));
+    }
+
+    @Test
+    void next_order() {
+        final var frontier = BucketFrontier.<Integer>withPriority(i -> i / 4);
+        final var random = new Random(1);
+        final List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            // Spans negative priorities and forces the buckets to shift in both directions
+            final int value = random.nextInt(20000) - 10000;
+            if (frontier.add(value)) {
+                values.add(value);
+            }
+        }
+        values.sort(Integer::compare);
+        assertEquals(values.size(), frontier.size());
+        int previous = Integer.MIN_VALUE;
+        for (int i = 0; i < values.size(); i++) {
+            assertTrue(frontier.hasNext());
+            final int priority = frontier.peekPriority().orElseThrow();
+            final int value = frontier.next();
+            assertEquals(value / 4, priority);
+            assertTrue(previous <= priority, "States should be produced in order of priority");
+            previous = priority;
+        }
+        assertFalse(frontier.hasNext());
+        assertTrue(frontier.peekPriority().isEmpty());
+    }
+
+    @Test
+    void next_ties() {
+        final var frontier = BucketFrontier.<String>withPriority(unused -> 1);
+        frontier.add(Stream.of("Aa", "BB", "C"));
+        assertEquals(3, frontier.size(), "States with colliding hashes should all be kept");
+        assertEquals(List.of("Aa", "BB", "C"), frontier.stream().collect(Collectors.toList()));
+        assertEquals("Aa", frontier.next());
+        assertEquals("BB", frontier.next());
+        assertEquals("C", frontier.next());
+    }
+
+    @Test
+    void remove() {
+        final var frontier = BucketFrontier.<Integer>withPriority(i -> i);
+        frontier.add(Stream.of(5, 3, 8, 1, 9));
+        assertFalse(frontier.add(5), "Adding a known state should not modify the frontier");
+        assertTrue(frontier.remove(3));
+        assertFalse(frontier.remove(3));
+        assertFalse(frontier.contains(3));
+        assertEquals(9, frontier.removeLast());
+        assertEquals(8, frontier.peekLast().orElseThrow());
+        assertEquals(1, frontier.next());
+        assertEquals(5, frontier.next());
+        assertEquals(8, frontier.next());
+        assertFalse(frontier.hasNext());
+        // Once empty the buckets may be rebased on any priority
+        frontier.add(Stream.of(1_000_000, 999_999));
+        assertEquals(999_999, frontier.next());
+    }
+
+    @Test
+    void mutateOrderedProperty() {
+        final Map<String, Integer> costs = new HashMap<>();
+        costs.put("a", 1);
+        costs.put("b", 2);
+        costs.put("c", 3);
+        final var frontier = BucketFrontier.<String>withPriority(costs::get);
+        frontier.add(Stream.of("a", "b", "c"));
+        frontier.mutateOrderedProperty("c", state -> costs.put(state, 0));
+        frontier.mutateOrderedProperty("a", state -> costs.put(state, 5));
+        frontier.mutateOrderedProperty("d", state -> costs.put(state, -1));
+        assertEquals(0, frontier.getPriority("c").orElseThrow());
+        assertTrue(frontier.getPriority("d").isEmpty(), "Mutating a state outside the frontier should not add it");
+        assertEquals("c", frontier.next());
+        assertEquals("b", frontier.next());
+        assertEquals("a", frontier.next());
+        assertFalse(frontier.hasNext());
+    }
+
+    @Test
+    void setupDialDijkstra_matchesSetupDijkstra() {
+        final var fixture = new GridFixture(30);
+        final var dial = ExplorationPresets.setupDialDijkstra(fixture.next(), GridFixture.integerWeights(7));
+        fixture.assertSameCosts(ExplorationPresets.setupDijkstra(fixture.next(), GridFixture.weights()), dial, 0);
+    }
+}
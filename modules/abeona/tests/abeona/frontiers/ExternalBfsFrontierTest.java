@@ -0,0 +1,74 @@
+package abeona.frontiers;
+
+import abeona.NextFunction;
+import abeona.Query;
+import abeona.TerminationType;
+import abeona.codecs.StateCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalBfsFrontierTest {
+    private static final int SIDE = 60;
+    private static final StateCodec<Integer> codec = StateCodec.ofInt(Integer::intValue, Integer::valueOf);
+
+    private static Stream<Integer> gridNeighbours(int cell) {
+        final int x = cell / SIDE;
+        final int y = cell % SIDE;
+        final var builder = Stream.<Integer>builder();
+        if (x > 0) builder.add(cell - SIDE);
+        if (x < SIDE - 1) builder.add(cell + SIDE);
+        if (y > 0) builder.add(cell - 1);
+        if (y < SIDE - 1) builder.add(cell + 1);
+        return builder.build();
+    }
+
+    @Test
+    void explore_layersWithoutDuplicates(@TempDir Path directory) throws IOException {
+        // A small run buffer forces every layer to be merged from several runs
+        try (final var frontier = new ExternalBfsFrontier<>(codec, directory, 64, Integer.MAX_VALUE)) {
+            final var query = new Query<>(frontier, frontier.getHeap(), NextFunction.wrap(ExternalBfsFrontierTest::gridNeighbours));
+            final Set<Integer> evaluated = new HashSet<>();
+            final int[] lastDistance = {0};
+            query.afterStatePicked.tap(event -> {
+                final int cell = event.getState();
+                assertTrue(evaluated.add(cell), "Every state should be evaluated exactly once");
+                final int distance = cell / SIDE + cell % SIDE;
+                assertTrue(distance >= lastDistance[0], "States should be produced in breadth-first order");
+                assertEquals(distance, frontier.getDepth());
+                lastDistance[0] = distance;
+            });
+            frontier.add(Stream.of(0));
+
+            assertEquals(TerminationType.FrontierExhaustion, query.explore());
+            assertEquals(SIDE * SIDE, evaluated.size());
+            assertEquals(2 * SIDE - 2, frontier.getDepth());
+        }
+        try (final var files = Files.list(directory)) {
+            assertEquals(0, files.count(), "Closing the frontier should delete its files");
+        }
+    }
+
+    @Test
+    void next_duplicatesWithinLayer(@TempDir Path directory) {
+        try (final var frontier = new ExternalBfsFrontier<>(codec, directory)) {
+            frontier.add(Stream.of(5, 3, 5, 1, 3));
+            assertTrue(frontier.hasNext());
+            assertEquals(3, frontier.getLayerSize());
+            frontier.add(Stream.of(3, 7));
+            assertEquals(1, frontier.next());
+            assertEquals(3, frontier.next());
+            assertEquals(5, frontier.next());
+            assertEquals(7, frontier.next(), "States of a previous layer should not be produced again");
+            assertFalse(frontier.hasNext());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package abeona.frontiers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashQueueFrontierTest {
+    @Test
+    void fifoFrontier() {
+        final var frontier = HashQueueFrontier.<Integer>fifoFrontier();
+        assertTrue(frontier.add(Stream.of(1, 2, 3)));
+        assertFalse(frontier.add(2), "Adding a known state should not modify the frontier");
+        assertEquals(3, frontier.size());
+        assertEquals(1, frontier.next());
+        assertEquals(2, frontier.next());
+        assertEquals(3, frontier.next());
+        assertFalse(frontier.hasNext());
+    }
+
+    @Test
+    void lifoFrontier() {
+        final var frontier = HashQueueFrontier.<Integer>lifoFrontier();
+        frontier.add(Stream.of(1, 2, 3));
+        assertEquals(3, frontier.next());
+        assertEquals(2, frontier.next());
+        frontier.add(4);
+        assertEquals(4, frontier.next());
+        assertEquals(1, frontier.next());
+        assertFalse(frontier.hasNext());
+    }
+
+    @Test
+    void remove() {
+        final var frontier = HashQueueFrontier.<Integer>fifoFrontier();
+        frontier.add(Stream.of(1, 2, 3, 4));
+        assertTrue(frontier.remove(1));
+        assertTrue(frontier.remove(3));
+        assertFalse(frontier.remove(3));
+        assertFalse(frontier.contains(3));
+        assertTrue(frontier.contains(4));
+        assertEquals(2, frontier.size());
+        assertEquals(2, frontier.next());
+        assertEquals(4, frontier.next());
+        assertFalse(frontier.hasNext());
+        assertTrue(frontier.add(3), "A removed state should be able to be added again");
+    }
+
+    @Test
+    void iterator_remove() {
+        final var frontier = HashQueueFrontier.<Integer>fifoFrontier();
+        frontier.add(Stream.of(1, 2, 3));
+        final var iterator = frontier.iterator();
+        assertEquals(1, iterator.next());
+        assertEquals(2, iterator.next());
+        iterator.remove();
+        assertEquals(3, iterator.next());
+        assertFalse(iterator.hasNext());
+        assertFalse(frontier.contains(2));
+        assertEquals(1, frontier.next());
+        assertEquals(3, frontier.next());
+    }
+}
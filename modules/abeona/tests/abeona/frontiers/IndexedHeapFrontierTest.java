@@ -0,0 +1,113 @@
+package abeona.frontiers;
+
+import abeona.behaviours.TraceCostStore;
+import abeona.metadata.StateIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedHeapFrontierTest {
+    @Test
+    void constructor() {
+        assertThrows(IllegalArgumentException.class, () -> IndexedHeapFrontier.withPriority(null));
+        assertThrows(IllegalArgumentException.class, () -> IndexedHeapFrontier.<Integer>withPriority(i -> i, 1));
+        assertDoesNotThrow(() -> IndexedHeapFrontier.<Integer>withPriority(i -> i, 2));
+    }
+
+    @Test
+    void next_order() {
+        final var frontier = IndexedHeapFrontier.<Integer>withPriority(i -> i);
+        final var random = new Random(1);
+        final List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            final int value = random.nextInt(1000000);
+            if (frontier.add(value)) {
+                values.add(value);
+            }
+        }
+        values.sort(Integer::compare);
+        assertEquals(values.size(), frontier.size());
+        for (Integer value : values) {
+            assertTrue(frontier.hasNext());
+            assertEquals(value, frontier.next(), "States should be produced in order of priority");
+        }
+        assertFalse(frontier.hasNext());
+    }
+
+    @Test
+    void next_ties() {
+        // States with colliding hashes and equal priorities may not be dropped and should come out in insertion order
+        final var frontier = IndexedHeapFrontier.<String>withPriority(unused -> 1);
+        frontier.add(Stream.of("Aa", "BB", "C"));
+        assertEquals(3, frontier.size(), "States with colliding hashes should all be kept");
+        assertEquals("Aa", frontier.next());
+        assertEquals("BB", frontier.next());
+        assertEquals("C", frontier.next());
+    }
+
+    @Test
+    void add_duplicate() {
+        final var frontier = IndexedHeapFrontier.<Integer>withPriority(i -> i);
+        assertTrue(frontier.add(1));
+        assertFalse(frontier.add(1), "Adding a known state should not modify the frontier");
+        assertEquals(1, frontier.size());
+    }
+
+    @Test
+    void remove() {
+        final var frontier = IndexedHeapFrontier.<Integer>withPriority(i -> i);
+        frontier.add(Stream.of(5, 3, 8, 1, 9));
+        assertTrue(frontier.remove(3));
+        assertFalse(frontier.remove(3));
+        assertFalse(frontier.contains(3));
+        assertEquals(9, frontier.removeLast());
+        assertEquals(1, frontier.next());
+        assertEquals(5, frontier.next());
+        assertEquals(8, frontier.next());
+        assertFalse(frontier.hasNext());
+    }
+
+    @Test
+    void mutateOrderedProperty() {
+        final Map<String, Double> costs = new HashMap<>();
+        costs.put("a", 1.0);
+        costs.put("b", 2.0);
+        costs.put("c", 3.0);
+        final var frontier = IndexedHeapFrontier.<String>withPriority(costs::get);
+        frontier.add(Stream.of("a", "b", "c"));
+        frontier.mutateOrderedProperty("c", state -> costs.put(state, 0.0));
+        assertEquals(0.0, frontier.getPriority("c").orElseThrow());
+        frontier.mutateOrderedProperty("a", state -> costs.put(state, 5.0));
+        assertEquals("c", frontier.next());
+        assertEquals("b", frontier.next());
+        assertEquals("a", frontier.next());
+        final var called = new boolean[1];
+        frontier.mutateOrderedProperty("d", state -> called[0] = true);
+        assertTrue(called[0], "The mutator should be invoked for states that are not in the frontier");
+    }
+
+    @Test
+    void withIndexedPriority() {
+        final var index = new StateIndex<String>();
+        final var costs = TraceCostStore.indexed(index);
+        final var frontier = IndexedHeapFrontier.withIndexedPriority(index, id -> costs.getById(id, 0));
+        assertThrows(IllegalArgumentException.class, () -> IndexedHeapFrontier.withIndexedPriority(null, id -> 0));
+        costs.set("a", 1);
+        costs.set("b", 2);
+        frontier.add(Stream.of("b", "a", "c"));
+        assertEquals(0, index.idOf("a"), "Costs and frontier should share the ids of the index");
+        assertEquals(0.0, frontier.getPriority("c").orElseThrow(), "A state without a cost should get the fallback priority");
+        frontier.mutateOrderedProperty("c", state -> costs.set(state, 3));
+        frontier.mutateOrderedProperty("b", state -> costs.set(state, 0.5));
+        assertEquals("b", frontier.next());
+        assertEquals("a", frontier.next());
+        assertEquals("c", frontier.next());
+    }
+}
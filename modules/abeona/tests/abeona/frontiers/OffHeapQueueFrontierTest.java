@@ -0,0 +1,134 @@
+package abeona.frontiers;
+
+import abeona.codecs.StateCodec;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapQueueFrontierTest {
+    private static final StateCodec<Integer> codec = StateCodec.ofInt(Integer::intValue, Integer::valueOf);
+
+    @Test
+    void fifoFrontier() {
+        final var frontier = OffHeapQueueFrontier.fifoFrontier(codec);
+        assertTrue(frontier.add(Stream.of(1, 2, 3)));
+        assertFalse(frontier.add(2), "Adding a known state should not modify the frontier");
+        assertEquals(3, frontier.size());
+        assertEquals(1, frontier.next());
+        assertEquals(2, frontier.next());
+        assertEquals(3, frontier.next());
+        assertFalse(frontier.hasNext());
+    }
+
+    @Test
+    void lifoFrontier() {
+        final var frontier = OffHeapQueueFrontier.lifoFrontier(codec);
+        frontier.add(Stream.of(1, 2, 3));
+        assertEquals(3, frontier.next());
+        assertEquals(2, frontier.next());
+        frontier.add(4);
+        assertEquals(4, frontier.next());
+        assertEquals(1, frontier.next());
+        assertFalse(frontier.hasNext());
+    }
+
+    @Test
+    void remove() {
+        final var frontier = OffHeapQueueFrontier.fifoFrontier(codec);
+        frontier.add(Stream.of(1, 2, 3, 4));
+        assertTrue(frontier.remove(1));
+        assertTrue(frontier.remove(3));
+        assertFalse(frontier.remove(3));
+        assertFalse(frontier.contains(3));
+        assertEquals(2, frontier.size());
+        final List<Integer> iterated = new ArrayList<>();
+        frontier.forEach(iterated::add);
+        assertEquals(List.of(2, 4), iterated);
+        assertEquals(2, frontier.next());
+        assertEquals(4, frontier.next());
+        assertFalse(frontier.hasNext());
+    }
+
+    @Test
+    void add_afterPartialConsumption() {
+        final var frontier = OffHeapQueueFrontier.fifoFrontier(codec);
+        frontier.add(IntStream.range(0, 1000).boxed());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i, frontier.next());
+        }
+        // States are appended behind the consumed part of the first segment and then spill over into a second segment, a segment holds 5461 entries of 4-byte states
+        frontier.add(IntStream.range(1000, 6000).boxed());
+        assertEquals(5500, frontier.size());
+        for (int i = 500; i < 6000; i++) {
+            assertEquals(i, frontier.next());
+        }
+        assertFalse(frontier.hasNext());
+    }
+
+    @Test
+    void remove_addAgain() {
+        final var frontier = OffHeapQueueFrontier.fifoFrontier(codec);
+        frontier.add(Stream.of(1, 2, 3));
+        assertTrue(frontier.remove(1));
+        assertTrue(frontier.add(1), "A removed state should be accepted again");
+        final List<Integer> iterated = new ArrayList<>();
+        frontier.forEach(iterated::add);
+        assertEquals(List.of(2, 3, 1), iterated, "The state should only be produced at the position of its last insertion");
+        assertEquals(2, frontier.next());
+        assertEquals(3, frontier.next());
+        assertEquals(1, frontier.next());
+        assertFalse(frontier.hasNext());
+    }
+
+    @Test
+    void segments_fifo() {
+        // Far more states than fit in a single segment, consumed while others are still being added
+        final var frontier = OffHeapQueueFrontier.fifoFrontier(codec);
+        frontier.add(IntStream.range(0, 50000).boxed());
+        final long filledMemory = frontier.getMemoryUsage();
+        for (int i = 0; i < 40000; i++) {
+            assertEquals(i, frontier.next());
+        }
+        frontier.add(IntStream.range(50000, 60000).boxed());
+        final List<Integer> iterated = new ArrayList<>();
+        frontier.forEach(iterated::add);
+        assertEquals(IntStream.range(40000, 60000).boxed().collect(Collectors.toList()), iterated);
+        for (int i = 40000; i < 60000; i++) {
+            assertEquals(i, frontier.next());
+        }
+        assertFalse(frontier.hasNext());
+        assertTrue(frontier.getMemoryUsage() < filledMemory, "Consumed segments should be released");
+    }
+
+    @Test
+    void segments_lifo() {
+        final var frontier = OffHeapQueueFrontier.lifoFrontier(codec);
+        frontier.add(IntStream.range(0, 30000).boxed());
+        for (int i = 29999; i >= 10000; i--) {
+            assertEquals(i, frontier.next());
+        }
+        frontier.add(IntStream.range(30000, 40000).boxed());
+        final List<Integer> iterated = new ArrayList<>();
+        frontier.forEach(iterated::add);
+        assertEquals(20000, iterated.size());
+        assertEquals(39999, iterated.get(0));
+        assertEquals(30000, iterated.get(9999));
+        assertEquals(9999, iterated.get(10000));
+        assertEquals(0, iterated.get(19999));
+        for (int i = 39999; i >= 30000; i--) {
+            assertEquals(i, frontier.next());
+        }
+        for (int i = 9999; i >= 0; i--) {
+            assertEquals(i, frontier.next());
+        }
+        assertFalse(frontier.hasNext());
+        frontier.add(1);
+        assertEquals(1, frontier.next());
+    }
+}
@@ -0,0 +1,112 @@
+package abeona.frontiers;
+
+import abeona.GridFixture;
+import abeona.NextFunction;
+import abeona.Query;
+import abeona.Transition;
+import abeona.behaviours.TerminateOnGoalStateBehaviour;
+import abeona.util.ExplorationPresets;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartialExpansionFrontierTest {
+    private static final GridFixture fixture = new GridFixture(30);
+
+    @Test
+    void lifoFrontier() {
+        final var frontier = PartialExpansionFrontier.<Integer>lifoFrontier();
+        assertTrue(frontier.comparator().isEmpty());
+        assertFalse(frontier.hasNext());
+        frontier.add(Stream.of(1, 2, 3));
+        assertEquals(1, frontier.next());
+        frontier.add(Stream.of(4, 5));
+        assertEquals(4, frontier.next());
+        assertEquals(5, frontier.next());
+        assertEquals(2, frontier.next());
+        assertEquals(3, frontier.next());
+        assertFalse(frontier.hasNext());
+        assertThrows(NoSuchElementException.class, frontier::next);
+    }
+
+    @Test
+    void lifoFrontier_lazy() {
+        final var frontier = PartialExpansionFrontier.<Integer>lifoFrontier();
+        final var pulled = new AtomicInteger();
+        frontier.add(Stream.iterate(0, i -> i + 1).peek(unused -> pulled.incrementAndGet()));
+        assertEquals(0, pulled.get(), "Adding a generator should not pull from it");
+        assertEquals(0, frontier.next());
+        assertEquals(1, frontier.next());
+        assertEquals(2, pulled.get(), "Only the picked states should have been pulled");
+        assertEquals(1, frontier.getGeneratorCount());
+        frontier.clear();
+        assertFalse(frontier.hasNext());
+        assertEquals(0, frontier.getGeneratorCount());
+    }
+
+    @Test
+    void orderedFrontier() {
+        assertThrows(IllegalArgumentException.class, () -> PartialExpansionFrontier.orderedFrontier(null));
+        final var frontier = PartialExpansionFrontier.orderedFrontier(Comparator.<Integer>naturalOrder());
+        assertTrue(frontier.comparator().isPresent());
+        frontier.add(Stream.of(1, 5, 9));
+        frontier.add(Stream.of(2, 3, 10));
+        assertEquals(1, frontier.next());
+        assertEquals(2, frontier.next());
+        frontier.add(Stream.of(4, 6));
+        // The head 4 is already held by the previous generator, so the last generator continues at 7
+        frontier.add(Stream.of(4, 7));
+        assertEquals(3, frontier.next());
+        assertEquals(4, frontier.next());
+        assertEquals(5, frontier.next());
+        assertEquals(6, frontier.next());
+        assertEquals(7, frontier.next());
+        assertEquals(9, frontier.next());
+        assertEquals(10, frontier.next());
+        assertFalse(frontier.hasNext());
+        assertFalse(frontier.add(Stream.empty()), "An empty generator should not modify the frontier");
+    }
+
+    @Test
+    void setupLazyDfs_expandsOnce() {
+        final var query = ExplorationPresets.setupLazyDfs(grid(new AtomicInteger()));
+        final Set<Integer> evaluated = new HashSet<>();
+        query.afterStateEvaluation.tap(event -> assertTrue(evaluated.add(event.getSourceState()), "No state should be expanded twice"));
+        query.getFrontier().add(Stream.of(0));
+        query.explore();
+        assertEquals(fixture.getCellCount(), evaluated.size());
+    }
+
+    @Test
+    void setupLazyDfs_generatesFewerTransitions() {
+        final int goal = fixture.getSide() - 1;
+        final var eager = new AtomicInteger();
+        final var lazy = new AtomicInteger();
+        assertEquals(goal, findGoal(ExplorationPresets.setupDfs(grid(eager)), goal));
+        assertEquals(goal, findGoal(ExplorationPresets.setupLazyDfs(grid(lazy)), goal));
+        assertTrue(lazy.get() < eager.get(), "The lazy search should not generate the successors it never picks");
+    }
+
+    private static int findGoal(Query<Integer> query, int goal) {
+        final var termination = new TerminateOnGoalStateBehaviour<Integer>(state -> state == goal);
+        query.addBehaviour(termination);
+        query.getFrontier().add(Stream.of(0));
+        return termination.wrapExploration(query).orElseThrow();
+    }
+
+    private static NextFunction<Integer> grid(AtomicInteger generated) {
+        // Moving right is generated first, so a depth-first search walks straight along the first row
+        final int side = fixture.getSide();
+        return cell -> Stream.of(cell + 1, cell + side, cell - 1, cell - side)
+                .filter(target -> fixture.isMove(cell, target))
+                .peek(unused -> generated.incrementAndGet())
+                .map(target -> new Transition<>(cell, target));
+    }
+}
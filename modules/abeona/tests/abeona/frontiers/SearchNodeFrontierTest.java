@@ -0,0 +1,69 @@
+package abeona.frontiers;
+
+import abeona.GridFixture;
+import abeona.NextFunction;
+import abeona.Transition;
+import abeona.util.ExplorationPresets;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchNodeFrontierTest {
+    private static final int SIDE = 30;
+
+    private static final GridFixture fixture = new GridFixture(SIDE);
+    private static final NextFunction<Integer> grid = fixture.next();
+    private static final ToDoubleFunction<Transition<Integer>> weights = GridFixture.weights();
+    private static final ToDoubleFunction<Integer> manhattan = fixture.manhattan();
+    @Test
+    void setupAStarNodes_matchesSetupAStar() {
+        final Map<Integer, Integer> heuristicCalls = new HashMap<>();
+        final var nodes = ExplorationPresets.setupAStarNodes(grid, weights, cell -> {
+            heuristicCalls.merge(cell, 1, Integer::sum);
+            return manhattan.applyAsDouble(cell);
+        });
+        fixture.assertSameCosts(ExplorationPresets.setupAStar(grid, weights, manhattan), nodes, 0);
+
+        assertEquals(SIDE * SIDE, heuristicCalls.size());
+        assertTrue(heuristicCalls.values().stream().allMatch(calls -> calls == 1), "The heuristic should be evaluated once per state");
+    }
+
+    @Test
+    void getCostStore_decreaseKey() {
+        final var frontier = SearchNodeFrontier.<String>withHeuristic(state -> state.length());
+        final var costs = frontier.getCostStore();
+        costs.set("aaaa", 10);
+        costs.set("bb", 3);
+        frontier.add("aaaa");
+        frontier.add("bb");
+        assertEquals(5, frontier.peekPriority().orElseThrow());
+        costs.set("aaaa", 0);
+        assertEquals("aaaa", frontier.next(), "Lowering the cost should move the node to the front");
+        assertEquals(0, costs.get("aaaa", -1));
+        assertEquals("bb", frontier.next());
+        assertFalse(frontier.hasNext());
+        assertEquals(3, costs.get("bb", -1), "Costs should remain available after the state left the frontier");
+    }
+
+    @Test
+    void getCostStore_initialState() {
+        final var frontier = SearchNodeFrontier.<String>withHeuristic(state -> state.length());
+        final var costs = frontier.getCostStore();
+        frontier.add("a");
+        assertEquals(-1, costs.get("a", -1), "A state added without a cost should not have a trace cost");
+        assertEquals(1, frontier.peekPriority().orElseThrow(), "A state added without a cost should be ordered with a cost of 0");
+
+        // Only moves towards the goal, so the initial state is never rediscovered
+        final NextFunction<Integer> forward = cell -> grid.apply(cell).filter(transition -> transition.getTargetState() > cell);
+        final var query = ExplorationPresets.setupAStarNodes(forward, weights, manhattan);
+        query.getFrontier().add(Stream.of(0));
+        query.explore();
+        assertTrue(Double.isNaN(GridFixture.costOf(query, 0)), "An initial state should not have a trace cost");
+        assertFalse(Double.isNaN(GridFixture.costOf(query, fixture.getCorner())));
+    }
+}
@@ -0,0 +1,86 @@
+package abeona.heaps;
+
+import abeona.NextFunction;
+import abeona.Query;
+import abeona.frontiers.HashQueueFrontier;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitstateHeapTest {
+    @Test
+    void constructor() {
+        assertThrows(IllegalArgumentException.class, () -> new BitstateHeap<Long>(null, 1024));
+        assertThrows(IllegalArgumentException.class, () -> new BitstateHeap<Long>(state -> state, 7));
+        assertThrows(IllegalArgumentException.class, () -> new BitstateHeap<Long>(state -> state, 1024, 0));
+        assertEquals(1024, new BitstateHeap<Long>(state -> state, 1027).getMemoryUsage(), "The memory budget should be rounded down to whole words");
+    }
+
+    @Test
+    void add_setsHashFunctionBits() {
+        final long bitCount = 1 << 23;
+        for (int hashFunctions : new int[] { 1, 3, 5 }) {
+            final var heap = new BitstateHeap<Long>(state -> state, bitCount / 8, hashFunctions);
+            assertFalse(heap.contains(42L));
+            assertTrue(heap.add(42L));
+            assertFalse(heap.add(42L), "Adding a state whose bits are set should not modify the heap");
+            assertTrue(heap.contains(42L));
+            assertEquals(hashFunctions, Math.round(heap.getFillRatio() * bitCount), "Every state should set k bits");
+            assertEquals(1, heap.getStoredStateCount());
+            heap.clear();
+            assertEquals(0, heap.getFillRatio());
+            assertFalse(heap.contains(42L));
+        }
+    }
+
+    @Test
+    void contains_falsePositiveRate() {
+        // 5000 states in 65536 bits with k = 3, the expected false positive rate is (1 - e^(-kn/m))^k, about 0.0086
+        final var heap = new BitstateHeap<Long>(state -> state, 65536 / 8, 3);
+        for (long state = 0; state < 5000; state++) {
+            heap.add(state);
+        }
+        final double expected = Math.pow(1 - Math.exp(-3.0 * 5000 / 65536), 3);
+        assertEquals(expected, heap.getFalsePositiveProbability(), expected * 0.05);
+        int falsePositives = 0;
+        final int lookups = 100000;
+        for (long state = 1_000_000; state < 1_000_000 + lookups; state++) {
+            if (heap.contains(state)) {
+                falsePositives++;
+            }
+        }
+        assertEquals(expected, (double) falsePositives / lookups, expected * 0.2, "The measured false positive rate should match the configured bits");
+    }
+
+    @Test
+    void getEstimatedCoverage() {
+        // The filter is overloaded on purpose, so a large part of the offered states is omitted
+        final var heap = new BitstateHeap<Long>(state -> state, 16384 / 8, 3);
+        assertEquals(1, heap.getEstimatedCoverage());
+        final int offered = 8000;
+        for (long state = 0; state < offered; state++) {
+            if (!heap.contains(state)) {
+                heap.add(state);
+            }
+        }
+        final long stored = heap.getStoredStateCount();
+        assertTrue(stored < offered * 0.9, "The test should omit a significant part of the states");
+        assertEquals(offered, heap.getEstimatedStateCount(), offered * 0.05);
+        assertEquals((double) stored / offered, heap.getEstimatedCoverage(), 0.05);
+    }
+
+    @Test
+    void getEstimatedCoverage_revisits() {
+        // Revisiting explored states does not count as omissions, as the query only asks the heap about states outside of the frontier
+        final NextFunction<Long> cycle = NextFunction.wrap(state -> Stream.of((state + 1) % 1000, (state + 7) % 1000));
+        final var heap = new BitstateHeap<Long>(state -> state, 1 << 20);
+        final var query = new Query<>(HashQueueFrontier.<Long>fifoFrontier(), heap, cycle);
+        query.getFrontier().add(Stream.of(0L));
+        query.explore();
+        assertEquals(1000, heap.getStoredStateCount());
+        assertEquals(1000, heap.getEstimatedStateCount(), 1);
+        assertEquals(1, heap.getEstimatedCoverage(), 0.001);
+    }
+}
@@ -0,0 +1,71 @@
+package abeona.heaps;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentHashSetHeapTest {
+    @Test
+    void constructor() {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentHashSetHeap<Integer>(-1));
+        assertDoesNotThrow(() -> new ConcurrentHashSetHeap<Integer>(0));
+    }
+
+    @Test
+    void add_remove() {
+        final var heap = new ConcurrentHashSetHeap<String>();
+        assertTrue(heap.add("a"));
+        assertFalse(heap.add("a"), "Adding a known state should not modify the heap");
+        assertTrue(heap.contains("a"));
+        assertEquals(1, heap.size());
+        assertTrue(heap.remove("a"));
+        assertFalse(heap.remove("a"));
+        assertThrows(IllegalArgumentException.class, () -> heap.add(null));
+        assertThrows(IllegalArgumentException.class, () -> heap.contains(null));
+    }
+
+    @Test
+    void add_contended() throws Exception {
+        // Every thread adds the same states, each state should be claimed by exactly one thread
+        final int threadCount = 4;
+        final int stateCount = 20000;
+        final var heap = new ConcurrentHashSetHeap<Integer>();
+        final var claimed = new AtomicInteger();
+        final var barrier = new CyclicBarrier(threadCount);
+        final List<Thread> threads = new ArrayList<>();
+        final List<Throwable> errors = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            final int offset = t;
+            final var thread = new Thread(() -> {
+                try {
+                    barrier.await();
+                    for (int i = 0; i < stateCount; i++) {
+                        if (heap.add((i * 7 + offset * 1013) % stateCount)) {
+                            claimed.incrementAndGet();
+                        }
+                    }
+                } catch (Throwable error) {
+                    synchronized (errors) {
+                        errors.add(error);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(errors.isEmpty());
+        assertEquals(stateCount, claimed.get(), "Every state should be added exactly once");
+        assertEquals(stateCount, heap.size());
+        for (int i = 0; i < stateCount; i++) {
+            assertTrue(heap.contains(i), "No state should be lost under contention");
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package abeona.heaps;
+
+import abeona.util.Hashing;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FingerprintHeapTest {
+    @Test
+    void constructor() {
+        assertThrows(IllegalArgumentException.class, () -> new FingerprintHeap<Long>(null));
+        assertThrows(IllegalArgumentException.class, () -> new FingerprintHeap<Long>(Hashing::mix64, 0, 16));
+        assertThrows(IllegalArgumentException.class, () -> new FingerprintHeap<Long>(Hashing::mix64, 65, 16));
+        assertThrows(IllegalArgumentException.class, () -> new FingerprintHeap<Long>(Hashing::mix64, 64, 0));
+        assertDoesNotThrow(() -> new FingerprintHeap<Long>(Hashing::mix64, 64, 1));
+    }
+
+    @Test
+    void add_contains_remove() {
+        final var heap = FingerprintHeap.<String>fromHashCode();
+        assertTrue(heap.add("a"));
+        assertFalse(heap.add("a"), "Adding a known state should not modify the heap");
+        assertTrue(heap.contains("a"));
+        assertFalse(heap.contains("b"));
+        assertEquals(1, heap.size());
+        assertTrue(heap.remove("a"));
+        assertFalse(heap.remove("a"));
+        assertFalse(heap.contains("a"));
+        assertEquals(0, heap.size());
+        assertThrows(IllegalArgumentException.class, () -> heap.add(null));
+        assertThrows(IllegalArgumentException.class, () -> heap.contains(null));
+        assertThrows(IllegalArgumentException.class, () -> heap.remove(null));
+    }
+
+    @Test
+    void add_zeroFingerprint() {
+        // The fingerprint 0 marks an empty slot in the table and has to be stored under another value
+        final var heap = new FingerprintHeap<Long>(state -> state, 64, 16);
+        assertFalse(heap.contains(0L));
+        assertTrue(heap.add(0L));
+        assertTrue(heap.contains(0L));
+    }
+
+    @Test
+    void add_grow() {
+        final var heap = new FingerprintHeap<Long>(Hashing::mix64, 64, 1);
+        final long initialMemory = heap.getMemoryUsage();
+        assertTrue(heap.add(1L));
+        assertTrue(heap.add(2L), "A table sized for a single state should grow instead of filling up");
+        for (long state = 3; state <= 10000; state++) {
+            assertTrue(heap.add(state));
+        }
+        assertEquals(10000, heap.size());
+        assertTrue(heap.getMemoryUsage() > initialMemory);
+        for (long state = 1; state <= 10000; state++) {
+            assertTrue(heap.contains(state), "Every state should remain known after growing");
+        }
+        assertFalse(heap.contains(10001L));
+        heap.clear();
+        assertEquals(0, heap.size());
+        assertFalse(heap.contains(1L));
+    }
+
+    @Test
+    void remove_probeSequence() {
+        // Every state gets a distinct fingerprint but many share a slot, so removals have to keep the probe sequences intact
+        final var heap = new FingerprintHeap<Long>(state -> state, 64, 1000);
+        for (long state = 1; state <= 500; state++) {
+            heap.add(state);
+        }
+        for (long state = 1; state <= 500; state += 2) {
+            assertTrue(heap.remove(state));
+        }
+        for (long state = 1; state <= 500; state++) {
+            assertEquals(state % 2 == 0, heap.contains(state));
+        }
+        assertEquals(250, heap.size());
+    }
+
+    @Test
+    void add_fingerprintCollision() {
+        final var heap = new FingerprintHeap<Long>(state -> state % 10, 64, 16);
+        assertTrue(heap.add(3L));
+        assertTrue(heap.contains(13L), "A state sharing a fingerprint with a stored state should be considered known");
+        assertFalse(heap.add(13L));
+        assertEquals(1, heap.size());
+        assertTrue(heap.remove(23L));
+        assertFalse(heap.contains(3L), "Removing a fingerprint should forget every state sharing it");
+    }
+
+    @Test
+    void collisionProbability() {
+        assertEquals(0, FingerprintHeap.collisionProbability(0, 32));
+        assertEquals(0, FingerprintHeap.collisionProbability(1, 32));
+        assertEquals(1.0 / (1L << 32), FingerprintHeap.collisionProbability(2, 32), 1e-15);
+        // The birthday bound, roughly 77 thousand 32-bit fingerprints give even odds of a collision
+        assertEquals(0.5, FingerprintHeap.collisionProbability(77163, 32), 1e-4);
+        assertTrue(FingerprintHeap.collisionProbability(1_000_000, 64) < 1e-7);
+        assertThrows(IllegalArgumentException.class, () -> FingerprintHeap.collisionProbability(-1, 32));
+        assertThrows(IllegalArgumentException.class, () -> FingerprintHeap.collisionProbability(10, 0));
+
+        final var heap = new FingerprintHeap<Long>(Hashing::mix64, 32, 16);
+        for (long state = 0; state < 1000; state++) {
+            heap.add(state);
+        }
+        assertEquals(FingerprintHeap.collisionProbability(1000, 32), heap.getCollisionProbability());
+    }
+
+    @Test
+    void capacityForCollisionProbability() {
+        for (int bits : new int[] { 16, 32, 48, 64 }) {
+            for (double probability : new double[] { 1e-6, 0.01, 0.5 }) {
+                final long capacity = FingerprintHeap.capacityForCollisionProbability(probability, bits);
+                assertTrue(FingerprintHeap.collisionProbability(capacity, bits) <= probability * (1 + 1e-9));
+                assertTrue(FingerprintHeap.collisionProbability(capacity + 1, bits) > probability * (1 - 1e-9),
+                        "The capacity should be the largest number of states within the probability");
+            }
+        }
+        assertEquals(77163, FingerprintHeap.capacityForCollisionProbability(0.5, 32), 1);
+        assertThrows(IllegalArgumentException.class, () -> FingerprintHeap.capacityForCollisionProbability(0, 32));
+        assertThrows(IllegalArgumentException.class, () -> FingerprintHeap.capacityForCollisionProbability(1, 32));
+        assertThrows(IllegalArgumentException.class, () -> FingerprintHeap.capacityForCollisionProbability(0.5, 65));
+    }
+}
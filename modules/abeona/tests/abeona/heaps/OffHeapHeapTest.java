@@ -0,0 +1,100 @@
+package abeona.heaps;
+
+import abeona.NextFunction;
+import abeona.Query;
+import abeona.codecs.StateCodec;
+import abeona.frontiers.QueueFrontier;
+import org.junit.jupiter.api.Test;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapHeapTest {
+    private static final StateCodec<Integer> codec = StateCodec.ofInt(Integer::intValue, Integer::valueOf);
+
+    @Test
+    void constructor() {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapHeap<Integer>(null));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapHeap<>(codec, 0));
+    }
+
+    @Test
+    void add_contains_remove() {
+        final var heap = new OffHeapHeap<>(codec);
+        assertTrue(heap.add(1));
+        assertFalse(heap.add(1), "Adding a known state should not modify the heap");
+        assertTrue(heap.contains(1));
+        assertFalse(heap.contains(2));
+        assertEquals(1, heap.size());
+        assertTrue(heap.remove(1));
+        assertFalse(heap.remove(1));
+        assertFalse(heap.contains(1));
+        heap.add(2);
+        heap.clear();
+        assertEquals(0, heap.size());
+        assertFalse(heap.contains(2));
+    }
+
+    @Test
+    void iterator() {
+        final var heap = new OffHeapHeap<>(codec, 1);
+        for (int state = 0; state < 1000; state++) {
+            heap.add(state);
+        }
+        final Set<Integer> iterated = new HashSet<>();
+        heap.forEach(state -> assertTrue(iterated.add(state), "Every state should be produced once"));
+        assertEquals(1000, iterated.size());
+        final var iterator = heap.iterator();
+        while (iterator.hasNext()) {
+            iterator.next();
+        }
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    void iterator_remove() {
+        final var heap = new OffHeapHeap<>(codec);
+        for (int state = 0; state < 100; state++) {
+            heap.add(state);
+        }
+        final var iterator = heap.iterator();
+        assertThrows(IllegalStateException.class, iterator::remove, "Removing before the first state is produced is not allowed");
+        while (iterator.hasNext()) {
+            if (iterator.next() % 2 == 0) {
+                iterator.remove();
+                assertThrows(IllegalStateException.class, iterator::remove, "A state can only be removed once");
+            }
+        }
+        assertEquals(50, heap.size());
+        for (int state = 0; state < 100; state++) {
+            assertEquals(state % 2 == 1, heap.contains(state));
+        }
+    }
+
+    @Test
+    void iterator_concurrentModification() {
+        final var heap = new OffHeapHeap<>(codec);
+        heap.add(1);
+        heap.add(2);
+        final var iterator = heap.iterator();
+        iterator.next();
+        heap.add(3);
+        assertThrows(ConcurrentModificationException.class, iterator::next);
+        assertThrows(ConcurrentModificationException.class, iterator::remove);
+    }
+
+    @Test
+    void explore() {
+        final NextFunction<Integer> cycle = NextFunction.wrap(state -> Stream.of((state + 1) % 1000, (state + 7) % 1000));
+        final var heap = new OffHeapHeap<>(codec);
+        final var query = new Query<>(QueueFrontier.<Integer>fifoFrontier(), heap, cycle);
+        query.getFrontier().add(Stream.of(0));
+        query.explore();
+        assertEquals(1000, heap.size(), "Every state should be stored exactly once");
+    }
+}
@@ -0,0 +1,117 @@
+package abeona.heaps;
+
+import abeona.behaviours.SweepLineBehaviour;
+import abeona.util.ExplorationPresets;
+import abeona.NextFunction;
+import abeona.Query;
+import abeona.frontiers.QueueFrontier;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProgressBucketHeapTest {
+    // Groups strings on their length
+    private static final Comparator<String> byLength = Comparator.comparingInt(String::length);
+
+    @Test
+    void constructor() {
+        assertThrows(IllegalArgumentException.class, () -> new ProgressBucketHeap<String>(null));
+    }
+
+    @Test
+    void add_remove() {
+        final var heap = new ProgressBucketHeap<>(byLength);
+        assertTrue(heap.add("a"));
+        assertTrue(heap.add("b"), "States with equal progress should share a bucket without colliding");
+        assertFalse(heap.add("a"));
+        assertTrue(heap.contains("b"));
+        assertFalse(heap.contains("c"));
+        assertEquals(2, heap.size());
+        assertTrue(heap.remove("a"));
+        assertFalse(heap.remove("a"));
+        assertEquals(Set.of("b"), contents(heap));
+    }
+
+    @Test
+    void purgeBelow() {
+        final var heap = new ProgressBucketHeap<>(byLength);
+        Stream.of("a", "b", "aa", "bb", "aaa", "bbb").forEach(heap::add);
+        final List<String> purged = new ArrayList<>();
+        final List<String> tested = new ArrayList<>();
+        final long count = heap.purgeBelow("xxx", state -> {
+            tested.add(state);
+            return state.equals("bb");
+        }, purged::add);
+        assertEquals(3, count);
+        assertEquals(Set.of("a", "b", "aa"), new HashSet<>(purged));
+        assertEquals(4, tested.size(), "Only the states below the threshold should be visited");
+        assertEquals(Set.of("bb", "aaa", "bbb"), contents(heap));
+        assertEquals(3, heap.size());
+
+        tested.clear();
+        heap.purgeBelow("xxxx", state -> {
+            tested.add(state);
+            return false;
+        }, purged::add);
+        assertEquals(List.of("aaa", "bbb"), tested.stream().sorted().collect(Collectors.toList()), "Retained states should not be tested again");
+        assertTrue(heap.contains("bb"));
+        assertFalse(heap.add("bb"));
+        assertEquals(1, heap.size());
+    }
+
+    @Test
+    void iterator_remove() {
+        final var heap = new ProgressBucketHeap<>(byLength);
+        Stream.of("a", "aa", "bb", "aaa").forEach(heap::add);
+        final var iterator = heap.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().length() == 2) {
+                iterator.remove();
+            }
+        }
+        assertEquals(2, heap.size());
+        assertEquals(Set.of("a", "aaa"), contents(heap));
+        assertTrue(heap.add("cc"));
+    }
+
+    @Test
+    void setupSweepLine_purgesBuckets() {
+        // Counting up to a limit, every state has a progress higher than its predecessor
+        final NextFunction<Integer> counter = NextFunction.wrap(state -> state < 100 ? Stream.of(state + 1) : Stream.empty());
+        final var query = ExplorationPresets.setupSweepLine(counter, Comparator.naturalOrder());
+        final List<Integer> purged = new ArrayList<>();
+        @SuppressWarnings("unchecked") final var sweepLine = (SweepLineBehaviour<Integer>) query.getBehaviours(SweepLineBehaviour.class).findFirst().orElseThrow();
+        sweepLine.onPurge.tap(event -> purged.add(event.getState()));
+        query.getFrontier().add(Stream.of(0));
+        query.explore();
+        assertTrue(sweepLine.usesBucketPurge(query));
+        assertEquals(100, purged.size(), "Every state but the last should be purged");
+        assertEquals(1, ((ProgressBucketHeap<Integer>) query.getHeap()).size());
+    }
+
+    @Test
+    void usesBucketPurge() {
+        final NextFunction<Integer> counter = NextFunction.wrap(state -> Stream.of(state + 1));
+        final var sweepLine = new SweepLineBehaviour<Integer>(Comparator.comparingInt(state -> state));
+        final var query = new Query<>(QueueFrontier.<Integer>fifoFrontier(), sweepLine.createHeap(), counter);
+        assertTrue(sweepLine.usesBucketPurge(query));
+        // An equal comparator built separately cannot be recognized as the same progress measure
+        final var separate = new Query<>(QueueFrontier.<Integer>fifoFrontier(), new ProgressBucketHeap<>(Comparator.comparingInt(state -> state)), counter);
+        assertFalse(sweepLine.usesBucketPurge(separate));
+        assertFalse(sweepLine.usesBucketPurge(new Query<>(QueueFrontier.<Integer>fifoFrontier(), new HashSetHeap<>(), counter)));
+    }
+
+    private static Set<String> contents(ProgressBucketHeap<String> heap) {
+        final Set<String> states = new HashSet<>();
+        heap.forEach(states::add);
+        return states;
+    }
+}
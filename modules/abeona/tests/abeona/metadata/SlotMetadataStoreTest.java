@@ -0,0 +1,86 @@
+package abeona.metadata;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotMetadataStoreTest {
+    @Test
+    void stateIndex_denseIds() {
+        final var index = new StateIndex<String>();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, index.getOrAssign("state" + i));
+        }
+        assertEquals(1000, index.size());
+        assertEquals(42, index.idOf("state42"));
+        assertEquals(-1, index.idOf("unknown"));
+        assertEquals(1000, index.size(), "Looking up an id should not assign one");
+        final var copy = new String("state7");
+        assertSame(index.stateOf(7), index.intern(copy), "Interning should produce the first instance");
+    }
+
+    @Test
+    void stateIndex_release() {
+        final var index = new StateIndex<String>();
+        for (int i = 0; i < 100; i++) {
+            index.getOrAssign("state" + i);
+        }
+        for (int i = 0; i < 100; i += 2) {
+            assertTrue(index.release("state" + i));
+        }
+        assertFalse(index.release("state0"));
+        assertEquals(-1, index.idOf("state10"));
+        assertNull(index.stateOf(10));
+        assertEquals(11, index.idOf("state11"));
+        assertEquals(50, index.size());
+        assertEquals(100, index.getIdBound());
+        final var released = new ArrayList<Integer>();
+        index.addReleaseListener(released::add);
+        final int generation = index.generationOf(11);
+        assertTrue(index.release("state11"));
+        assertEquals(List.of(11), released, "Releasing should notify the listeners");
+        assertNotEquals(generation, index.generationOf(11));
+        assertEquals(11, index.getOrAssign("other"), "A released id should be reused");
+        for (int i = 0; i < 100; i += 2) {
+            index.getOrAssign("state" + i);
+        }
+        assertEquals(100, index.getIdBound(), "Ids should be reused before new ids are assigned");
+        assertEquals(100, index.getOrAssign("state11"));
+    }
+
+    @Test
+    void typedSlots() {
+        final var store = new SlotMetadataStore<String>();
+        final var depth = store.registerIntSlot("depth");
+        final var cost = store.registerDoubleSlot("cost");
+        depth.set("a", 3);
+        cost.set("b", 1.5);
+        assertEquals(OptionalInt.of(3), depth.get("a"));
+        assertEquals(OptionalInt.empty(), depth.get("b"));
+        assertEquals(1.5, cost.getById(store.getStateIndex().idOf("b"), 0));
+        assertSame(depth, store.registerIntSlot("depth"), "Registering a key again should produce the same slot");
+        assertThrows(IllegalStateException.class, () -> store.registerLongSlot("depth"));
+        depth.unset("a");
+        assertFalse(depth.isSet("a"));
+    }
+
+    @Test
+    void genericAccess() {
+        final var store = new SlotMetadataStore<String>();
+        final var depth = store.registerIntSlot("depth");
+        store.set("a", "depth", 5);
+        assertEquals(5, depth.get("a").orElseThrow(), "Values set through the generic interface should end up in the slot");
+        assertEquals(Optional.of(5), store.get("a", "depth"));
+        store.set("a", "label", "hello");
+        assertEquals(Optional.of("hello"), store.get("a", "label"), "Unregistered keys should be registered on first use");
+        store.set("a", "label", null);
+        assertEquals(Optional.empty(), store.get("a", "label"));
+        assertEquals("generated", store.getOrCompute("b", "label", unused -> "generated"));
+        assertEquals(Optional.of("generated"), store.get("b", "label"));
+    }
+}